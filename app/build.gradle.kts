@@ -31,6 +31,7 @@ android {
 }
 
 dependencies {
+    implementation(project(":engine"))
     implementation("com.google.android.material:material:1.9.0")
     implementation("androidx.core:core-ktx:1.10.1")
     implementation("androidx.appcompat:appcompat:1.6.1")
@@ -0,0 +1,301 @@
+package com.example.chainreaction;
+
+import com.example.chainreaction.engine.BoardView;
+
+import java.util.Arrays;
+
+/**
+ * What {@link GameView} draws, kept in flat arrays indexed by cell so the
+ * frame loop allocates nothing. {@link #update} diffs the board against what
+ * is on screen and only restarts the grow animation of cells whose atoms or
+ * owner changed; {@link #step} advances everything by the time since the
+ * last frame.
+ */
+final class BoardSprites {
+    // The rates below were tuned per frame at 60 Hz and are applied in proportion to real time
+    static final long FRAME_NANOS = 16_666_667L;
+    /** How fast a pair or triple orbits its cell. */
+    static final float DEGREES_PER_SECOND = 180f;
+    // Fraction of the remaining size a new atom grows by each 60 Hz frame
+    private static final double GROW_RATE = 0.2;
+    private static final float GROWN = 0.99f;
+    private static final long BURST_NANOS = 5 * FRAME_NANOS;
+
+    // Orbit offsets come from a quarter-degree sine table instead of Math.sin and Math.cos per
+    // atom. The step count divides by 2 and 3, so pair and triple spacings fall on entries.
+    private static final int TABLE_STEPS = 1440;
+    private static final float STEPS_PER_DEGREE = TABLE_STEPS / 360f;
+    // A quarter turn longer than a full one, so cosines read the same table without wrapping
+    private static final float[] SINE = new float[TABLE_STEPS + TABLE_STEPS / 4];
+
+    static {
+        for (int i = 0; i < SINE.length; i++) {
+            SINE[i] = (float) Math.sin(2 * Math.PI * i / TABLE_STEPS);
+        }
+    }
+
+    private float cellWidth;
+    private float cellHeight;
+    private float atomRadius;
+    private float orbitRadius;
+    private float burstMaxRadius;
+
+    // Per cell; only meaningful for cells in drawn
+    private int[] atoms = new int[0];
+    private int[] colors = new int[0];
+    private float[] angles = new float[0];
+    private float[] growth = new float[0];
+    private int[] slotOf = new int[0];
+    private int[] seen = new int[0];
+    private int epoch;
+    // Whether anything drawn from the settled layer has appeared, changed or gone
+    private boolean settledChanged;
+
+    // Cells on screen, in no particular order
+    private int[] drawn = new int[0];
+    private int drawnCount;
+
+    // Explosion bursts in the order they started
+    private float[] burstX = new float[16];
+    private float[] burstY = new float[16];
+    // 0 when a burst starts, 1 when it has reached its full size and faded out
+    private float[] burstProgress = new float[16];
+    private int[] burstColor = new int[16];
+    private int burstCount;
+
+    void setCellSize(float cellWidth, float cellHeight) {
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.atomRadius = Math.min(cellWidth, cellHeight) * 0.15f;
+        this.orbitRadius = atomRadius * 1.2f;
+        this.settledChanged = true;
+        this.burstMaxRadius = Math.max(cellWidth, cellHeight) * 1.5f;
+    }
+
+    /** Forgets every atom and burst, as for a new game. */
+    void clear() {
+        for (int i = 0; i < drawnCount; i++) {
+            slotOf[drawn[i]] = -1;
+        }
+        drawnCount = 0;
+        burstCount = 0;
+        settledChanged = true;
+    }
+
+    /** Brings the sprites in line with {@code board}; {@code playerColors} is indexed by player id. */
+    void update(BoardView board, int[] playerColors) {
+        int cells = board.getCellCount();
+        if (atoms.length != cells) {
+            resize(cells);
+        }
+        if (++epoch == 0) {
+            Arrays.fill(seen, 0);
+            epoch = 1;
+        }
+        // Only visit cells that hold atoms, so large boards cost what is on them
+        for (int k = 0; k < board.getOccupiedCount(); k++) {
+            int cell = board.getOccupiedCell(k);
+            int count = board.getAtomCount(cell);
+            int color = playerColors[board.getOwnerPlayerId(cell)];
+            seen[cell] = epoch;
+            if (slotOf[cell] < 0) {
+                slotOf[cell] = drawnCount;
+                drawn[drawnCount++] = cell;
+                angles[cell] = 0;
+            } else if (atoms[cell] == count && colors[cell] == color) {
+                continue;
+            } else if (isSettled(cell)) {
+                settledChanged = true;
+            }
+            atoms[cell] = count;
+            colors[cell] = color;
+            growth[cell] = 0;
+        }
+        // Drop cells that have been emptied
+        for (int i = drawnCount - 1; i >= 0; i--) {
+            int cell = drawn[i];
+            if (seen[cell] != epoch) {
+                if (isSettled(cell)) {
+                    settledChanged = true;
+                }
+                int last = drawn[--drawnCount];
+                drawn[i] = last;
+                slotOf[last] = i;
+                slotOf[cell] = -1;
+            }
+        }
+    }
+
+    private void resize(int cells) {
+        atoms = new int[cells];
+        colors = new int[cells];
+        angles = new float[cells];
+        growth = new float[cells];
+        slotOf = new int[cells];
+        Arrays.fill(slotOf, -1);
+        seen = new int[cells];
+        epoch = 0;
+        drawn = new int[cells];
+        drawnCount = 0;
+        settledChanged = true;
+    }
+
+    /** Starts a burst centred on {@code cell} of a board {@code cols} wide. */
+    void addBurst(int cell, int cols, int color) {
+        if (burstCount == burstX.length) {
+            int capacity = burstCount * 2;
+            burstX = Arrays.copyOf(burstX, capacity);
+            burstY = Arrays.copyOf(burstY, capacity);
+            burstProgress = Arrays.copyOf(burstProgress, capacity);
+            burstColor = Arrays.copyOf(burstColor, capacity);
+        }
+        burstX[burstCount] = centerX(cell % cols);
+        burstY[burstCount] = centerY(cell / cols);
+        burstProgress[burstCount] = 0;
+        burstColor[burstCount] = color;
+        burstCount++;
+    }
+
+    /**
+     * Advances by {@code elapsedNanos}. Returns true while anything is still
+     * moving: a burst, an atom growing in, or a pair or triple orbiting. A
+     * board of single atoms is still, so the caller can stop asking for frames.
+     */
+    boolean step(long elapsedNanos) {
+        boolean active = false;
+        float turn = DEGREES_PER_SECOND * elapsedNanos / 1e9f;
+        float grow = (float) (1 - Math.pow(1 - GROW_RATE, (double) elapsedNanos / FRAME_NANOS));
+        for (int i = 0; i < drawnCount; i++) {
+            int cell = drawn[i];
+            if (atoms[cell] == 2 || atoms[cell] == 3) {
+                float angle = angles[cell] + turn;
+                angles[cell] = angle >= 360f ? angle % 360f : angle;
+                active = true;
+            }
+            float g = growth[cell];
+            if (g < 1f) {
+                g += (1f - g) * grow;
+                growth[cell] = g >= GROWN ? 1f : g;
+                active = true;
+                if (isSettled(cell)) {
+                    settledChanged = true;
+                }
+            }
+        }
+
+        float widen = (float) elapsedNanos / BURST_NANOS;
+        int kept = 0;
+        for (int i = 0; i < burstCount; i++) {
+            float progress = burstProgress[i] + widen;
+            if (progress < 1f) {
+                burstX[kept] = burstX[i];
+                burstY[kept] = burstY[i];
+                burstProgress[kept] = progress;
+                burstColor[kept] = burstColor[i];
+                kept++;
+            }
+        }
+        burstCount = kept;
+        return active || burstCount > 0;
+    }
+
+    int getDrawnCount() {
+        return drawnCount;
+    }
+
+    int getDrawnCell(int i) {
+        return drawn[i];
+    }
+
+    /**
+     * Whether {@code cell} looks the same from frame to frame: fully grown
+     * and not orbiting. Settled cells can be drawn once into a cached layer.
+     */
+    boolean isSettled(int cell) {
+        int count = atoms[cell];
+        return growth[cell] >= 1f && count != 2 && count != 3;
+    }
+
+    /** Whether the settled cells have changed since the last call. */
+    boolean takeSettledChange() {
+        boolean changed = settledChanged;
+        settledChanged = false;
+        return changed;
+    }
+
+    int getAtoms(int cell) {
+        return atoms[cell];
+    }
+
+    int getColor(int cell) {
+        return colors[cell];
+    }
+
+    /** Current radius of the atoms in {@code cell}, smaller while they grow in. */
+    float getAtomRadius(int cell) {
+        return atomRadius * growth[cell];
+    }
+
+    float getAngle(int cell) {
+        return angles[cell];
+    }
+
+    /** Centre of atom {@code k} of {@code cell} on a board {@code cols} wide. */
+    float atomX(int cell, int cols, int k) {
+        float x = centerX(cell % cols);
+        int count = atoms[cell];
+        if (count == 2 || count == 3) {
+            x += SINE[orbitStep(cell, count, k) + TABLE_STEPS / 4] * orbitRadius;
+        }
+        return x;
+    }
+
+    float atomY(int cell, int cols, int k) {
+        float y = centerY(cell / cols);
+        int count = atoms[cell];
+        if (count == 2 || count == 3) {
+            y += SINE[orbitStep(cell, count, k)] * orbitRadius;
+        }
+        return y;
+    }
+
+    /** Table index of atom {@code k} of a cluster of {@code count}, spaced evenly from the cell's angle. */
+    private int orbitStep(int cell, int count, int k) {
+        int step = (int) (angles[cell] * STEPS_PER_DEGREE + 0.5f) + k * (TABLE_STEPS / count);
+        // Angles stay below 360 degrees and the spacing below a full turn, so one wrap is enough
+        return step >= TABLE_STEPS ? step - TABLE_STEPS : step;
+    }
+
+    private float centerX(int col) {
+        return col * cellWidth + cellWidth / 2;
+    }
+
+    private float centerY(int row) {
+        return row * cellHeight + cellHeight / 2;
+    }
+
+    int getBurstCount() {
+        return burstCount;
+    }
+
+    float getBurstX(int i) {
+        return burstX[i];
+    }
+
+    float getBurstY(int i) {
+        return burstY[i];
+    }
+
+    float getBurstRadius(int i) {
+        return burstProgress[i] * burstMaxRadius;
+    }
+
+    int getBurstColor(int i) {
+        return burstColor[i];
+    }
+
+    /** Bursts fade out as they widen. */
+    int getBurstAlpha(int i) {
+        return (int) (255 * (1 - burstProgress[i]));
+    }
+}
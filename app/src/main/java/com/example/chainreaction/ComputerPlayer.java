@@ -0,0 +1,118 @@
+package com.example.chainreaction;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.chainreaction.engine.AlphaBetaSearch;
+import com.example.chainreaction.engine.BitBoardEngine;
+import com.example.chainreaction.engine.GameEngine;
+import com.example.chainreaction.engine.MctsResult;
+import com.example.chainreaction.engine.MctsSearch;
+import com.example.chainreaction.engine.SearchResult;
+import com.example.chainreaction.engine.TranspositionTable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the computer's search on a background thread so the UI keeps drawing
+ * while it thinks. Two-player games use {@link AlphaBetaSearch}; games with
+ * more players use {@link MctsSearch}, which does not need to treat all
+ * opponents as one. Each request copies the position into a
+ * fresh bitboard on the main thread, searches it on the worker and posts the
+ * chosen move back to the main looper.
+ */
+public class ComputerPlayer {
+    private static final String TAG = "ComputerPlayer";
+    static final long MOVE_BUDGET_MS = 750;
+    private static final int TABLE_MEGABYTES = 4;
+    private static final int MAX_SEARCH_THREADS = 4;
+
+    public interface OnMoveChosenListener {
+        void onMoveChosen(int row, int col);
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int numPlayers;
+    private final AlphaBetaSearch alphaBeta;
+    private final MctsSearch mcts;
+    private final ExecutorService executor;
+    private final Handler handler;
+    // Bumped on every request and cancel so a stale result is never played
+    private int generation;
+
+    public ComputerPlayer(int rows, int cols, int numPlayers) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numPlayers = numPlayers;
+        if (numPlayers == 2) {
+            this.alphaBeta = new AlphaBetaSearch(rows, cols, numPlayers, new TranspositionTable(TABLE_MEGABYTES));
+            this.mcts = null;
+        } else {
+            // Leave a core for the UI thread; past a few trees, splitting the memory budget further loses more than it gains
+            int threads = Math.max(1, Math.min(MAX_SEARCH_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+            this.alphaBeta = null;
+            this.mcts = new MctsSearch(rows, cols, numPlayers, threads);
+        }
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "computer-player");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.handler = new Handler(Looper.getMainLooper());
+    }
+
+    /** The search needs the whole board in one bitboard. */
+    public static boolean supports(int rows, int cols) {
+        return BitBoardEngine.supports(rows, cols);
+    }
+
+    public void requestMove(GameEngine engine, OnMoveChosenListener listener) {
+        int requested = ++generation;
+        BitBoardEngine position = new BitBoardEngine(rows, cols, numPlayers);
+        position.copyFrom(engine);
+        // Reserved here rather than on the worker, so a cancel() before the search starts still stops it
+        int ticket = alphaBeta != null ? alphaBeta.reserveSearch() : mcts.reserveSearch();
+        executor.execute(() -> {
+            int move;
+            if (alphaBeta != null) {
+                SearchResult result = alphaBeta.search(position, MOVE_BUDGET_MS, AlphaBetaSearch.MAX_DEPTH, ticket);
+                Log.d(TAG, result.toString());
+                move = result.getMove();
+            } else {
+                try {
+                    MctsResult result = mcts.search(position, MOVE_BUDGET_MS, Long.MAX_VALUE, System.nanoTime(), ticket);
+                    Log.d(TAG, result.toString());
+                    move = result.getMove();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            handler.post(() -> {
+                if (requested == generation) {
+                    listener.onMoveChosen(move / cols, move % cols);
+                }
+            });
+        });
+    }
+
+    public void cancel() {
+        generation++;
+        if (alphaBeta != null) {
+            alphaBeta.cancel();
+        } else {
+            mcts.cancel();
+        }
+        handler.removeCallbacksAndMessages(null);
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+        if (mcts != null) {
+            mcts.close();
+        }
+    }
+}
@@ -1,27 +1,39 @@
 package com.example.chainreaction;
 
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.util.AttributeSet;
 import android.view.View;
-import android.view.animation.AccelerateInterpolator;
-import android.view.animation.DecelerateInterpolator;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class FirecrackerView extends View {
-    private List<Particle> particles;
+    private static final int[] COLORS = {
+        Color.RED,
+        Color.YELLOW,
+        0xFFFFA500, // Orange
+        Color.WHITE,
+        Color.CYAN
+    };
+    private static final int PARTICLES_PER_SIDE = 150; // Half of total particles per burst
+    // Room for a few bursts in flight; slow devices get a smaller budget from the pool
+    private static final int MAX_PARTICLES = 900;
+    private static final int MIN_PARTICLES = 150;
+
+    private final ParticlePool particles = new ParticlePool(MAX_PARTICLES, MIN_PARTICLES);
     private Paint paint;
-    private Random random;
-    private ValueAnimator animator;
+    private SplittableRandom random;
     private boolean isAnimating;
+    private long showStartTime;
     private long lastBurstTime;
-    private static final long BURST_INTERVAL = 1000; // Time between bursts in milliseconds
+    private float showProgress;
+    private static final long BURST_INTERVAL = 1_000_000_000L; // Time between bursts in nanoseconds
+    private static final long SHOW_DURATION = 120_000_000_000L;
+    // Particles are dropped past this point of the show, so no burst after it would be seen
+    private static final float FADE_OUT = 0.8f;
+    private final FrameScheduler.Client frame = this::onFrame;
 
     public FirecrackerView(Context context) {
         super(context);
@@ -34,11 +46,9 @@ public class FirecrackerView extends View {
     }
 
     private void init() {
-        particles = new ArrayList<>();
         paint = new Paint();
-        random = new Random();
+        random = new SplittableRandom();
         isAnimating = false;
-        lastBurstTime = 0;
     }
 
     public void startFirecrackerAnimation() {
@@ -47,109 +57,99 @@ public class FirecrackerView extends View {
         }
         isAnimating = true;
         particles.clear();
-        lastBurstTime = System.currentTimeMillis();
-
-        // Start animation
-        animator = ValueAnimator.ofFloat(0f, 1f);
-        animator.setDuration(120000);
-        animator.setInterpolator(new DecelerateInterpolator());
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                float value = (float) animation.getAnimatedValue();
-                updateParticles(value);
-                
-                // Check if it's time for a new burst
-                long currentTime = System.currentTimeMillis();
-                if (currentTime - lastBurstTime >= BURST_INTERVAL) {
-                    createBurst(true);  // Left side burst
-                    createBurst(false); // Right side burst
-                    lastBurstTime = currentTime;
-                }
-                
-                invalidate();
-            }
-        });
-        animator.start();
+        showProgress = 0;
+        // Timed from the first frame, so the show does not start half-way through after a stall
+        showStartTime = 0;
+        if (isAttachedToWindow()) {
+            FrameScheduler.get().register(frame);
+        }
+    }
+
+    public void stopFirecrackerAnimation() {
+        isAnimating = false;
+        particles.clear();
+        FrameScheduler.get().unregister(frame);
+        invalidate();
+    }
+
+    private boolean onFrame(long frameTimeNanos, long elapsedNanos) {
+        if (showStartTime == 0) {
+            showStartTime = frameTimeNanos;
+            lastBurstTime = frameTimeNanos;
+        }
+        float t = Math.min(1f, (float) (frameTimeNanos - showStartTime) / SHOW_DURATION);
+        // Decelerating, as the show used to be driven by a DecelerateInterpolator
+        float value = 1 - (1 - t) * (1 - t);
+        showProgress = value;
+        particles.adaptBudget(elapsedNanos);
+        updateParticles(value, elapsedNanos);
+
+        // Check if it's time for a new burst
+        if (value <= FADE_OUT && frameTimeNanos - lastBurstTime >= BURST_INTERVAL) {
+            createBurst(true);  // Left side burst
+            createBurst(false); // Right side burst
+            lastBurstTime = frameTimeNanos;
+        }
+
+        invalidate();
+        if (value > FADE_OUT && particles.size() == 0) {
+            isAnimating = false;
+            return false;
+        }
+        return true;
     }
 
     private void createBurst(boolean isLeftSide) {
-        int numParticles = 150; // Half of total particles per burst
         float startX = isLeftSide ? 0 : getWidth();
         float startY = getHeight() / 2;
-        
-        for (int i = 0; i < numParticles; i++) {
-            float angle = isLeftSide ? 
-                random.nextFloat() * 180 - 90 : // Left side: -90 to 90 degrees
-                random.nextFloat() * 180 + 90;  // Right side: 90 to 270 degrees
-            float speed = random.nextFloat() * 40 + 10;
-            float size = random.nextFloat() * 12 + 3;
-            int color = getRandomFirecrackerColor();
-            particles.add(new Particle(startX, startY, angle, speed, size, color));
+
+        for (int i = 0; i < PARTICLES_PER_SIDE; i++) {
+            float angle = isLeftSide ?
+                (float) random.nextDouble(-90, 90) : // Left side: -90 to 90 degrees
+                (float) random.nextDouble(90, 270);  // Right side: 90 to 270 degrees
+            float speed = (float) random.nextDouble(10, 50);
+            float size = (float) random.nextDouble(3, 15);
+            int color = COLORS[random.nextInt(COLORS.length)];
+            if (!particles.spawn(startX, startY, angle, speed, size, color)) {
+                break; // Over budget; the rest of this burst is skipped
+            }
         }
     }
 
-    private void updateParticles(float progress) {
-        for (int i = particles.size() - 1; i >= 0; i--) {
-            Particle particle = particles.get(i);
-            particle.update(progress);
-            // Add some randomness to particle movement
-            particle.x += random.nextFloat() * 2 - 1;
-            particle.y += random.nextFloat() * 2 - 1;
-            
-            // Remove particles that are too old or out of bounds
-            if (particle.progress > 0.8f || 
-                particle.x < -100 || particle.x > getWidth() + 100 ||
-                particle.y < -100 || particle.y > getHeight() + 100) {
-                particles.remove(i);
-            }
+    private void updateParticles(float progress, long elapsedNanos) {
+        if (progress > FADE_OUT) {
+            // Too faded to see
+            particles.clear();
+            return;
         }
+        // Speeds are in pixels per 60 Hz frame, slowing down as the show goes on
+        float frames = (float) elapsedNanos / FrameScheduler.NOMINAL_FRAME_NANOS;
+        particles.step(frames, 1 - progress, -100, -100, getWidth() + 100, getHeight() + 100);
     }
 
     @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
-        for (Particle particle : particles) {
-            paint.setColor(particle.color);
-            paint.setAlpha((int) (255 * (1 - particle.progress)));
-            canvas.drawCircle(particle.x, particle.y, particle.size, paint);
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (isAnimating) {
+            FrameScheduler.get().register(frame);
         }
     }
 
-    private int getRandomFirecrackerColor() {
-        int[] colors = {
-            Color.RED,
-            Color.YELLOW,
-            0xFFFFA500, // Orange
-            Color.WHITE,
-            Color.CYAN
-        };
-        return colors[random.nextInt(colors.length)];
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // The winner dialog is gone; there is nobody left to watch the show
+        stopFirecrackerAnimation();
     }
 
-    private static class Particle {
-        float x, y;
-        float angle;
-        float speed;
-        float size;
-        int color;
-        float progress;
-
-        Particle(float startX, float startY, float angle, float speed, float size, int color) {
-            this.x = startX;
-            this.y = startY;
-            this.angle = angle;
-            this.speed = speed;
-            this.size = size;
-            this.color = color;
-            this.progress = 0;
-        }
-
-        void update(float progress) {
-            this.progress = progress;
-            float radians = (float) Math.toRadians(angle);
-            x += Math.cos(radians) * speed * (1 - progress);
-            y += Math.sin(radians) * speed * (1 - progress);
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int alpha = (int) (255 * (1 - showProgress));
+        for (int i = 0; i < particles.size(); i++) {
+            paint.setColor(particles.getColor(i));
+            paint.setAlpha(alpha);
+            canvas.drawCircle(particles.getX(i), particles.getY(i), particles.getSize(i), paint);
         }
     }
-} 
\ No newline at end of file
+}
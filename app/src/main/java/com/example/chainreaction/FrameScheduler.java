@@ -0,0 +1,111 @@
+package com.example.chainreaction;
+
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+/**
+ * Drives every animated view of the app from one {@link Choreographer}
+ * callback, so frames line up with vsync and a single callback is posted no
+ * matter how many views are animating. Clients are told the real frame time
+ * and how long it has been since the previous frame, and are dropped as soon
+ * as they report that nothing is moving; with no clients left the scheduler
+ * stops asking for frames. Main thread only.
+ */
+final class FrameScheduler implements Choreographer.FrameCallback {
+    /** Frame length animations were tuned for, used for the first frame after a pause. */
+    static final long NOMINAL_FRAME_NANOS = 16_666_667L;
+    // After a long stall, catch up by at most this much rather than jumping
+    private static final long MAX_ELAPSED_NANOS = 100_000_000L;
+
+    interface Client {
+        /** Advances one frame. Returns false once there is nothing left to animate. */
+        boolean onFrame(long frameTimeNanos, long elapsedNanos);
+    }
+
+    private static FrameScheduler instance;
+
+    private Client[] clients = new Client[4];
+    private int clientCount;
+    private boolean posted;
+    private long lastFrameNanos;
+
+    private FrameScheduler() {
+    }
+
+    static FrameScheduler get() {
+        if (instance == null) {
+            instance = new FrameScheduler();
+        }
+        return instance;
+    }
+
+    /** Starts sending frames to {@code client}; does nothing if it is already registered. */
+    void register(Client client) {
+        if (indexOf(client) >= 0) {
+            return;
+        }
+        if (clientCount == clients.length) {
+            clients = Arrays.copyOf(clients, clientCount * 2);
+        }
+        clients[clientCount++] = client;
+        if (!posted) {
+            posted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    void unregister(Client client) {
+        int i = indexOf(client);
+        if (i >= 0) {
+            // Cleared rather than removed, in case a frame is being dispatched
+            clients[i] = null;
+        }
+    }
+
+    boolean isRegistered(Client client) {
+        return indexOf(client) >= 0;
+    }
+
+    private int indexOf(Client client) {
+        for (int i = 0; i < clientCount; i++) {
+            if (clients[i] == client) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        posted = false;
+        long elapsed = lastFrameNanos == 0 ? NOMINAL_FRAME_NANOS
+                : Math.min(MAX_ELAPSED_NANOS, frameTimeNanos - lastFrameNanos);
+        lastFrameNanos = frameTimeNanos;
+
+        // Clients registered during the loop get this frame too
+        for (int i = 0; i < clientCount; i++) {
+            Client client = clients[i];
+            if (client != null && !client.onFrame(frameTimeNanos, elapsed)) {
+                clients[i] = null;
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < clientCount; i++) {
+            if (clients[i] != null) {
+                clients[kept++] = clients[i];
+            }
+        }
+        Arrays.fill(clients, kept, clientCount, null);
+        clientCount = kept;
+
+        if (clientCount > 0) {
+            if (!posted) {
+                posted = true;
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        } else {
+            lastFrameNanos = 0;
+        }
+    }
+}
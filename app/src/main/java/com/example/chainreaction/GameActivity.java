@@ -13,22 +13,43 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.button.MaterialButton;
+import com.example.chainreaction.engine.ExplosionWave;
+import com.example.chainreaction.engine.GameSnapshot;
+import com.example.chainreaction.engine.Player;
+import com.example.chainreaction.engine.ReplayWriter;
 import android.animation.AnimatorInflater;
 import android.animation.Animator;
+import android.util.Log;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 
 public class GameActivity extends AppCompatActivity implements GameLogic.OnGameStateChangeListener {
+    private static final String TAG = "GameActivity";
+    static final String REPLAY_DIR = "replays";
+    private static final String KEY_REPLAY_FILE = "replayFile";
+    private static final String KEY_REPLAY_START = "replayStart";
+    private static final String KEY_REPLAY_BYTES = "replayBytes";
+    private static final String KEY_REPLAY_MOVES = "replayMoves";
+
     private GameView gameView;
     private GameLogic gameLogic;
     private TextView turnIndicator;
     private Button restartButton;
     private Button menuButton;
     private int numPlayers;
+    private int rows;
+    private int cols;
     private View winnerDialogView;
     private ImageView winnerTrophy;
     private TextView winnerText;
     private MaterialButton playAgainButton;
     private MaterialButton mainMenuButton;
+    private File replayFile;
+    private long replayStartTime;
+    // The saved state whose snapshot is still being read, so it survives another recreation meanwhile
+    private Bundle pendingRestore;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -36,16 +57,70 @@ public class GameActivity extends AppCompatActivity implements GameLogic.OnGameS
         setContentView(R.layout.activity_game);
 
         numPlayers = getIntent().getIntExtra("numPlayers", 2);
+        rows = getIntent().getIntExtra("rows", MainActivity.DEFAULT_ROWS);
+        cols = getIntent().getIntExtra("cols", MainActivity.DEFAULT_COLS);
 
         gameView = findViewById(R.id.gameView);
         turnIndicator = findViewById(R.id.turnIndicator);
         restartButton = findViewById(R.id.restartButton);
         menuButton = findViewById(R.id.menuButton);
 
-        initializeGame();
+        if (SnapshotStore.has(savedInstanceState)) {
+            pendingRestore = savedInstanceState;
+        }
+        SnapshotStore.load(this, savedInstanceState, snapshot -> {
+            // Skip a load that returns after the activity has gone or the player restarted
+            if (isDestroyed() || gameLogic != null) {
+                return;
+            }
+            if (!restoreGame(snapshot, savedInstanceState)) {
+                pendingRestore = null;
+                initializeGame();
+            }
+        });
         setupButtons();
     }
 
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (gameLogic != null) {
+            SnapshotStore.save(this, outState, gameLogic.saveSnapshot());
+            ReplayWriter replay = gameLogic.flushReplay();
+            if (replayFile != null) {
+                outState.putString(KEY_REPLAY_FILE, replayFile.getName());
+                outState.putLong(KEY_REPLAY_START, replayStartTime);
+                // A log closed by the final move is complete; only an open one needs cutting back
+                if (replay != null) {
+                    outState.putLong(KEY_REPLAY_BYTES, replay.getByteCount());
+                    outState.putInt(KEY_REPLAY_MOVES, replay.getMoveCount());
+                }
+            }
+        } else if (pendingRestore != null) {
+            SnapshotStore.carryOver(pendingRestore, outState);
+            if (pendingRestore.containsKey(KEY_REPLAY_FILE)) {
+                outState.putString(KEY_REPLAY_FILE, pendingRestore.getString(KEY_REPLAY_FILE));
+                outState.putLong(KEY_REPLAY_START, pendingRestore.getLong(KEY_REPLAY_START));
+            }
+            if (pendingRestore.containsKey(KEY_REPLAY_BYTES)) {
+                outState.putLong(KEY_REPLAY_BYTES, pendingRestore.getLong(KEY_REPLAY_BYTES));
+                outState.putInt(KEY_REPLAY_MOVES, pendingRestore.getInt(KEY_REPLAY_MOVES));
+            }
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (gameLogic != null) {
+            gameLogic.release();
+        }
+        // Keep the log if the activity may be recreated from its saved state; a finished game was archived already
+        if (isFinishing()) {
+            discardReplay();
+        }
+        super.onDestroy();
+    }
+
     @Override
     public void onBackPressed() {
         showBackConfirmationDialog();
@@ -56,17 +131,148 @@ public class GameActivity extends AppCompatActivity implements GameLogic.OnGameS
         if (gameView != null) {
             gameView.stopAnimation();
         }
+        if (gameLogic != null) {
+            gameLogic.release();
+        }
+        discardReplay();
 
         // Get player names from intent
         ArrayList<String> playerNames = getIntent().getStringArrayListExtra("playerNames");
 
-        // Initialize game with 6x9 grid
-        gameLogic = new GameLogic(6, 9, numPlayers, playerNames);
+        // Initialize game with the board size chosen in the main menu
+        gameLogic = new GameLogic(rows, cols, numPlayers, playerNames);
+        gameLogic.setOnGameStateChangeListener(this);
+        gameView.setGameLogic(gameLogic);
+        gameLogic.setReplayWriter(openReplay());
+        gameLogic.setComputerPlayers(getIntent().getBooleanArrayExtra("computerPlayers"));
+        updateTurnIndicator();
+    }
+
+    /**
+     * Continues the game saved before the activity was recreated, including a
+     * chain reaction that was still being played back, and its replay log
+     * from where the save left it. An open log is reopened on a background
+     * thread first, so the game starts once that is done. The log of a game
+     * that ended before the save is archived, now or once the final chain has
+     * been played back.
+     */
+    private boolean restoreGame(byte[] data, Bundle savedState) {
+        if (data == null) {
+            return false;
+        }
+        GameSnapshot snapshot;
+        try {
+            snapshot = GameSnapshot.read(data);
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable game snapshot", e);
+            return false;
+        }
+        File log = savedReplay(savedState);
+        if (snapshot.getEngine().isGameOver() || log == null) {
+            pendingRestore = null;
+            startRestoredGame(snapshot, log, savedState, null);
+            return true;
+        }
+        if (!savedState.containsKey(KEY_REPLAY_BYTES)) {
+            // Closed by a final move the restored game does not have; it cannot be continued
+            GameHistory.discard(log);
+            pendingRestore = null;
+            startRestoredGame(snapshot, null, savedState, null);
+            return true;
+        }
+        GameHistory.resume(log, savedState.getLong(KEY_REPLAY_BYTES), savedState.getInt(KEY_REPLAY_MOVES),
+                replay -> {
+                    if (isDestroyed() || gameLogic != null) {
+                        closeQuietly(replay);
+                        return;
+                    }
+                    pendingRestore = null;
+                    startRestoredGame(snapshot, replay != null ? log : null, savedState, replay);
+                });
+        return true;
+    }
+
+    private void startRestoredGame(GameSnapshot snapshot, File log, Bundle savedState, ReplayWriter replay) {
+        gameLogic = new GameLogic(snapshot);
         gameLogic.setOnGameStateChangeListener(this);
         gameView.setGameLogic(gameLogic);
+        replayFile = log;
+        replayStartTime = savedState.getLong(KEY_REPLAY_START);
+        // A finished game's log was closed by its final move and only waits to be archived
+        gameLogic.setReplayWriter(replay);
+        gameLogic.setComputerPlayers(getIntent().getBooleanArrayExtra("computerPlayers"));
+        gameLogic.resumePlayback();
+        if (gameLogic.isGameOver()) {
+            // No chain is left to play back, so onGameOver() will not come again
+            if (replayFile != null) {
+                GameHistory.archive(this, replayFile, replayStartTime, gameLogic.getEngine().getWinnerId());
+                replayFile = null;
+            }
+            showWinnerDialog(gameLogic.getEngine().getWinnerId());
+        }
         updateTurnIndicator();
     }
 
+    /**
+     * The log named in {@code savedState}, after clearing out every other
+     * log, or {@code null} if the saved game was not being recorded.
+     */
+    private File savedReplay(Bundle savedState) {
+        String name = savedState == null ? null : savedState.getString(KEY_REPLAY_FILE);
+        if (name == null) {
+            return null;
+        }
+        File dir = new File(getFilesDir(), REPLAY_DIR);
+        File file = new File(dir, name);
+        GameHistory.discardStale(dir, file);
+        return file;
+    }
+
+    private static void closeQuietly(ReplayWriter replay) {
+        if (replay == null) {
+            return;
+        }
+        try {
+            replay.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private ReplayWriter openReplay() {
+        replayFile = null;
+        File dir = new File(getFilesDir(), REPLAY_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            return null;
+        }
+        replayStartTime = System.currentTimeMillis();
+        File file = new File(dir, replayStartTime + GameHistory.REPLAY_SUFFIX);
+        GameHistory.discardStale(dir, file);
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            ReplayWriter writer = new ReplayWriter(out, gameLogic.getEngine());
+            replayFile = file;
+            return writer;
+        } catch (IOException e) {
+            Log.w(TAG, "Could not start replay log", e);
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Deletes the log of a game that is being abandoned unfinished. */
+    private void discardReplay() {
+        if (replayFile != null) {
+            GameHistory.discard(replayFile);
+            replayFile = null;
+        }
+    }
+
     private void setupButtons() {
         restartButton.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -188,7 +394,11 @@ public class GameActivity extends AppCompatActivity implements GameLogic.OnGameS
 
         turnIndicator.setVisibility(View.VISIBLE);
         Player currentPlayer = gameLogic.getPlayers().get(gameLogic.getCurrentPlayerIndex());
-        String turnText = currentPlayer.getName() + "'s Turn";
+        int atoms = gameLogic.getBoard().getPlayerAtomCount(currentPlayer.getId());
+        String turnText = currentPlayer.getName() + "'s Turn (" + atoms + " atoms)";
+        if (gameLogic.isComputerTurn()) {
+            turnText += " - thinking...";
+        }
         turnIndicator.setText(turnText);
         turnIndicator.setTextColor(currentPlayer.getColor());
 
@@ -206,8 +416,8 @@ public class GameActivity extends AppCompatActivity implements GameLogic.OnGameS
     }
 
     @Override
-    public void onExplosionStarted(int row, int col) {
-        runOnUiThread(() -> gameView.startExplosionAnimation(row, col));
+    public void onExplosionWaveStarted(ExplosionWave wave) {
+        runOnUiThread(() -> gameView.startExplosionAnimation(wave));
     }
 
     @Override
@@ -220,12 +430,25 @@ public class GameActivity extends AppCompatActivity implements GameLogic.OnGameS
 
     @Override
     public void onGameOver(int winnerId) {
+        // GameLogic closed the log when the final move was accepted
+        if (replayFile != null) {
+            GameHistory.archive(this, replayFile, replayStartTime, winnerId);
+            replayFile = null;
+        }
         runOnUiThread(() -> {
             showWinnerDialog(winnerId);
             updateTurnIndicator(); // Hide turn indicator when game is over
         });
     }
 
+    @Override
+    public void onComputerMove(int row, int col) {
+        // Quiet moves have no wave playback to refresh the view
+        if (!gameLogic.isProcessingExplosion()) {
+            gameView.updateAtoms();
+        }
+    }
+
     @Override
     public void onPlayerEliminated(int playerId) {
         runOnUiThread(() -> {
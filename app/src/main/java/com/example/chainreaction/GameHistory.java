@@ -0,0 +1,129 @@
+package com.example.chainreaction;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.chainreaction.engine.GameArchive;
+import com.example.chainreaction.engine.ReplayWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves finished games from their replay logs into the on-device
+ * {@link GameArchive}. The archive is opened lazily on a background thread
+ * the first time a game finishes, so it costs nothing at app startup.
+ *
+ * <p>Logs of games that were abandoned are deleted on the same thread, so a
+ * log is never removed while it is still queued for archiving, and logs of
+ * restored games are reopened there too, off the main thread.
+ */
+final class GameHistory {
+    private static final String TAG = "GameHistory";
+    static final String ARCHIVE_DIR = "archive";
+    static final String REPLAY_SUFFIX = ".crr";
+
+    private static final ExecutorService io = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-history");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only touched on the io thread
+    private static GameArchive archive;
+
+    interface OnResumedListener {
+        /** Called on the main thread with the reopened log, or {@code null} if it cannot be continued. */
+        void onResumed(ReplayWriter replay);
+    }
+
+    private GameHistory() {
+    }
+
+    /** Appends a closed replay log to the archive and deletes the log. */
+    static void archive(Context context, File replay, long timestamp, int winnerId) {
+        File dir = new File(context.getApplicationContext().getFilesDir(), ARCHIVE_DIR);
+        io.execute(() -> {
+            try {
+                if (archive == null) {
+                    archive = GameArchive.open(dir);
+                }
+                archive.append(timestamp, winnerId, Files.readAllBytes(replay.toPath()));
+                archive.flush();
+            } catch (IOException e) {
+                // Keep the log for now; discardStale() clears it when the next game starts
+                Log.w(TAG, "Could not archive " + replay, e);
+                return;
+            }
+            if (!replay.delete()) {
+                Log.w(TAG, "Could not delete " + replay);
+            }
+        });
+    }
+
+    /**
+     * Cuts {@code replay} back to the {@code bytes} and {@code moves} it held
+     * when its game was saved, dropping moves the restored game does not
+     * have, and reopens it for appending. A log that is gone or shorter than
+     * that is deleted, and {@code listener} gets {@code null}.
+     */
+    static void resume(File replay, long bytes, int moves, OnResumedListener listener) {
+        Handler main = new Handler(Looper.getMainLooper());
+        io.execute(() -> {
+            ReplayWriter writer = null;
+            try {
+                writer = reopen(replay, bytes, moves);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not continue " + replay + ", not recording this game", e);
+                delete(replay);
+            }
+            ReplayWriter resumed = writer;
+            main.post(() -> listener.onResumed(resumed));
+        });
+    }
+
+    private static ReplayWriter reopen(File replay, long bytes, int moves) throws IOException {
+        try (RandomAccessFile log = new RandomAccessFile(replay, "rw")) {
+            if (log.length() < bytes) {
+                throw new IOException("Log has " + log.length() + " bytes, expected " + bytes);
+            }
+            log.setLength(bytes);
+        }
+        return new ReplayWriter(new FileOutputStream(replay, true), bytes, moves);
+    }
+
+    /** Deletes the log of a game that was left unfinished. */
+    static void discard(File replay) {
+        io.execute(() -> delete(replay));
+    }
+
+    /**
+     * Deletes every log in {@code dir} except {@code active}: games whose
+     * activity was killed and never restored, and logs the archive refused.
+     */
+    static void discardStale(File dir, File active) {
+        io.execute(() -> {
+            File[] logs = dir.listFiles((parent, name) -> name.endsWith(REPLAY_SUFFIX));
+            if (logs == null) {
+                return;
+            }
+            for (File log : logs) {
+                if (!log.equals(active)) {
+                    delete(log);
+                }
+            }
+        });
+    }
+
+    private static void delete(File replay) {
+        if (replay.exists() && !replay.delete()) {
+            Log.w(TAG, "Could not delete " + replay);
+        }
+    }
+}
@@ -1,278 +1,335 @@
 package com.example.chainreaction;
 
-import java.util.ArrayList;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.chainreaction.engine.Board;
+import com.example.chainreaction.engine.BoardView;
+import com.example.chainreaction.engine.ExplosionWave;
+import com.example.chainreaction.engine.GameEngine;
+import com.example.chainreaction.engine.GameSnapshot;
+import com.example.chainreaction.engine.MoveResult;
+import com.example.chainreaction.engine.Player;
+import com.example.chainreaction.engine.ReplayWriter;
+
+import java.io.IOException;
 import java.util.List;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.Queue;
-import java.util.LinkedList;
 
+/**
+ * Android playback layer over {@link GameEngine}. The engine resolves each move
+ * instantly; this class replays the resulting explosion waves on the main
+ * looper so the view can animate them. While they play, {@link #getBoard()}
+ * is a copy of the board stepped through the chain one wave at a time, so
+ * the view never shows the outcome before the explosions that lead to it.
+ *
+ * <p>Seats marked as computer players are moved by a {@link ComputerPlayer}
+ * once the previous move has finished playing back; taps are ignored while
+ * it is their turn.
+ *
+ * <p>If a {@link ReplayWriter} is attached, every accepted move is appended to
+ * it and the log is closed when the game ends or the logic is released.
+ *
+ * <p>{@link #saveSnapshot()} captures the game together with any waves still
+ * waiting to be played back, and the {@link GameSnapshot} constructor picks
+ * up from there after the activity is recreated.
+ */
 public class GameLogic {
-    private Cell[][] board;
-    private List<Player> players;
-    private int currentPlayerIndex;
-    private int rows;
-    private int cols;
-    private boolean gameOver;
+    private static final String TAG = "GameLogic";
+    private static final long EXPLOSION_WAVE_DELAY_MS = 300;
+
+    private final GameEngine engine;
+    private final Handler handler;
     private OnGameStateChangeListener listener;
-    private Queue<ExplosionEvent> explosionQueue;
+    private MoveResult pendingResult;
+    private int nextWaveIndex;
     private boolean isProcessingExplosion;
+    private boolean[] computerPlayers;
+    private ComputerPlayer computer;
+    private ReplayWriter replay;
+    // The board as of the wave being played back; only read while isProcessingExplosion
+    private Board shown;
+    private boolean showingWaves;
 
     public interface OnGameStateChangeListener {
         void onGameStateChanged();
         void onGameOver(int winnerId);
-        void onExplosionStarted(int row, int col);
+        void onExplosionWaveStarted(ExplosionWave wave);
         void onExplosionCompleted();
         void onPlayerEliminated(int playerId);
+        void onComputerMove(int row, int col);
     }
 
-    private static class ExplosionEvent {
-        int row;
-        int col;
-        int playerId;
+    public GameLogic(int rows, int cols, int numPlayers, List<String> playerNames) {
+        this(new GameEngine(rows, cols, numPlayers, playerNames));
+    }
 
-        ExplosionEvent(int row, int col, int playerId) {
-            this.row = row;
-            this.col = col;
-            this.playerId = playerId;
+    /** Continues a saved game; call {@link #resumePlayback()} once the listener is set. */
+    public GameLogic(GameSnapshot snapshot) {
+        this(snapshot.getEngine());
+        this.pendingResult = snapshot.getPendingResult();
+        this.nextWaveIndex = snapshot.getNextWaveIndex();
+        this.isProcessingExplosion = pendingResult != null;
+        if (pendingResult != null) {
+            startShowingWaves(nextWaveIndex);
         }
     }
 
-    public GameLogic(int rows, int cols, int numPlayers, List<String> playerNames) {
-        this.rows = rows;
-        this.cols = cols;
-        this.board = new Cell[rows][cols];
-        this.players = new ArrayList<>();
-        this.currentPlayerIndex = 0;
-        this.gameOver = false;
-        this.explosionQueue = new LinkedList<>();
+    private GameLogic(GameEngine engine) {
+        this.engine = engine;
+        this.handler = new Handler(Looper.getMainLooper());
         this.isProcessingExplosion = false;
-        initializeBoard();
-        initializePlayers(numPlayers, playerNames);
+        this.computerPlayers = new boolean[engine.getPlayers().size()];
     }
 
-    private void initializeBoard() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                int maxCapacity = calculateMaxCapacity(i, j);
-                board[i][j] = new Cell(i, j, maxCapacity);
-            }
-        }
+    /**
+     * Encodes the game, including the waves of a chain reaction that is still
+     * being played back. The wave on screen is saved as not yet shown, so it
+     * is animated again after a restore rather than skipped.
+     */
+    public byte[] saveSnapshot() {
+        return GameSnapshot.write(engine, pendingResult, Math.max(0, nextWaveIndex - 1));
     }
 
-    private int calculateMaxCapacity(int row, int col) {
-        int neighbors = 0;
-        if (row > 0) neighbors++;
-        if (row < rows - 1) neighbors++;
-        if (col > 0) neighbors++;
-        if (col < cols - 1) neighbors++;
-        return neighbors;
+    /** Plays back the rest of a restored chain reaction, if there was one. */
+    public void resumePlayback() {
+        if (pendingResult != null) {
+            playNextWave();
+        } else {
+            startComputerMoveIfNeeded();
+        }
     }
 
-    private void initializePlayers(int numPlayers, List<String> playerNames) {
-        int[] colors = {
-                0xFFFF0000, // Red
-                0xFF00FF00, // Green
-                0xFF0000FF, // Blue
-                0xFFFFA500  // Yellow
-        };
-
-        for (int i = 0; i < numPlayers; i++) {
-            String name = i < playerNames.size() ? playerNames.get(i) : "Player " + (i + 1);
-            players.add(new Player(i, colors[i], name));
+    /**
+     * Hands the marked seats to the computer. Boards too large for the search
+     * keep all seats human.
+     */
+    public void setComputerPlayers(boolean[] computerPlayers) {
+        BoardView board = engine.getBoard();
+        if (computerPlayers == null || !ComputerPlayer.supports(board.getRows(), board.getCols())) {
+            return;
         }
+        for (int i = 0; i < this.computerPlayers.length && i < computerPlayers.length; i++) {
+            this.computerPlayers[i] = computerPlayers[i];
+        }
+        if (computer == null) {
+            computer = new ComputerPlayer(board.getRows(), board.getCols(), this.computerPlayers.length);
+        }
+        startComputerMoveIfNeeded();
     }
 
-    public boolean placeAtom(int row, int col) {
-        if (gameOver || row < 0 || row >= rows || col < 0 || col >= cols || isProcessingExplosion) {
-            return false;
+    /** Records the moves of this game to {@code replay}, which this class closes. */
+    public void setReplayWriter(ReplayWriter replay) {
+        closeReplay();
+        this.replay = replay;
+    }
+
+    /**
+     * Pushes buffered moves out to the replay log, so it can be continued if
+     * the game is restored. Returns the log, or {@code null} if this game is
+     * not being recorded.
+     */
+    public ReplayWriter flushReplay() {
+        if (replay == null) {
+            return null;
+        }
+        try {
+            replay.flush();
+        } catch (IOException e) {
+            Log.w(TAG, "Replay log failed, no longer recording", e);
+            closeReplay();
         }
+        return replay;
+    }
 
-        Cell cell = board[row][col];
-        Player currentPlayer = players.get(currentPlayerIndex);
+    public boolean isComputerTurn() {
+        return !isProcessingExplosion && !engine.isGameOver() && computerPlayers[engine.getCurrentPlayerIndex()];
+    }
 
-        // Can only place on empty cell or own cell
-        if (cell.getOwnerPlayerId() != -1 && cell.getOwnerPlayerId() != currentPlayer.getId()) {
+    public boolean placeAtom(int row, int col) {
+        if (isComputerTurn()) {
             return false;
         }
+        return applyMove(row, col);
+    }
 
-        // If it's a new cell or different player, reset click count
-        if (cell.getOwnerPlayerId() != currentPlayer.getId()) {
-            cell.resetClickCount();
+    private void startComputerMoveIfNeeded() {
+        if (computer != null && isComputerTurn()) {
+            computer.requestMove(engine, (row, col) -> {
+                if (applyMove(row, col) && listener != null) {
+                    listener.onComputerMove(row, col);
+                }
+            });
         }
+    }
 
-        cell.incrementClickCount();
-        int atomsToAdd = cell.getClickCount();
-
-        // Add atoms based on click count
-        for (int i = 0; i < atomsToAdd; i++) {
-            cell.addAtom(currentPlayer.getId());
-            currentPlayer.setAtomCount(currentPlayer.getAtomCount() + 1);
+    private boolean applyMove(int row, int col) {
+        if (isProcessingExplosion) {
+            return false;
         }
 
-        // Notify state change before potential explosion
-        if (listener != null) {
-            listener.onGameStateChanged();
+        MoveResult result = engine.placeAtom(row, col);
+        if (result == null) {
+            return false;
         }
-
-        if (cell.isFull()) {
-            startChainReaction(row, col);
+        recordMove(engine.getBoard().indexOf(row, col), result.isGameOver());
+
+        if (result.hasExplosions()) {
+            pendingResult = result;
+            nextWaveIndex = 0;
+            isProcessingExplosion = true;
+            startShowingWaves(0);
+            // Notify state change before the explosions are played back
+            if (listener != null) {
+                listener.onGameStateChanged();
+            }
+            playNextWave();
         } else {
-            // Only switch turns if no explosion occurred
-            nextTurn();
-            // Notify state change after turn switch
             if (listener != null) {
                 listener.onGameStateChanged();
             }
+            startComputerMoveIfNeeded();
         }
 
         return true;
     }
 
-    private void startChainReaction(int row, int col) {
-        isProcessingExplosion = true;
-        explosionQueue.clear();
-        explosionQueue.add(new ExplosionEvent(row, col, board[row][col].getOwnerPlayerId()));
-        processNextExplosion();
+    private void recordMove(int cell, boolean gameOver) {
+        if (replay == null) {
+            return;
+        }
+        try {
+            replay.writeMove(cell);
+        } catch (IOException e) {
+            // A broken log must not stop the game; drop it and keep playing
+            Log.w(TAG, "Replay log failed, no longer recording", e);
+            closeReplay();
+            return;
+        }
+        if (gameOver) {
+            closeReplay();
+        }
     }
 
-    private void processNextExplosion() {
-        if (explosionQueue.isEmpty()) {
-            isProcessingExplosion = false;
-            checkGameOver();
-            if (!gameOver) {
-                nextTurn();
-                // Notify state change after turn switch
-                if (listener != null) {
-                    listener.onGameStateChanged();
-                }
-            }
-            if (listener != null) {
-                listener.onExplosionCompleted();
-            }
+    private void closeReplay() {
+        if (replay == null) {
             return;
         }
-
-        ExplosionEvent event = explosionQueue.poll();
-        if (listener != null) {
-            listener.onExplosionStarted(event.row, event.col);
+        try {
+            replay.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close replay log", e);
         }
+        replay = null;
+    }
 
-        Cell cell = board[event.row][event.col];
-        int playerId = cell.getOwnerPlayerId();
-
-        // Reset the exploding cell
-        cell.reset();
-
-        // Distribute atoms to neighbors and change their ownership
-        if (event.row > 0) {
-            Cell neighbor = board[event.row-1][event.col];
-            // Reset the neighbor and add new atom
-            neighbor.reset();
-            neighbor.addAtom(playerId);
-            if (neighbor.isFull()) {
-                explosionQueue.add(new ExplosionEvent(event.row-1, event.col, playerId));
-            }
+    /**
+     * Rewinds a copy of the final board to just before wave {@code fromWave}
+     * of the pending move. Waves restored from an older snapshot do not know
+     * what they changed, and are shown over the final board instead.
+     */
+    private void startShowingWaves(int fromWave) {
+        List<ExplosionWave> waves = pendingResult.getWaves();
+        showingWaves = true;
+        for (ExplosionWave wave : waves) {
+            showingWaves &= wave.hasChanges();
         }
-        if (event.row < rows - 1) {
-            Cell neighbor = board[event.row+1][event.col];
-            neighbor.reset();
-            neighbor.addAtom(playerId);
-            if (neighbor.isFull()) {
-                explosionQueue.add(new ExplosionEvent(event.row+1, event.col, playerId));
-            }
+        if (!showingWaves) {
+            return;
         }
-        if (event.col > 0) {
-            Cell neighbor = board[event.row][event.col-1];
-            neighbor.reset();
-            neighbor.addAtom(playerId);
-            if (neighbor.isFull()) {
-                explosionQueue.add(new ExplosionEvent(event.row, event.col-1, playerId));
-            }
+        Board board = engine.getBoard();
+        if (shown == null) {
+            shown = new Board(board.getGeometry());
         }
-        if (event.col < cols - 1) {
-            Cell neighbor = board[event.row][event.col+1];
-            neighbor.reset();
-            neighbor.addAtom(playerId);
-            if (neighbor.isFull()) {
-                explosionQueue.add(new ExplosionEvent(event.row, event.col+1, playerId));
-            }
+        shown.copyFrom(board);
+        for (int w = waves.size() - 1; w >= fromWave; w--) {
+            waves.get(w).revert(shown);
         }
+    }
 
-        // Notify state change after distributing atoms
+    private void playNextWave() {
+        List<ExplosionWave> waves = pendingResult.getWaves();
+        if (nextWaveIndex >= waves.size()) {
+            finishChainReaction();
+            return;
+        }
+
+        ExplosionWave wave = waves.get(nextWaveIndex++);
+        if (showingWaves) {
+            wave.applyTo(shown);
+        }
         if (listener != null) {
+            listener.onExplosionWaveStarted(wave);
             listener.onGameStateChanged();
         }
 
-        // Process next explosion after a delay
-        new android.os.Handler().postDelayed(this::processNextExplosion, 300);
+        // Play the next wave after a delay
+        handler.postDelayed(this::playNextWave, EXPLOSION_WAVE_DELAY_MS);
     }
 
-    private void checkGameOver() {
-        int activePlayers = 0;
-        int lastActivePlayerId = -1;
-        int totalAtoms = 0;
-
-        // Count total atoms and active players
-        for (Player player : players) {
-            int playerAtoms = 0;
-            // Count atoms for this player
-            for (int i = 0; i < rows; i++) {
-                for (int j = 0; j < cols; j++) {
-                    Cell cell = board[i][j];
-                    if (cell.getOwnerPlayerId() == player.getId()) {
-                        playerAtoms += cell.getAtomCount();
-                    }
-                }
-            }
+    private void finishChainReaction() {
+        MoveResult result = pendingResult;
+        pendingResult = null;
+        isProcessingExplosion = false;
 
-            if (playerAtoms > 0) {
-                activePlayers++;
-                lastActivePlayerId = player.getId();
-                totalAtoms += playerAtoms;
-            } else if (player.isActive()) {
-                // Player has no atoms left, eliminate them
-                player.setActive(false);
-                if (listener != null) {
-                    listener.onPlayerEliminated(player.getId());
-                }
+        if (listener != null) {
+            for (int playerId : result.getEliminatedPlayerIds()) {
+                listener.onPlayerEliminated(playerId);
+            }
+            if (result.isGameOver()) {
+                listener.onGameOver(result.getWinnerId());
+            } else {
+                listener.onGameStateChanged();
             }
+            listener.onExplosionCompleted();
         }
+        startComputerMoveIfNeeded();
+    }
 
-        // Game is over if there's only one player with atoms or no atoms left
-        if (activePlayers <= 1 || totalAtoms == 0) {
-            gameOver = true;
-            if (listener != null) {
-                listener.onGameOver(lastActivePlayerId);
-            }
+    public void cancelPlayback() {
+        handler.removeCallbacksAndMessages(null);
+        pendingResult = null;
+        isProcessingExplosion = false;
+        if (computer != null) {
+            computer.cancel();
         }
     }
 
-    private void nextTurn() {
-        int originalIndex = currentPlayerIndex;
-        do {
-            currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
-            // If we've gone through all players and none are active, break to prevent infinite loop
-            if (currentPlayerIndex == originalIndex) {
-                break;
-            }
-        } while (!players.get(currentPlayerIndex).isActive());
+    /** Stops playback and the computer player's thread; the game cannot continue afterwards. */
+    public void release() {
+        cancelPlayback();
+        if (computer != null) {
+            computer.shutdown();
+        }
+        closeReplay();
     }
 
-    public Cell[][] getBoard() {
-        return board;
+    /** The board to draw: during playback, as of the wave being shown. */
+    public BoardView getBoard() {
+        if (isProcessingExplosion && showingWaves) {
+            return shown;
+        }
+        return engine.getBoard();
+    }
+
+    public GameEngine getEngine() {
+        return engine;
     }
 
     public List<Player> getPlayers() {
-        return players;
+        return engine.getPlayers();
     }
 
     public int getCurrentPlayerIndex() {
-        return currentPlayerIndex;
+        // Keep showing the moving player until their chain reaction has been played back
+        if (pendingResult != null) {
+            return pendingResult.getPlayerId();
+        }
+        return engine.getCurrentPlayerIndex();
     }
 
     public boolean isGameOver() {
-        return gameOver;
+        return engine.isGameOver() && !isProcessingExplosion;
     }
 
     public boolean isProcessingExplosion() {
@@ -282,4 +339,4 @@ public class GameLogic {
     public void setOnGameStateChangeListener(OnGameStateChangeListener listener) {
         this.listener = listener;
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 import android.util.Log;
@@ -24,10 +25,19 @@ import com.google.android.gms.ads.RequestConfiguration;
 import java.util.Arrays;
 
 public class MainActivity extends AppCompatActivity {
+    static final int DEFAULT_ROWS = 6;
+    static final int DEFAULT_COLS = 9;
+    // Rows x cols; the large boards are "marathon" games
+    private static final int[][] BOARD_SIZES = {{6, 9}, {8, 12}, {10, 15}, {20, 30}, {50, 50}, {100, 100}};
+
     private TextView playerPickerButton;
+    private TextView boardSizeButton;
     private Button startButton;
     private int selectedPlayers = 2; // default
+    private int selectedRows = DEFAULT_ROWS;
+    private int selectedCols = DEFAULT_COLS;
     private List<String> playerNames = new ArrayList<>();
+    private boolean[] computerPlayers = new boolean[4];
     private AdView adView;
     private static final String TAG = "MainActivity";
 
@@ -65,6 +75,9 @@ public class MainActivity extends AppCompatActivity {
         startButton = findViewById(R.id.startButton);
 
         playerPickerButton.setText("Select Players: " + selectedPlayers);
+        boardSizeButton = findViewById(R.id.boardSizeButton);
+        boardSizeButton.setText(boardSizeLabel(selectedRows, selectedCols));
+        findViewById(R.id.boardSizeCard).setOnClickListener(v -> showBoardSizeDialog());
 
         // Make the entire card clickable
         View playerPickerCard = findViewById(R.id.playerPickerCard);
@@ -81,7 +94,10 @@ public class MainActivity extends AppCompatActivity {
                 if (playerNames.size() == selectedPlayers) {
                     Intent intent = new Intent(MainActivity.this, GameActivity.class);
                     intent.putExtra("numPlayers", selectedPlayers);
+                    intent.putExtra("rows", selectedRows);
+                    intent.putExtra("cols", selectedCols);
                     intent.putStringArrayListExtra("playerNames", new ArrayList<>(playerNames));
+                    intent.putExtra("computerPlayers", Arrays.copyOf(computerPlayers, selectedPlayers));
                     startActivity(intent);
                 } else {
                     showPlayerNamesDialog();
@@ -139,6 +155,34 @@ public class MainActivity extends AppCompatActivity {
         dialog.show();
     }
 
+    private static String boardSizeLabel(int rows, int cols) {
+        String label = "Board: " + rows + " x " + cols;
+        return rows * cols >= 2500 ? label + " (marathon)" : label;
+    }
+
+    private void showBoardSizeDialog() {
+        String[] labels = new String[BOARD_SIZES.length];
+        int checked = 0;
+        for (int i = 0; i < BOARD_SIZES.length; i++) {
+            labels[i] = boardSizeLabel(BOARD_SIZES[i][0], BOARD_SIZES[i][1]).substring("Board: ".length());
+            if (BOARD_SIZES[i][0] == selectedRows && BOARD_SIZES[i][1] == selectedCols) {
+                checked = i;
+            }
+        }
+
+        MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(this, R.style.MaterialAlertDialog_Rounded);
+        builder.setTitle("Select Board Size");
+        builder.setBackground(getResources().getDrawable(R.drawable.dialog_background));
+        builder.setSingleChoiceItems(labels, checked, (dialog, which) -> {
+            selectedRows = BOARD_SIZES[which][0];
+            selectedCols = BOARD_SIZES[which][1];
+            boardSizeButton.setText(boardSizeLabel(selectedRows, selectedCols));
+            dialog.dismiss();
+        });
+        builder.setNegativeButton("Cancel", null);
+        builder.create().show();
+    }
+
     private void showPlayerNamesDialog() {
         View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_player_names, null);
         
@@ -151,9 +195,24 @@ public class MainActivity extends AppCompatActivity {
         // Show/hide input fields based on number of players
         View player3Layout = dialogView.findViewById(R.id.player3Layout);
         View player4Layout = dialogView.findViewById(R.id.player4Layout);
+        CheckBox[] computerBoxes = {
+                dialogView.findViewById(R.id.player1Computer),
+                dialogView.findViewById(R.id.player2Computer),
+                dialogView.findViewById(R.id.player3Computer),
+                dialogView.findViewById(R.id.player4Computer)
+        };
         
         player3Layout.setVisibility(selectedPlayers >= 3 ? View.VISIBLE : View.GONE);
         player4Layout.setVisibility(selectedPlayers >= 4 ? View.VISIBLE : View.GONE);
+        computerBoxes[2].setVisibility(selectedPlayers >= 3 ? View.VISIBLE : View.GONE);
+        computerBoxes[3].setVisibility(selectedPlayers >= 4 ? View.VISIBLE : View.GONE);
+        if (!ComputerPlayer.supports(selectedRows, selectedCols)) {
+            // The computer player only searches boards of up to 64 cells
+            for (CheckBox box : computerBoxes) {
+                box.setChecked(false);
+                box.setVisibility(View.GONE);
+            }
+        }
 
         MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(this, R.style.MaterialAlertDialog_Rounded);
         builder.setView(dialogView);
@@ -190,11 +249,17 @@ public class MainActivity extends AppCompatActivity {
             playerNames.add(player2Name);
             if (selectedPlayers >= 3) playerNames.add(player3Name);
             if (selectedPlayers >= 4) playerNames.add(player4Name);
+            for (int i = 0; i < computerPlayers.length; i++) {
+                computerPlayers[i] = i < selectedPlayers && computerBoxes[i].isChecked();
+            }
 
             // Start the game
             Intent intent = new Intent(MainActivity.this, GameActivity.class);
             intent.putExtra("numPlayers", selectedPlayers);
+            intent.putExtra("rows", selectedRows);
+            intent.putExtra("cols", selectedCols);
             intent.putStringArrayListExtra("playerNames", new ArrayList<>(playerNames));
+            intent.putExtra("computerPlayers", Arrays.copyOf(computerPlayers, selectedPlayers));
             startActivity(intent);
             dialog.dismiss();
         });
@@ -0,0 +1,148 @@
+package com.example.chainreaction;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fixed-capacity particle store for {@link FirecrackerView}, kept as
+ * parallel arrays. Velocities are worked out once at spawn, dead particles
+ * are swap-removed, and nothing is allocated after construction. How many
+ * particles may be alive at once is a budget that shrinks when frames run
+ * late and grows back when they are on time, so slow devices get a thinner
+ * show instead of a stuttering one.
+ */
+final class ParticlePool {
+    // The frame time the budget aims for
+    static final long TARGET_FRAME_NANOS = 16_666_667L;
+    // How often the budget is reconsidered, and how much smoothing the frame time gets
+    private static final long ADAPT_INTERVAL_NANOS = 500_000_000L;
+    private static final float SMOOTHING = 0.1f;
+
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] size;
+    private final int[] color;
+    private final int minBudget;
+    private final SplittableRandom random = new SplittableRandom();
+    private int count;
+    private int budget;
+    private float averageFrameNanos = TARGET_FRAME_NANOS;
+    private long sinceAdapt;
+
+    /** A pool of {@code capacity} particles whose budget never drops below {@code minBudget}. */
+    ParticlePool(int capacity, int minBudget) {
+        if (minBudget < 1 || minBudget > capacity) {
+            throw new IllegalArgumentException("Minimum budget " + minBudget + " for capacity " + capacity);
+        }
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.size = new float[capacity];
+        this.color = new int[capacity];
+        this.minBudget = minBudget;
+        this.budget = capacity;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int capacity() {
+        return x.length;
+    }
+
+    /** How many particles may be alive at once right now. */
+    int getBudget() {
+        return budget;
+    }
+
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * Adds a particle heading {@code angleDegrees} at {@code speed} pixels per
+     * 60 Hz frame. Returns false if the budget is used up.
+     */
+    boolean spawn(float startX, float startY, float angleDegrees, float speed, float radius, int argb) {
+        if (count >= budget) {
+            return false;
+        }
+        double radians = Math.toRadians(angleDegrees);
+        x[count] = startX;
+        y[count] = startY;
+        vx[count] = (float) Math.cos(radians) * speed;
+        vy[count] = (float) Math.sin(radians) * speed;
+        size[count] = radius;
+        color[count] = argb;
+        count++;
+        return true;
+    }
+
+    /**
+     * Moves every particle by {@code frames} 60 Hz frames at {@code slowdown}
+     * of its speed, with a pixel of jitter, and drops the ones that have left
+     * the given bounds.
+     */
+    void step(float frames, float slowdown, float minX, float minY, float maxX, float maxY) {
+        float scale = slowdown * frames;
+        for (int i = count - 1; i >= 0; i--) {
+            float px = x[i] + vx[i] * scale + (float) (random.nextDouble() * 2 - 1);
+            float py = y[i] + vy[i] * scale + (float) (random.nextDouble() * 2 - 1);
+            if (px < minX || px > maxX || py < minY || py > maxY) {
+                remove(i);
+            } else {
+                x[i] = px;
+                y[i] = py;
+            }
+        }
+    }
+
+    private void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        size[i] = size[last];
+        color[i] = color[last];
+    }
+
+    /**
+     * Feeds one measured frame time into the budget. A quarter of the budget
+     * goes when frames average a fifth over target; a tenth of the capacity
+     * comes back while they are on time. Trimming the budget never kills
+     * live particles, it only holds back new ones.
+     */
+    void adaptBudget(long elapsedNanos) {
+        averageFrameNanos += (elapsedNanos - averageFrameNanos) * SMOOTHING;
+        sinceAdapt += elapsedNanos;
+        if (sinceAdapt < ADAPT_INTERVAL_NANOS) {
+            return;
+        }
+        sinceAdapt = 0;
+        if (averageFrameNanos > TARGET_FRAME_NANOS * 1.2f) {
+            budget = Math.max(minBudget, budget - budget / 4);
+        } else if (averageFrameNanos < TARGET_FRAME_NANOS * 1.05f) {
+            budget = Math.min(capacity(), budget + capacity() / 10);
+        }
+    }
+
+    float getX(int i) {
+        return x[i];
+    }
+
+    float getY(int i) {
+        return y[i];
+    }
+
+    float getSize(int i) {
+        return size[i];
+    }
+
+    int getColor(int i) {
+        return color[i];
+    }
+}
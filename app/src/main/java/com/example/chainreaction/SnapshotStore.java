@@ -0,0 +1,175 @@
+package com.example.chainreaction;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a game snapshot across activity recreation and process death.
+ * Snapshots of ordinary boards go straight into the saved-state bundle.
+ * Bigger ones would eat into the binder transaction limit, so they are written
+ * to a file on a background thread and only the file name is kept in the bundle.
+ *
+ * <p>Every save gets a file of its own, and the bundle also records the
+ * snapshot's length and checksum. A file that was never finished, or that
+ * belongs to another save, fails the check and the caller starts a new game
+ * instead of resuming the wrong one. Files are read on the same background
+ * thread and handed back on the main thread, so a restore never blocks
+ * {@code onCreate}.
+ */
+final class SnapshotStore {
+    private static final String TAG = "SnapshotStore";
+    private static final String KEY_SNAPSHOT = "gameSnapshot";
+    private static final String KEY_SNAPSHOT_FILE = "gameSnapshotFile";
+    private static final String KEY_SNAPSHOT_LENGTH = "gameSnapshotLength";
+    private static final String KEY_SNAPSHOT_CRC = "gameSnapshotCrc";
+    private static final String SNAPSHOT_DIR = "snapshots";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int MAX_BUNDLE_BYTES = 32 * 1024;
+
+    interface OnLoadedListener {
+        /** Called on the main thread with the saved snapshot, or {@code null} if there is none that can be trusted. */
+        void onLoaded(byte[] snapshot);
+    }
+
+    // One thread, so a load always runs after the save that preceded it
+    private static final ExecutorService io = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SnapshotStore() {
+    }
+
+    static void save(Context context, Bundle outState, byte[] snapshot) {
+        if (snapshot.length <= MAX_BUNDLE_BYTES) {
+            outState.putByteArray(KEY_SNAPSHOT, snapshot);
+            return;
+        }
+        File dir = new File(context.getFilesDir(), SNAPSHOT_DIR);
+        File file = new File(dir, System.currentTimeMillis() + "-" + System.nanoTime() + SNAPSHOT_SUFFIX);
+        outState.putString(KEY_SNAPSHOT_FILE, file.getName());
+        outState.putInt(KEY_SNAPSHOT_LENGTH, snapshot.length);
+        outState.putLong(KEY_SNAPSHOT_CRC, checksum(snapshot));
+        io.execute(() -> write(dir, file, snapshot));
+    }
+
+    /** Whether {@code savedState} holds a snapshot, which {@link #load} will deliver. */
+    static boolean has(Bundle savedState) {
+        return savedState != null
+                && (savedState.containsKey(KEY_SNAPSHOT) || savedState.containsKey(KEY_SNAPSHOT_FILE));
+    }
+
+    /**
+     * Passes on a snapshot that has not been loaded yet, for when the activity
+     * is recreated again before its load came back.
+     */
+    static void carryOver(Bundle savedState, Bundle outState) {
+        if (has(savedState)) {
+            outState.putByteArray(KEY_SNAPSHOT, savedState.getByteArray(KEY_SNAPSHOT));
+            outState.putString(KEY_SNAPSHOT_FILE, savedState.getString(KEY_SNAPSHOT_FILE));
+            outState.putInt(KEY_SNAPSHOT_LENGTH, savedState.getInt(KEY_SNAPSHOT_LENGTH));
+            outState.putLong(KEY_SNAPSHOT_CRC, savedState.getLong(KEY_SNAPSHOT_CRC));
+        }
+    }
+
+    /**
+     * Hands the snapshot saved in {@code savedState} to {@code listener}: at
+     * once if it is in the bundle, otherwise once its file has been read.
+     */
+    static void load(Context context, Bundle savedState, OnLoadedListener listener) {
+        if (savedState == null) {
+            listener.onLoaded(null);
+            return;
+        }
+        byte[] snapshot = savedState.getByteArray(KEY_SNAPSHOT);
+        String name = savedState.getString(KEY_SNAPSHOT_FILE);
+        if (snapshot != null || name == null) {
+            listener.onLoaded(snapshot);
+            return;
+        }
+        File file = new File(new File(context.getFilesDir(), SNAPSHOT_DIR), name);
+        int length = savedState.getInt(KEY_SNAPSHOT_LENGTH, -1);
+        long crc = savedState.getLong(KEY_SNAPSHOT_CRC);
+        Handler main = new Handler(Looper.getMainLooper());
+        io.execute(() -> {
+            byte[] read = null;
+            try {
+                read = read(file, length, crc);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not read " + file, e);
+            }
+            byte[] loaded = read;
+            main.post(() -> listener.onLoaded(loaded));
+        });
+    }
+
+    private static long checksum(byte[] snapshot) {
+        CRC32 crc = new CRC32();
+        crc.update(snapshot, 0, snapshot.length);
+        return crc.getValue();
+    }
+
+    private static void write(File dir, File file, byte[] snapshot) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Could not create " + dir);
+            return;
+        }
+        // Write a temporary file and rename it so a kill mid-write never leaves a file under the final name
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(snapshot);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + temp, e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Could not replace " + file);
+            temp.delete();
+            return;
+        }
+        // Only the newest save can be restored, so older files and leftovers of killed writes go
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File old : files) {
+                if (!old.equals(file)) {
+                    old.delete();
+                }
+            }
+        }
+    }
+
+    private static byte[] read(File file, int length, long crc) throws IOException {
+        if (file.length() != length) {
+            throw new IOException("Expected " + length + " bytes, found " + file.length());
+        }
+        byte[] snapshot = new byte[length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < snapshot.length) {
+                int read = in.read(snapshot, offset, snapshot.length - offset);
+                if (read < 0) {
+                    throw new IOException("Snapshot file shrank while reading");
+                }
+                offset += read;
+            }
+        }
+        if (checksum(snapshot) != crc) {
+            throw new IOException("Snapshot does not match the one saved");
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.chainreaction;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counts what the calling thread allocates, using HotSpot's per-thread
+ * allocation counter, for tests that check a hot path allocates nothing.
+ * Bytes allocated by reading the counter itself are left out.
+ */
+final class AllocationCounter {
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    // Measured once, after the first reads have loaded whatever they need
+    private static final long OVERHEAD = measureOverhead();
+
+    private AllocationCounter() {
+    }
+
+    /** Whether this JVM counts allocations per thread; tests assume it before measuring. */
+    static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /** Starts a measurement; pass the result to {@link #allocatedSince}. */
+    static long start() {
+        return read();
+    }
+
+    /** Bytes the calling thread has allocated since {@code start}. */
+    static long allocatedSince(long start) {
+        return read() - start - OVERHEAD;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        hotspot.setThreadAllocatedMemoryEnabled(true);
+        return hotspot;
+    }
+
+    private static long measureOverhead() {
+        if (THREADS == null) {
+            return 0;
+        }
+        read();
+        long first = read();
+        return read() - first;
+    }
+
+    private static long read() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
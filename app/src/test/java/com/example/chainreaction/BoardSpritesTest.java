@@ -0,0 +1,258 @@
+package com.example.chainreaction;
+
+import com.example.chainreaction.engine.BoardView;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BoardSpritesTest {
+    private static final int[] COLORS = {0xFFFF0000, 0xFF00FF00, 0xFF0000FF, 0xFFFFFF00};
+
+    /** Bare board whose cells the test sets directly. */
+    private static final class TestBoard implements BoardView {
+        final int rows;
+        final int cols;
+        final int[] owners;
+        final int[] atoms;
+
+        TestBoard(int rows, int cols) {
+            this.rows = rows;
+            this.cols = cols;
+            this.owners = new int[rows * cols];
+            this.atoms = new int[rows * cols];
+            Arrays.fill(owners, -1);
+        }
+
+        void set(int cell, int owner, int count) {
+            owners[cell] = count == 0 ? -1 : owner;
+            atoms[cell] = count;
+        }
+
+        @Override public int getRows() { return rows; }
+        @Override public int getCols() { return cols; }
+        @Override public int getCellCount() { return rows * cols; }
+        @Override public int getAtomCount(int index) { return atoms[index]; }
+        @Override public int getOwnerPlayerId(int index) { return owners[index]; }
+        @Override public int getMaxCapacity(int index) { return 3; }
+        @Override public int getClickCount(int index) { return 0; }
+        @Override public int getPlayerAtomCount(int playerId) { return 0; }
+        @Override public int getPlayerCellCount(int playerId) { return 0; }
+    }
+
+    private static TestBoard fullBoard(int rows, int cols) {
+        TestBoard board = new TestBoard(rows, cols);
+        for (int cell = 0; cell < rows * cols; cell++) {
+            board.set(cell, cell % COLORS.length, 1 + cell % 3);
+        }
+        return board;
+    }
+
+    /** One frame the way GameView runs it: diff, start bursts, step, then read every coordinate. */
+    private static float frame(BoardSprites sprites, TestBoard board, int n) {
+        int cell = n % board.getCellCount();
+        board.set(cell, (board.owners[cell] + 1) % COLORS.length, 1 + (board.atoms[cell] % 3));
+        sprites.update(board, COLORS);
+        sprites.addBurst(cell, board.cols, COLORS[0]);
+        sprites.step(BoardSprites.FRAME_NANOS);
+
+        float sum = 0;
+        for (int i = 0; i < sprites.getDrawnCount(); i++) {
+            int drawn = sprites.getDrawnCell(i);
+            sum += sprites.getAtomRadius(drawn) + sprites.getColor(drawn);
+            for (int k = 0; k < sprites.getAtoms(drawn); k++) {
+                sum += sprites.atomX(drawn, board.cols, k) + sprites.atomY(drawn, board.cols, k);
+            }
+        }
+        for (int i = 0; i < sprites.getBurstCount(); i++) {
+            sum += sprites.getBurstX(i) + sprites.getBurstY(i) + sprites.getBurstRadius(i) + sprites.getBurstAlpha(i);
+        }
+        return sum;
+    }
+
+    @Test
+    public void fullBoardAnimationAllocatesNothingPerFrame() {
+        Assume.assumeTrue(AllocationCounter.isSupported());
+        TestBoard board = fullBoard(20, 30);
+        BoardSprites sprites = new BoardSprites();
+        sprites.setCellSize(36, 36);
+
+        // Warm up so the arrays have reached their size
+        float sink = 0;
+        for (int n = 0; n < 1_000; n++) {
+            sink += frame(sprites, board, n);
+        }
+
+        long start = AllocationCounter.start();
+        for (int n = 0; n < 600; n++) {
+            sink += frame(sprites, board, n);
+        }
+        long allocated = AllocationCounter.allocatedSince(start);
+        assertEquals("bytes allocated over 600 frames", 0, allocated);
+        assertTrue(sink != 0);
+    }
+
+    @Test
+    public void updateOnlyRestartsChangedCells() {
+        TestBoard board = fullBoard(6, 9);
+        BoardSprites sprites = new BoardSprites();
+        sprites.setCellSize(10, 10);
+        sprites.update(board, COLORS);
+        assertEquals(54, sprites.getDrawnCount());
+        for (int n = 0; n < 60; n++) {
+            sprites.step(BoardSprites.FRAME_NANOS);
+        }
+        float grown = sprites.getAtomRadius(0);
+        assertEquals(1.5f, grown, 1e-6f);
+        float angle = sprites.getAngle(10);
+
+        // Cell 10 gains an atom, cell 20 changes hands and cell 30 is emptied
+        board.set(10, board.owners[10], board.atoms[10] + 1);
+        board.set(20, (board.owners[20] + 1) % COLORS.length, board.atoms[20]);
+        board.set(30, 0, 0);
+        sprites.update(board, COLORS);
+
+        assertEquals(53, sprites.getDrawnCount());
+        assertEquals(0f, sprites.getAtomRadius(10), 0f);
+        assertEquals(board.atoms[10], sprites.getAtoms(10));
+        assertEquals(angle, sprites.getAngle(10), 0f);
+        assertEquals(0f, sprites.getAtomRadius(20), 0f);
+        assertEquals(COLORS[board.owners[20]], sprites.getColor(20));
+        assertEquals(grown, sprites.getAtomRadius(0), 0f);
+        for (int i = 0; i < sprites.getDrawnCount(); i++) {
+            assertNotEquals(30, sprites.getDrawnCell(i));
+        }
+    }
+
+    @Test
+    public void stillBoardStopsAskingForFrames() {
+        TestBoard board = new TestBoard(6, 9);
+        board.set(0, 0, 1);
+        board.set(10, 1, 1);
+        BoardSprites sprites = new BoardSprites();
+        sprites.setCellSize(10, 10);
+        sprites.update(board, COLORS);
+        int frames = 0;
+        while (sprites.step(BoardSprites.FRAME_NANOS)) {
+            frames++;
+            assertTrue("single atoms never settled", frames < 100);
+        }
+
+        // A pair orbits for as long as it is on the board
+        board.set(10, 1, 2);
+        sprites.update(board, COLORS);
+        for (int n = 0; n < 200; n++) {
+            assertTrue(sprites.step(BoardSprites.FRAME_NANOS));
+        }
+    }
+
+    @Test
+    public void motionFollowsElapsedTimeNotFrameCount() {
+        TestBoard board = new TestBoard(6, 9);
+        board.set(4, 0, 3);
+        BoardSprites at60 = new BoardSprites();
+        BoardSprites at120 = new BoardSprites();
+        at60.setCellSize(10, 10);
+        at120.setCellSize(10, 10);
+        at60.update(board, COLORS);
+        at120.update(board, COLORS);
+        for (int n = 0; n < 30; n++) {
+            at60.step(BoardSprites.FRAME_NANOS);
+            at120.step(BoardSprites.FRAME_NANOS / 2);
+            at120.step(BoardSprites.FRAME_NANOS - BoardSprites.FRAME_NANOS / 2);
+        }
+        assertEquals(90f, at60.getAngle(4), 1e-3f);
+        assertEquals(at60.getAngle(4), at120.getAngle(4), 1e-3f);
+        assertEquals(at60.getAtomRadius(4), at120.getAtomRadius(4), 1e-3f);
+    }
+
+    @Test
+    public void orbitPositionsMatchTrigonometry() {
+        TestBoard board = new TestBoard(3, 4);
+        board.set(5, 0, 2);
+        board.set(6, 1, 3);
+        BoardSprites sprites = new BoardSprites();
+        sprites.setCellSize(40, 40);
+        sprites.update(board, COLORS);
+        float orbit = 40 * 0.15f * 1.2f;
+        for (int n = 0; n < 500; n++) {
+            sprites.step(BoardSprites.FRAME_NANOS / 3);
+            for (int cell = 5; cell <= 6; cell++) {
+                int count = sprites.getAtoms(cell);
+                for (int k = 0; k < count; k++) {
+                    double angle = Math.toRadians(sprites.getAngle(cell) + k * 360.0 / count);
+                    float x = (cell % 4) * 40 + 20 + (float) Math.cos(angle) * orbit;
+                    float y = (cell / 4) * 40 + 20 + (float) Math.sin(angle) * orbit;
+                    // Rounding to a quarter degree moves an atom by under a fiftieth of a pixel at this size
+                    assertEquals(x, sprites.atomX(cell, 4, k), 0.02f);
+                    assertEquals(y, sprites.atomY(cell, 4, k), 0.02f);
+                }
+            }
+        }
+    }
+
+    private static int movingCells(BoardSprites sprites) {
+        int moving = 0;
+        for (int i = 0; i < sprites.getDrawnCount(); i++) {
+            if (!sprites.isSettled(sprites.getDrawnCell(i))) {
+                moving++;
+            }
+        }
+        return moving;
+    }
+
+    @Test
+    public void onlyChangedAndOrbitingCellsNeedDrawingEachFrame() {
+        TestBoard board = new TestBoard(30, 30);
+        for (int cell = 0; cell < 900; cell++) {
+            board.set(cell, cell % COLORS.length, 1);
+        }
+        BoardSprites sprites = new BoardSprites();
+        sprites.setCellSize(10, 10);
+        sprites.update(board, COLORS);
+        assertEquals(900, movingCells(sprites));
+        while (sprites.step(BoardSprites.FRAME_NANOS)) {
+            // Let everything grow in
+        }
+        assertEquals(0, movingCells(sprites));
+        assertTrue(sprites.takeSettledChange());
+        assertFalse(sprites.takeSettledChange());
+
+        // A move that turns one atom into a pair and recolours a neighbour
+        board.set(31, board.owners[31], 2);
+        board.set(32, board.owners[31], 1);
+        sprites.update(board, COLORS);
+        assertTrue(sprites.takeSettledChange());
+        assertEquals(2, movingCells(sprites));
+        for (int n = 0; n < 100; n++) {
+            sprites.step(BoardSprites.FRAME_NANOS);
+        }
+        // The pair keeps orbiting; the recoloured single atom joins the cached layer again
+        assertEquals(1, movingCells(sprites));
+        assertFalse(sprites.isSettled(31));
+        assertTrue(sprites.takeSettledChange());
+        sprites.step(BoardSprites.FRAME_NANOS);
+        assertFalse(sprites.takeSettledChange());
+    }
+
+    @Test
+    public void burstsWidenFadeAndExpire() {
+        BoardSprites sprites = new BoardSprites();
+        sprites.setCellSize(10, 20);
+        sprites.addBurst(7, 5, COLORS[1]);
+        assertEquals(25f, sprites.getBurstX(0), 0f);
+        assertEquals(30f, sprites.getBurstY(0), 0f);
+
+        assertTrue(sprites.step(BoardSprites.FRAME_NANOS));
+        assertEquals(6f, sprites.getBurstRadius(0), 1e-6f);
+        assertEquals(204, sprites.getBurstAlpha(0));
+        for (int n = 0; n < 3; n++) {
+            assertTrue(sprites.step(BoardSprites.FRAME_NANOS));
+        }
+        assertFalse(sprites.step(BoardSprites.FRAME_NANOS));
+        assertEquals(0, sprites.getBurstCount());
+    }
+}
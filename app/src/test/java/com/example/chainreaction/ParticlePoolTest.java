@@ -0,0 +1,100 @@
+package com.example.chainreaction;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParticlePoolTest {
+
+    @Test
+    public void spawnStopsAtTheBudget() {
+        ParticlePool pool = new ParticlePool(10, 2);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(pool.spawn(0, 0, 0, 1, 3, i));
+        }
+        assertFalse(pool.spawn(0, 0, 0, 1, 3, 10));
+        assertEquals(10, pool.size());
+    }
+
+    @Test
+    public void particlesMoveAlongTheirSpawnAngle() {
+        ParticlePool pool = new ParticlePool(4, 1);
+        pool.spawn(100, 100, 90, 10, 5, 0xFF00FF00);
+        pool.step(2, 0.5f, 0, 0, 1000, 1000);
+        // 10 px per frame at half speed for two frames, plus at most a pixel of jitter
+        assertEquals(100, pool.getX(0), 1.0001f);
+        assertEquals(110, pool.getY(0), 1.0001f);
+        assertEquals(5f, pool.getSize(0), 0f);
+        assertEquals(0xFF00FF00, pool.getColor(0));
+    }
+
+    @Test
+    public void particlesLeavingTheBoundsAreSwapRemoved() {
+        ParticlePool pool = new ParticlePool(8, 1);
+        pool.spawn(50, 50, 0, 0, 1, 1);
+        pool.spawn(50, 50, 180, 100, 2, 2); // leaves on the left
+        pool.spawn(50, 50, 0, 0, 3, 3);
+        pool.spawn(50, 50, 0, 100, 4, 4);   // leaves on the right
+        pool.spawn(50, 50, 0, 0, 5, 5);
+        pool.step(1, 1, 0, 0, 100, 100);
+
+        assertEquals(3, pool.size());
+        int colors = 0;
+        for (int i = 0; i < pool.size(); i++) {
+            assertEquals(pool.getColor(i), (int) pool.getSize(i));
+            colors |= 1 << pool.getColor(i);
+        }
+        assertEquals((1 << 1) | (1 << 3) | (1 << 5), colors);
+    }
+
+    @Test
+    public void budgetShrinksOnSlowFramesAndRecovers() {
+        ParticlePool pool = new ParticlePool(1000, 100);
+        for (int n = 0; n < 600; n++) {
+            pool.adaptBudget(40_000_000L);
+        }
+        assertEquals(100, pool.getBudget());
+        // Live particles are kept; only new ones are held back
+        ParticlePool full = new ParticlePool(1000, 100);
+        for (int i = 0; i < 1000; i++) {
+            full.spawn(0, 0, 0, 0, 1, 0);
+        }
+        for (int n = 0; n < 60; n++) {
+            full.adaptBudget(40_000_000L);
+        }
+        assertTrue(full.getBudget() < 1000);
+        assertEquals(1000, full.size());
+        assertFalse(full.spawn(0, 0, 0, 0, 1, 0));
+
+        for (int n = 0; n < 600; n++) {
+            pool.adaptBudget(ParticlePool.TARGET_FRAME_NANOS);
+        }
+        assertEquals(1000, pool.getBudget());
+    }
+
+    @Test
+    public void showFramesAllocateNothing() {
+        Assume.assumeTrue(AllocationCounter.isSupported());
+        ParticlePool pool = new ParticlePool(900, 150);
+        float sink = 0;
+        long start = 0;
+        for (int n = 0; n < 2_000; n++) {
+            if (n == 1_000) {
+                start = AllocationCounter.start();
+            }
+            if (n % 60 == 0) {
+                for (int i = 0; i < 300; i++) {
+                    pool.spawn(n % 120 == 0 ? 0 : 800, 400, i * 1.2f - 90, 10 + i % 40, 3, i);
+                }
+            }
+            pool.adaptBudget(ParticlePool.TARGET_FRAME_NANOS);
+            pool.step(1, 0.9f, -100, -100, 900, 900);
+            for (int i = 0; i < pool.size(); i++) {
+                sink += pool.getX(i) + pool.getY(i) + pool.getSize(i) + pool.getColor(i);
+            }
+        }
+        assertEquals("bytes allocated over 1000 frames", 0, AllocationCounter.allocatedSince(start));
+        assertTrue(sink != 0);
+    }
+}
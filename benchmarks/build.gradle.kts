@@ -0,0 +1,39 @@
+plugins {
+    java
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":engine"))
+    implementation(project(":server"))
+    implementation(libs.jmh.core)
+    implementation(libs.jol.core)
+    annotationProcessor(libs.jmh.generator.annprocess)
+}
+
+// ./gradlew :benchmarks:jmh -PjmhArgs="BoardLayout -prof gc"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args((project.findProperty("jmhArgs") as String? ?: "").split(" ").filter { it.isNotBlank() })
+}
+
+tasks.register<JavaExec>("footprint") {
+    group = "benchmark"
+    description = "Prints retained heap size per board for each board layout."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.chainreaction.benchmarks.BoardFootprint")
+}
+
+tasks.register<JavaExec>("wireFootprint") {
+    group = "benchmark"
+    description = "Prints bytes per move of the binary protocol and of a JSON board dump."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.chainreaction.benchmarks.WireFootprint")
+}
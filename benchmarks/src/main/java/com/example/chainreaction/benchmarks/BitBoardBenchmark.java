@@ -0,0 +1,70 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.engine.BitBoardEngine;
+import com.example.chainreaction.engine.GameEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bitboard backend with the flat-array engine by replaying the
+ * same random game. The bitboard variant restores its start position with
+ * {@link BitBoardEngine#copyFrom}, the way a search would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitBoardBenchmark {
+    @Param({"6x9", "8x8"})
+    public String size;
+
+    private int rows;
+    private int cols;
+    private int[] script;
+    private BitBoardEngine start;
+    private BitBoardEngine bitBoard;
+
+    @Setup
+    public void setup() {
+        int[] dims = MoveScripts.parseSize(size);
+        rows = dims[0];
+        cols = dims[1];
+        script = MoveScripts.randomGame(rows, cols, 2, 42L, rows * cols * 4);
+        start = new BitBoardEngine(rows, cols, 2);
+        bitBoard = new BitBoardEngine(rows, cols, 2);
+    }
+
+    @Benchmark
+    public int bitBoardGame() {
+        bitBoard.copyFrom(start);
+        int waves = 0;
+        for (int move : script) {
+            waves += bitBoard.placeAtom(move);
+        }
+        return waves;
+    }
+
+    @Benchmark
+    public int flatArrayGame() {
+        GameEngine engine = new GameEngine(rows, cols, 2, MoveScripts.PLAYER_NAMES);
+        int waves = 0;
+        for (int move : script) {
+            waves += engine.placeAtom(move / cols, move % cols).getWaves().size();
+        }
+        return waves;
+    }
+}
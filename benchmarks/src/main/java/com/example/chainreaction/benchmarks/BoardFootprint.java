@@ -0,0 +1,26 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.engine.Board;
+
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Prints the retained heap size of one board in each layout, as measured by
+ * JOL on the running JVM.
+ */
+public final class BoardFootprint {
+    private static final String[] SIZES = {"6x9", "10x15", "32x32"};
+
+    private BoardFootprint() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %14s %14s%n", "board", "Board (bytes)", "Cell[][] (bytes)");
+        for (String size : SIZES) {
+            int[] dims = MoveScripts.parseSize(size);
+            long flat = GraphLayout.parseInstance(new Board(dims[0], dims[1])).totalSize();
+            long cells = GraphLayout.parseInstance(new CellGridGame(dims[0], dims[1], 2)).totalSize();
+            System.out.printf("%-8s %14d %14d%n", size, flat, cells);
+        }
+    }
+}
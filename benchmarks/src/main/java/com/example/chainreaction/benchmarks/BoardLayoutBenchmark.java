@@ -0,0 +1,62 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.engine.GameEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the same random game on the flat-array {@code Board} and on the
+ * original {@code Cell[][]} layout. Each operation is one full game from an
+ * empty board, so the score is games per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardLayoutBenchmark {
+    @Param({"6x9", "10x15"})
+    public String size;
+
+    private int rows;
+    private int cols;
+    private int[] script;
+
+    @Setup
+    public void setup() {
+        int[] dims = MoveScripts.parseSize(size);
+        rows = dims[0];
+        cols = dims[1];
+        script = MoveScripts.randomGame(rows, cols, 2, 42L, rows * cols * 4);
+    }
+
+    @Benchmark
+    public void flatArrayBoard(Blackhole blackhole) {
+        GameEngine engine = new GameEngine(rows, cols, 2, MoveScripts.PLAYER_NAMES);
+        for (int move : script) {
+            blackhole.consume(engine.placeAtom(move / cols, move % cols));
+        }
+    }
+
+    @Benchmark
+    public void cellGridBoard(Blackhole blackhole) {
+        CellGridGame game = new CellGridGame(rows, cols, 2);
+        for (int move : script) {
+            blackhole.consume(game.placeAtom(move / cols, move % cols));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.chainreaction.benchmarks;
+
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * Reference copy of the original object-per-cell layout: a {@code Cell[][]}
+ * of heap objects with a {@code LinkedList} explosion queue. It follows the
+ * same rules as the engine and is only kept so benchmarks can compare the two
+ * representations.
+ */
+final class CellGridGame {
+    private final Cell[][] board;
+    private final int rows;
+    private final int cols;
+    private final int numPlayers;
+    private final Queue<ExplosionEvent> explosionQueue = new LinkedList<>();
+    private int currentPlayer;
+    private boolean gameOver;
+
+    static final class Cell {
+        private int atomCount;
+        private int ownerPlayerId;
+        private int maxCapacity;
+        private int row;
+        private int col;
+        private int clickCount;
+
+        Cell(int row, int col, int maxCapacity) {
+            this.row = row;
+            this.col = col;
+            this.ownerPlayerId = -1;
+            this.maxCapacity = maxCapacity;
+        }
+
+        boolean isFull() {
+            return atomCount >= maxCapacity;
+        }
+
+        void addAtom(int playerId) {
+            if (atomCount == 0) {
+                ownerPlayerId = playerId;
+            }
+            atomCount++;
+        }
+
+        void capture(int playerId) {
+            if (ownerPlayerId != playerId) {
+                ownerPlayerId = playerId;
+                clickCount = 0;
+            }
+            atomCount++;
+        }
+
+        void reset() {
+            atomCount = 0;
+            ownerPlayerId = -1;
+            clickCount = 0;
+        }
+    }
+
+    private static final class ExplosionEvent {
+        final int row;
+        final int col;
+
+        ExplosionEvent(int row, int col) {
+            this.row = row;
+            this.col = col;
+        }
+    }
+
+    CellGridGame(int rows, int cols, int numPlayers) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numPlayers = numPlayers;
+        this.board = new Cell[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int neighbors = 0;
+                if (i > 0) neighbors++;
+                if (i < rows - 1) neighbors++;
+                if (j > 0) neighbors++;
+                if (j < cols - 1) neighbors++;
+                board[i][j] = new Cell(i, j, neighbors);
+            }
+        }
+    }
+
+    boolean placeAtom(int row, int col) {
+        Cell cell = board[row][col];
+        if (gameOver || (cell.ownerPlayerId != -1 && cell.ownerPlayerId != currentPlayer)) {
+            return false;
+        }
+        if (cell.ownerPlayerId != currentPlayer) {
+            cell.clickCount = 0;
+        }
+        cell.clickCount++;
+        for (int i = 0; i < cell.clickCount; i++) {
+            cell.addAtom(currentPlayer);
+        }
+
+        if (cell.isFull()) {
+            explosionQueue.add(new ExplosionEvent(row, col));
+            while (!explosionQueue.isEmpty()) {
+                ExplosionEvent event = explosionQueue.poll();
+                if (board[event.row][event.col].isFull()) {
+                    explode(event.row, event.col);
+                }
+            }
+            checkGameOver();
+        }
+        if (!gameOver) {
+            currentPlayer = (currentPlayer + 1) % numPlayers;
+        }
+        return true;
+    }
+
+    private void explode(int row, int col) {
+        int playerId = board[row][col].ownerPlayerId;
+        board[row][col].reset();
+        if (row > 0) spill(board[row - 1][col], row - 1, col, playerId);
+        if (row < rows - 1) spill(board[row + 1][col], row + 1, col, playerId);
+        if (col > 0) spill(board[row][col - 1], row, col - 1, playerId);
+        if (col < cols - 1) spill(board[row][col + 1], row, col + 1, playerId);
+    }
+
+    private void spill(Cell neighbor, int row, int col, int playerId) {
+        neighbor.capture(playerId);
+        if (neighbor.isFull()) {
+            explosionQueue.add(new ExplosionEvent(row, col));
+        }
+    }
+
+    private void checkGameOver() {
+        int activePlayers = 0;
+        for (int p = 0; p < numPlayers; p++) {
+            int playerAtoms = 0;
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    if (board[i][j].ownerPlayerId == p) {
+                        playerAtoms += board[i][j].atomCount;
+                    }
+                }
+            }
+            if (playerAtoms > 0) {
+                activePlayers++;
+            }
+        }
+        gameOver = activePlayers <= 1;
+    }
+
+    int getAtomCount(int row, int col) {
+        return board[row][col].atomCount;
+    }
+}
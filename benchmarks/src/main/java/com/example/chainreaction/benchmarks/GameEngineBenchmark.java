@@ -0,0 +1,160 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.engine.Board;
+import com.example.chainreaction.engine.GameEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regression suite for the rules engine, driven through its public API only;
+ * the game-over check is measured as part of every {@link #play} call. Run it
+ * with the GC profiler to see allocation per operation:
+ *
+ * <pre>./gradlew :benchmarks:jmh -PjmhArgs="GameEngineBenchmark -prof gc"</pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEngineBenchmark {
+    @Param({"6x9", "10x15", "32x32"})
+    public String size;
+
+    private int rows;
+    private int cols;
+    private int cellCount;
+    private int maxMovesPerGame;
+    private GameEngine engine;
+    private GameEngine primed;
+    private Random random;
+    private int[] legal;
+    private int[] script;
+    private int scriptPosition;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] parts = size.split("x");
+        rows = Integer.parseInt(parts[0]);
+        cols = Integer.parseInt(parts[1]);
+        cellCount = rows * cols;
+        // Same cap as the simulator, so a game that never ends cannot hang a run
+        maxMovesPerGame = cellCount * 64;
+        engine = new GameEngine(rows, cols, 2, null);
+        random = new Random(42L);
+        legal = new int[cellCount];
+        script = recordGame(new GameEngine(rows, cols, 2, null), new Random(42L));
+        primed = primeCascade();
+    }
+
+    /**
+     * Plays the board into a position where every cell is as close to
+     * exploding as click scoring allows. A repeated click on the same cell
+     * adds one more atom than the last. Corners and inner cells end up one atom
+     * short, and edges hold a single atom, since a second click would set them
+     * off. The first player fills the top half and the second player fills
+     * the mirror-image bottom half, so both need the same number of moves.
+     */
+    private GameEngine primeCascade() {
+        if (rows % 2 != 0) {
+            throw new IllegalStateException("The cascade position needs an even row count: " + size);
+        }
+        GameEngine game = new GameEngine(rows, cols, 2, null);
+        Board board = game.getBoard();
+        for (int top = 0; top < cellCount / 2; top++) {
+            int bottom = cellCount - 1 - top;
+            int atoms = 0;
+            for (int click = 1; atoms + click < board.getMaxCapacity(top); click++) {
+                if (game.play(top) != 0 || game.play(bottom) != 0) {
+                    throw new IllegalStateException("Priming move exploded at cell " + top);
+                }
+                atoms += click;
+            }
+        }
+        return game;
+    }
+
+    private int[] recordGame(GameEngine game, Random moves) {
+        int[] recorded = new int[cellCount * 16];
+        int count = 0;
+        while (count < recorded.length && count < maxMovesPerGame && !game.isGameOver()) {
+            int cell = randomLegalMove(game, moves);
+            game.play(cell);
+            recorded[count++] = cell;
+        }
+        int[] result = new int[count];
+        System.arraycopy(recorded, 0, result, 0, count);
+        return result;
+    }
+
+    private int randomLegalMove(GameEngine game, Random moves) {
+        Board board = game.getBoard();
+        int owner = game.getCurrentPlayerIndex();
+        int legalCount = 0;
+        for (int i = 0; i < cellCount; i++) {
+            int cellOwner = board.getOwnerPlayerId(i);
+            if (cellOwner == -1 || cellOwner == owner) {
+                legal[legalCount++] = i;
+            }
+        }
+        return legal[moves.nextInt(legalCount)];
+    }
+
+    /** One recorded move including its whole chain reaction, via the API the app uses. */
+    @Benchmark
+    public Object placeAtom() {
+        if (scriptPosition == script.length) {
+            engine.reset();
+            scriptPosition = 0;
+        }
+        int cell = script[scriptPosition++];
+        return engine.placeAtom(cell / cols, cell % cols);
+    }
+
+    /** The same move through the allocation-free path. */
+    @Benchmark
+    public int play() {
+        if (scriptPosition == script.length) {
+            engine.reset();
+            scriptPosition = 0;
+        }
+        return engine.play(script[scriptPosition++]);
+    }
+
+    /** A complete random game from an empty board; the score is games per second. */
+    @Benchmark
+    public int selfPlayGame() {
+        engine.reset();
+        int moves = 0;
+        while (!engine.isGameOver() && moves < maxMovesPerGame) {
+            engine.play(randomLegalMove(engine, random));
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * A board primed to explode, half of it the opponent's: one more click on
+     * an inner cell sets off a cascade across the whole board.
+     */
+    @Benchmark
+    public int worstCaseCascade() {
+        engine.copyFrom(primed);
+        return engine.play(cols + 1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.engine.GameEngine;
+import com.example.chainreaction.engine.GameSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of saving and restoring a half-played game, which has to fit in a
+ * small part of a 16 ms frame when the activity is recreated.
+ *
+ * <pre>./gradlew :benchmarks:jmh -PjmhArgs="GameSnapshotBenchmark"</pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameSnapshotBenchmark {
+    @Param({"6x9", "20x30", "100x100"})
+    public String size;
+
+    private GameEngine midGame;
+    private byte[] snapshot;
+
+    @Setup
+    public void setup() {
+        String[] parts = size.split("x");
+        int rows = Integer.parseInt(parts[0]);
+        int cols = Integer.parseInt(parts[1]);
+        midGame = new GameEngine(rows, cols, 2, null);
+        Random random = new Random(42L);
+        // Fill about half the board before the first long chains start
+        int moves = rows * cols / 2;
+        for (int i = 0; i < moves && !midGame.isGameOver(); ) {
+            if (midGame.play(random.nextInt(rows * cols)) >= 0) {
+                i++;
+            }
+        }
+        snapshot = GameSnapshot.write(midGame, null, 0);
+    }
+
+    @Benchmark
+    public byte[] write() {
+        return GameSnapshot.write(midGame, null, 0);
+    }
+
+    @Benchmark
+    public GameSnapshot read() throws IOException {
+        return GameSnapshot.read(snapshot);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.chainreaction.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The naive baseline for {@link WireProtocolBenchmark}: after every move,
+ * the whole {@code Cell[][]} grid serialised as JSON, the way the game
+ * would ship it if it simply dumped its model. Hand-written so the
+ * benchmark needs no JSON library; a library would add reflection on top.
+ */
+final class JsonBoardDump {
+
+    private JsonBoardDump() {
+    }
+
+    static byte[] encode(StringBuilder json, int seat, int cell, int rows, int cols,
+                         byte[] owners, byte[] atoms, int[] clicks) {
+        json.setLength(0);
+        json.append("{\"seat\":").append(seat)
+                .append(",\"cell\":").append(cell)
+                .append(",\"rows\":").append(rows)
+                .append(",\"cols\":").append(cols)
+                .append(",\"cells\":[");
+        for (int r = 0; r < rows; r++) {
+            json.append(r == 0 ? "[" : ",[");
+            for (int c = 0; c < cols; c++) {
+                int i = r * cols + c;
+                json.append(c == 0 ? "{" : ",{")
+                        .append("\"ownerPlayerId\":").append(owners[i])
+                        .append(",\"atomCount\":").append(atoms[i])
+                        .append(",\"clickCount\":").append(clicks[i])
+                        .append('}');
+            }
+            json.append(']');
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Parses a dump back into flat arrays and returns the move's cell. */
+    static int decode(byte[] bytes, byte[] owners, byte[] atoms, int[] clicks) {
+        String json = new String(bytes, StandardCharsets.UTF_8);
+        int cell = intAfter(json, "\"cell\":", 0);
+        int at = json.indexOf("\"cells\":");
+        for (int i = 0; i < owners.length; i++) {
+            at = json.indexOf("\"ownerPlayerId\":", at);
+            owners[i] = (byte) intAfter(json, "\"ownerPlayerId\":", at);
+            at = json.indexOf("\"atomCount\":", at);
+            atoms[i] = (byte) intAfter(json, "\"atomCount\":", at);
+            at = json.indexOf("\"clickCount\":", at);
+            clicks[i] = intAfter(json, "\"clickCount\":", at);
+        }
+        return cell;
+    }
+
+    private static int intAfter(String json, String key, int from) {
+        int start = json.indexOf(key, from) + key.length();
+        int end = start;
+        while (end < json.length() && (json.charAt(end) == '-' || Character.isDigit(json.charAt(end)))) {
+            end++;
+        }
+        return Integer.parseInt(json, start, end, 10);
+    }
+}
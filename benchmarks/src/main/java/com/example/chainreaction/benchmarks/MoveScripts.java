@@ -0,0 +1,46 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.engine.BoardView;
+import com.example.chainreaction.engine.GameEngine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic move sequences for benchmarks, recorded by playing uniformly
+ * random legal moves from a fixed seed.
+ */
+final class MoveScripts {
+    static final List<String> PLAYER_NAMES = Arrays.asList("Player 1", "Player 2", "Player 3", "Player 4");
+
+    private MoveScripts() {
+    }
+
+    static int[] parseSize(String size) {
+        String[] parts = size.split("x");
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    /** Returns the cell indices of up to {@code maxMoves} random legal moves. */
+    static int[] randomGame(int rows, int cols, int numPlayers, long seed, int maxMoves) {
+        GameEngine engine = new GameEngine(rows, cols, numPlayers, PLAYER_NAMES);
+        BoardView board = engine.getBoard();
+        Random random = new Random(seed);
+        int[] moves = new int[maxMoves];
+        int[] legal = new int[board.getCellCount()];
+        int count = 0;
+        while (count < maxMoves && !engine.isGameOver()) {
+            int legalCount = 0;
+            for (int i = 0; i < board.getCellCount(); i++) {
+                if (engine.isLegalMove(board.rowOf(i), board.colOf(i))) {
+                    legal[legalCount++] = i;
+                }
+            }
+            int move = legal[random.nextInt(legalCount)];
+            engine.placeAtom(board.rowOf(move), board.colOf(move));
+            moves[count++] = move;
+        }
+        return Arrays.copyOf(moves, count);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.engine.Board;
+import com.example.chainreaction.engine.GameEngine;
+import com.example.chainreaction.server.BoardDelta;
+import com.example.chainreaction.server.Protocol;
+
+/**
+ * One random game with everything a server would send after each move:
+ * the binary delta and checksum, and the full board for the JSON dump.
+ */
+final class RecordedMoves {
+    final int rows;
+    final int cols;
+    final int[] seats;
+    final int[] cells;
+    final BoardDelta[] deltas;
+    final long[] checksums;
+    final byte[][] owners;
+    final byte[][] atoms;
+    final int[][] clicks;
+
+    RecordedMoves(int rows, int cols, int numPlayers, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        int cellCount = rows * cols;
+        cells = MoveScripts.randomGame(rows, cols, numPlayers, seed, cellCount * 4);
+        int moves = cells.length;
+        seats = new int[moves];
+        deltas = new BoardDelta[moves];
+        checksums = new long[moves];
+        owners = new byte[moves][cellCount];
+        atoms = new byte[moves][cellCount];
+        clicks = new int[moves][cellCount];
+
+        GameEngine engine = new GameEngine(rows, cols, numPlayers, MoveScripts.PLAYER_NAMES);
+        Board board = engine.getBoard();
+        for (int m = 0; m < moves; m++) {
+            seats[m] = engine.getCurrentPlayerIndex();
+            engine.play(cells[m]);
+            deltas[m] = new BoardDelta(cellCount);
+            deltas[m].collect(engine, cells[m]);
+            checksums[m] = BoardDelta.checksum(board);
+            for (int i = 0; i < cellCount; i++) {
+                owners[m][i] = (byte) board.getOwnerPlayerId(i);
+                atoms[m][i] = (byte) board.getAtomCount(i);
+                clicks[m][i] = board.getClickCount(i);
+            }
+        }
+    }
+
+    int size() {
+        return cells.length;
+    }
+
+    /** Whether the server attaches a checksum to move {@code m}. */
+    boolean hasChecksum(int m) {
+        return m == cells.length - 1 || (m + 1) % Protocol.CHECKSUM_INTERVAL == 0;
+    }
+}
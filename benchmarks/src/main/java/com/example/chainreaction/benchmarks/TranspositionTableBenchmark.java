@@ -0,0 +1,103 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.engine.GameEngine;
+import com.example.chainreaction.engine.TranspositionTable;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probe and store latency of the transposition table at several sizes, using
+ * the position hashes of real random games on a 10x15 board. The table is
+ * filled with every position first, so {@code hitRate} in the probe results
+ * shows how many survive replacement at each size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranspositionTableBenchmark {
+    private static final int POSITIONS = 1 << 21;
+
+    @Param({"1", "16", "128"})
+    public int megabytes;
+
+    private long[] keys;
+    private TranspositionTable table;
+    private int next;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Hits {
+        public long hits;
+        public long probes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            hits = 0;
+            probes = 0;
+        }
+
+        public double hitRate() {
+            return probes == 0 ? 0 : (double) hits / probes;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = recordPositions(10, 15, POSITIONS);
+        table = new TranspositionTable(megabytes);
+        for (int i = 0; i < keys.length; i++) {
+            table.store(keys[i], i % 150, i % 16, i, TranspositionTable.BOUND_EXACT);
+        }
+    }
+
+    private static long[] recordPositions(int rows, int cols, int count) {
+        long[] hashes = new long[count];
+        GameEngine engine = new GameEngine(rows, cols, 2, MoveScripts.PLAYER_NAMES);
+        Random random = new Random(42L);
+        for (int i = 0; i < count; ) {
+            if (engine.isGameOver()) {
+                engine.reset();
+            }
+            if (engine.play(random.nextInt(rows * cols)) >= 0) {
+                hashes[i++] = engine.getPositionHash();
+            }
+        }
+        return hashes;
+    }
+
+    @Benchmark
+    public long probe(Hits hits) {
+        long entry = table.probe(keys[next]);
+        next = (next + 1) & (POSITIONS - 1);
+        hits.probes++;
+        if (entry != TranspositionTable.MISS) {
+            hits.hits++;
+        }
+        return entry;
+    }
+
+    @Benchmark
+    public void store() {
+        long key = keys[next];
+        next = (next + 1) & (POSITIONS - 1);
+        table.store(key, next % 150, next % 16, next, TranspositionTable.BOUND_LOWER);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.server.Protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Prints the average bytes per move of the binary {@code MOVED} frame and of
+ * a JSON full-board dump, over one random game per board size.
+ */
+public final class WireFootprint {
+    private static final String[] SIZES = {"6x9", "10x15", "32x32"};
+
+    private WireFootprint() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %7s %16s %16s %12s%n", "board", "moves", "binary (B/move)", "JSON (B/move)", "max binary");
+        ByteBuffer out = ByteBuffer.allocate(Protocol.HEADER_BYTES + Protocol.MAX_PAYLOAD);
+        StringBuilder builder = new StringBuilder();
+        for (String size : SIZES) {
+            int[] dims = MoveScripts.parseSize(size);
+            RecordedMoves game = new RecordedMoves(dims[0], dims[1], 2, 42L);
+            long binary = 0;
+            long json = 0;
+            int largest = 0;
+            for (int m = 0; m < game.size(); m++) {
+                out.clear();
+                Protocol.moved(out, game.seats[m], game.cells[m], game.deltas[m], game.hasChecksum(m), game.checksums[m]);
+                binary += out.position();
+                largest = Math.max(largest, out.position());
+                json += JsonBoardDump.encode(builder, game.seats[m], game.cells[m], game.rows, game.cols,
+                        game.owners[m], game.atoms[m], game.clicks[m]).length;
+            }
+            System.out.printf("%-8s %7d %16.1f %16.1f %12d%n", size, game.size(),
+                    (double) binary / game.size(), (double) json / game.size(), largest);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.chainreaction.benchmarks;
+
+import com.example.chainreaction.server.BoardDelta;
+import com.example.chainreaction.server.Protocol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per {@code MOVED} message of the binary delta protocol against a
+ * JSON dump of the full board, cycling through the moves of one random
+ * game. Decoding includes bringing a thin client's board up to date. For
+ * bytes per move run {@code ./gradlew :benchmarks:wireFootprint}.
+ *
+ * <pre>./gradlew :benchmarks:jmh -PjmhArgs="WireProtocolBenchmark -prof gc"</pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireProtocolBenchmark {
+    @Param({"6x9", "10x15", "32x32"})
+    public String size;
+
+    private RecordedMoves game;
+    private ByteBuffer out;
+    private ByteBuffer[] binary;
+    private byte[][] json;
+    private StringBuilder builder;
+    private BoardDelta delta;
+    private byte[] owners;
+    private byte[] atoms;
+    private int[] clicks;
+    private int move;
+
+    @Setup
+    public void setup() {
+        int[] dims = MoveScripts.parseSize(size);
+        game = new RecordedMoves(dims[0], dims[1], 2, 42L);
+        out = ByteBuffer.allocate(Protocol.HEADER_BYTES + Protocol.MAX_PAYLOAD);
+        builder = new StringBuilder();
+        binary = new ByteBuffer[game.size()];
+        json = new byte[game.size()][];
+        for (int m = 0; m < game.size(); m++) {
+            out.clear();
+            encodeBinary(m);
+            out.flip();
+            binary[m] = ByteBuffer.wrap(Arrays.copyOf(out.array(), out.limit()));
+            json[m] = encodeJson(m);
+        }
+        int cellCount = dims[0] * dims[1];
+        delta = new BoardDelta(cellCount);
+        owners = new byte[cellCount];
+        atoms = new byte[cellCount];
+        clicks = new int[cellCount];
+    }
+
+    private int nextMove() {
+        int m = move;
+        move = m + 1 == game.size() ? 0 : m + 1;
+        return m;
+    }
+
+    private void encodeBinary(int m) {
+        Protocol.moved(out, game.seats[m], game.cells[m], game.deltas[m], game.hasChecksum(m), game.checksums[m]);
+    }
+
+    private byte[] encodeJson(int m) {
+        return JsonBoardDump.encode(builder, game.seats[m], game.cells[m], game.rows, game.cols,
+                game.owners[m], game.atoms[m], game.clicks[m]);
+    }
+
+    @Benchmark
+    public int binaryEncode() {
+        out.clear();
+        encodeBinary(nextMove());
+        return out.position();
+    }
+
+    @Benchmark
+    public long binaryDecode() {
+        ByteBuffer in = binary[nextMove()];
+        in.position(Protocol.HEADER_BYTES);
+        in.get();
+        int cell = Protocol.getVarint(in);
+        int flags = in.get();
+        delta.read(in);
+        delta.applyTo(owners, atoms);
+        return (flags & Protocol.FLAG_CHECKSUM) != 0 ? in.getLong() : cell;
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return encodeJson(nextMove());
+    }
+
+    @Benchmark
+    public int jsonDecode() {
+        return JsonBoardDump.decode(json[nextMove()], owners, atoms, clicks);
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.chainreaction.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Alpha-beta search with iterative deepening over {@link BitBoardEngine}
+ * positions, for boards of up to 64 cells. Each ply copies its parent into a
+ * preallocated engine, so making a move is a handful of {@code long} copies
+ * and undoing it is free. With more than two players the search is paranoid:
+ * every opponent is assumed to play against the searching player.
+ *
+ * <p>An optional {@link TranspositionTable}, which several searches may
+ * share, supplies the best move of a transposed position to try first and
+ * cuts off positions already searched deep enough. Its keys include the
+ * searching player, since scores are from that player's point of view.
+ *
+ * <p>The time budget is hard: the clock is checked every few hundred nodes
+ * and an unfinished iteration is thrown away, so the move returned always
+ * comes from the deepest completed depth. An instance keeps scratch state and
+ * must only be used by one thread at a time; {@link #cancel()} may be called
+ * from any thread. A caller that hands the search to another thread should
+ * {@link #reserveSearch() reserve} it first, so that a cancel arriving before
+ * the search starts is not lost.
+ */
+public class AlphaBetaSearch {
+    public static final int MAX_DEPTH = 32;
+
+    private static final int WIN = 1_000_000;
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private final BitBoardEngine[] stack;
+    private final int[][] moves;
+    private final TranspositionTable table;
+    private long searcherKey;
+    private int searcher;
+    private long deadline;
+    private long nodes;
+    private long nextClockCheck;
+    private boolean aborted;
+    private int ticket;
+    // Searches are numbered as they are reserved; cancel() stops every one reserved before it
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger cancelledThrough = new AtomicInteger();
+
+    public AlphaBetaSearch(int rows, int cols, int numPlayers) {
+        this(rows, cols, numPlayers, null);
+    }
+
+    public AlphaBetaSearch(int rows, int cols, int numPlayers, TranspositionTable table) {
+        this.table = table;
+        stack = new BitBoardEngine[MAX_DEPTH + 1];
+        for (int ply = 0; ply <= MAX_DEPTH; ply++) {
+            stack[ply] = new BitBoardEngine(rows, cols, numPlayers);
+        }
+        moves = new int[MAX_DEPTH + 1][rows * cols];
+    }
+
+    /**
+     * Stops the running search and any reserved one that has not started yet;
+     * they return the best move found so far.
+     */
+    public void cancel() {
+        cancelledThrough.accumulateAndGet(reserved.get(), Math::max);
+    }
+
+    /** Numbers a search to be run later; pass the ticket to {@link #search(BitBoardEngine, long, int, int)}. */
+    public int reserveSearch() {
+        return reserved.incrementAndGet();
+    }
+
+    /**
+     * Searches the given position for at most {@code budgetMillis} and
+     * returns the best move for its current player. Depth 1 is
+     * always completed, since its leaves are not timed, so a legal move is
+     * returned even on a tiny budget.
+     */
+    public SearchResult search(BitBoardEngine position, long budgetMillis) {
+        return search(position, budgetMillis, MAX_DEPTH);
+    }
+
+    public SearchResult search(BitBoardEngine position, long budgetMillis, int maxDepth) {
+        return search(position, budgetMillis, maxDepth, reserveSearch());
+    }
+
+    /** Runs a search reserved with {@link #reserveSearch()}; it stops at once if it was cancelled in the meantime. */
+    public SearchResult search(BitBoardEngine position, long budgetMillis, int maxDepth, int ticket) {
+        if (position.isGameOver()) {
+            throw new IllegalArgumentException("The game is already over");
+        }
+        long start = System.nanoTime();
+        deadline = start + budgetMillis * 1_000_000L;
+        nodes = 0;
+        nextClockCheck = CLOCK_CHECK_INTERVAL;
+        this.ticket = ticket;
+        stack[0].copyFrom(position);
+        searcher = position.getCurrentPlayer();
+        searcherKey = Zobrist.turnKey(Board.MAX_PLAYERS + searcher);
+        if (table != null) {
+            table.newSearch();
+        }
+
+        int rootMoveCount = generateMoves(stack[0], moves[0], -1);
+        int[] rootMoves = moves[0];
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_DEPTH); depth++) {
+            aborted = false;
+            int iterationBest = -1;
+            int alpha = -WIN - 1;
+            for (int i = 0; i < rootMoveCount; i++) {
+                int move = rootMoves[i];
+                BitBoardEngine child = stack[1];
+                child.copyFrom(stack[0]);
+                child.placeAtom(move);
+                nodes++;
+                int score = evaluate(child, depth - 1, 1, alpha, WIN + 1);
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = i;
+                }
+            }
+            if (aborted) {
+                break;
+            }
+
+            // Search the best move first in the next iteration
+            bestMove = rootMoves[iterationBest];
+            bestScore = alpha;
+            System.arraycopy(rootMoves, 0, rootMoves, 1, iterationBest);
+            rootMoves[0] = bestMove;
+            completedDepth = depth;
+            if (Math.abs(bestScore) >= WIN - MAX_DEPTH) {
+                break;
+            }
+        }
+
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    private int evaluate(BitBoardEngine position, int depth, int ply, int alpha, int beta) {
+        if (position.isGameOver()) {
+            return position.getWinnerId() == searcher ? WIN - ply : -WIN + ply;
+        }
+        if (depth == 0 || ply == MAX_DEPTH) {
+            return score(position);
+        }
+        if (nodes >= nextClockCheck) {
+            nextClockCheck = nodes + CLOCK_CHECK_INTERVAL;
+            if (ticket <= cancelledThrough.get() || System.nanoTime() > deadline) {
+                aborted = true;
+            }
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long key = 0;
+        int tableMove = -1;
+        if (table != null) {
+            key = position.getHash() ^ searcherKey;
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                tableMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int stored = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && stored >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && stored <= alpha)) {
+                        return stored;
+                    }
+                }
+            }
+        }
+
+        boolean maximizing = position.getCurrentPlayer() == searcher;
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        int[] children = moves[ply];
+        int count = generateMoves(position, children, tableMove);
+        int bestMove = -1;
+        BitBoardEngine child = stack[ply + 1];
+        for (int i = 0; i < count; i++) {
+            child.copyFrom(position);
+            child.placeAtom(children[i]);
+            nodes++;
+            int score = evaluate(child, depth - 1, ply + 1, alpha, beta);
+            if (aborted) {
+                return 0;
+            }
+            if (maximizing) {
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = children[i];
+                }
+            } else if (score < beta) {
+                beta = score;
+                bestMove = children[i];
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int result = maximizing ? alpha : beta;
+        if (table != null) {
+            int bound;
+            if (maximizing) {
+                bound = alpha >= beta ? TranspositionTable.BOUND_LOWER
+                        : alpha == originalAlpha ? TranspositionTable.BOUND_UPPER : TranspositionTable.BOUND_EXACT;
+            } else {
+                bound = alpha >= beta ? TranspositionTable.BOUND_UPPER
+                        : beta == originalBeta ? TranspositionTable.BOUND_LOWER : TranspositionTable.BOUND_EXACT;
+            }
+            table.store(key, bestMove, depth, toTable(result, ply), bound);
+        }
+        return result;
+    }
+
+    // Win scores count plies from the root; the table stores them relative to the node
+    private static int toTable(int score, int ply) {
+        if (score >= WIN - MAX_DEPTH) return score + ply;
+        if (score <= -WIN + MAX_DEPTH) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN - MAX_DEPTH) return score - ply;
+        if (score <= -WIN + MAX_DEPTH) return score + ply;
+        return score;
+    }
+
+    /** Static evaluation from the searching player's point of view. */
+    private int score(BitBoardEngine position) {
+        int score = 0;
+        for (int p = 0; p < position.getNumPlayers(); p++) {
+            int material = position.getPlayerAtomCount(p) + 2 * position.getPlayerCellCount(p);
+            score += p == searcher ? material : -material;
+        }
+        return score;
+    }
+
+    /** Lists the legal moves: the table's move, then own cells, which are closer to exploding. */
+    private static int generateMoves(BitBoardEngine position, int[] out, int first) {
+        long legal = position.getLegalMoves();
+        long loaded = legal & position.getOwnedCells(position.getCurrentPlayer());
+        int count = 0;
+        for (long bits = loaded; bits != 0; bits &= bits - 1) {
+            out[count++] = Long.numberOfTrailingZeros(bits);
+        }
+        for (long bits = legal & ~loaded; bits != 0; bits &= bits - 1) {
+            out[count++] = Long.numberOfTrailingZeros(bits);
+        }
+        for (int i = 1; i < count; i++) {
+            if (out[i] == first) {
+                System.arraycopy(out, 0, out, 1, i);
+                out[0] = first;
+                break;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,463 @@
+package com.example.chainreaction.engine;
+
+/**
+ * Alternative rules backend for boards of at most 64 cells. The whole position
+ * lives in a handful of {@code long} bitplanes (bit {@code i} is cell
+ * {@code row * cols + col}): three planes hold the atom count, two the click
+ * count and one per player marks owned cells.
+ *
+ * <p>Each explosion wave is computed for all critical cells at once with
+ * shifts and masks, which makes this backend suited to AI search and bulk
+ * simulation. It follows exactly the same rules as {@link GameEngine},
+ * including the early stop and explosion budget of
+ * {@link ChainReactionResolver}, but does not record which cells exploded.
+ */
+public final class BitBoardEngine implements BoardView {
+    public static final int MAX_CELLS = 64;
+    private static final long PLANE_SEED = 0x632BE59BD9B4E019L;
+
+    private final int rows;
+    private final int cols;
+    private final int numPlayers;
+    private final long boardMask;
+    private final long notFirstCol;
+    private final long notLastCol;
+    private final long capacity1;
+    private final long capacity2;
+    private final long capacity3;
+    private final long capacity4;
+
+    private long atoms0;
+    private long atoms1;
+    private long atoms2;
+    private long clicks0;
+    private long clicks1;
+    private final long[] owned = new long[Board.MAX_PLAYERS];
+    private int activePlayers;
+    private int currentPlayer;
+    private boolean gameOver;
+    private int winnerId;
+    private int lastWaveCount;
+    private boolean lastMoveSaturated;
+    private int maxWaves;
+    private int maxExplosions;
+
+    public BitBoardEngine(int rows, int cols, int numPlayers) {
+        if (!supports(rows, cols)) {
+            throw new IllegalArgumentException("Bitboards need 2 to 64 cells, got " + rows + "x" + cols);
+        }
+        if (numPlayers < 2 || numPlayers > Board.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Unsupported number of players: " + numPlayers);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.numPlayers = numPlayers;
+        int cellCount = rows * cols;
+        this.boardMask = cellCount == MAX_CELLS ? -1L : (1L << cellCount) - 1;
+
+        long firstCol = 0;
+        long lastCol = 0;
+        long[] byCapacity = new long[5];
+        BoardGeometry geometry = BoardGeometry.rectangle(rows, cols);
+        for (int i = 0; i < cellCount; i++) {
+            long bit = 1L << i;
+            if (i % cols == 0) firstCol |= bit;
+            if (i % cols == cols - 1) lastCol |= bit;
+            byCapacity[geometry.getCapacity(i)] |= bit;
+        }
+        this.notFirstCol = boardMask & ~firstCol;
+        this.notLastCol = boardMask & ~lastCol;
+        this.capacity1 = byCapacity[1];
+        this.capacity2 = byCapacity[2];
+        this.capacity3 = byCapacity[3];
+        this.capacity4 = byCapacity[4];
+        this.activePlayers = (1 << numPlayers) - 1;
+        this.winnerId = -1;
+        this.maxWaves = cellCount * ChainReactionResolver.DEFAULT_WAVES_PER_CELL;
+        this.maxExplosions = cellCount * ChainReactionResolver.DEFAULT_EXPLOSIONS_PER_CELL;
+    }
+
+    public void setExplosionBudget(int maxWaves, int maxExplosions) {
+        if (maxWaves < 1 || maxExplosions < 1) {
+            throw new IllegalArgumentException("Budget must allow at least one explosion");
+        }
+        this.maxWaves = maxWaves;
+        this.maxExplosions = maxExplosions;
+    }
+
+    /** Returns true if a board of this size fits in a bitboard. A lone cell has no neighbours to spill into. */
+    public static boolean supports(int rows, int cols) {
+        return rows >= 1 && cols >= 1 && rows * cols >= 2 && rows * cols <= MAX_CELLS;
+    }
+
+    public void copyFrom(BitBoardEngine other) {
+        if (other.rows != rows || other.cols != cols || other.numPlayers != numPlayers) {
+            throw new IllegalArgumentException("Cannot copy a board of a different shape");
+        }
+        atoms0 = other.atoms0;
+        atoms1 = other.atoms1;
+        atoms2 = other.atoms2;
+        clicks0 = other.clicks0;
+        clicks1 = other.clicks1;
+        System.arraycopy(other.owned, 0, owned, 0, Board.MAX_PLAYERS);
+        activePlayers = other.activePlayers;
+        currentPlayer = other.currentPlayer;
+        gameOver = other.gameOver;
+        winnerId = other.winnerId;
+        lastWaveCount = other.lastWaveCount;
+        lastMoveSaturated = other.lastMoveSaturated;
+    }
+
+    /** Loads the position of a scalar engine with the same board size and player count. */
+    public void copyFrom(GameEngine engine) {
+        Board board = engine.getBoard();
+        if (board.getRows() != rows || board.getCols() != cols || board.getGeometry().isWrapping()
+                || engine.getPlayers().size() != numPlayers) {
+            throw new IllegalArgumentException("Cannot copy a board of a different shape");
+        }
+        reset();
+        for (int i = 0; i < board.getCellCount(); i++) {
+            int owner = board.getOwnerPlayerId(i);
+            if (owner < 0) {
+                continue;
+            }
+            long bit = 1L << i;
+            int atoms = board.getAtomCount(i);
+            int clicks = board.getClickCount(i);
+            if ((atoms & 1) != 0) atoms0 |= bit;
+            if ((atoms & 2) != 0) atoms1 |= bit;
+            if ((atoms & 4) != 0) atoms2 |= bit;
+            if ((clicks & 1) != 0) clicks0 |= bit;
+            if ((clicks & 2) != 0) clicks1 |= bit;
+            owned[owner] |= bit;
+        }
+        activePlayers = 0;
+        for (int p = 0; p < numPlayers; p++) {
+            if (engine.getPlayers().get(p).isActive()) {
+                activePlayers |= 1 << p;
+            }
+        }
+        currentPlayer = engine.getCurrentPlayerIndex();
+        gameOver = engine.isGameOver();
+        winnerId = engine.getWinnerId();
+    }
+
+    /** Starts a new game on the same board. */
+    public void reset() {
+        atoms0 = 0;
+        atoms1 = 0;
+        atoms2 = 0;
+        clicks0 = 0;
+        clicks1 = 0;
+        for (int p = 0; p < numPlayers; p++) {
+            owned[p] = 0;
+        }
+        activePlayers = (1 << numPlayers) - 1;
+        currentPlayer = 0;
+        gameOver = false;
+        winnerId = -1;
+        lastWaveCount = 0;
+        lastMoveSaturated = false;
+    }
+
+    /** Returns a mask of the cells the current player may place on. */
+    public long getLegalMoves() {
+        if (gameOver) {
+            return 0;
+        }
+        return boardMask & ~(occupiedCells() & ~owned[currentPlayer]);
+    }
+
+    public boolean isLegalMove(int cell) {
+        return cell >= 0 && cell < getCellCount() && (getLegalMoves() & (1L << cell)) != 0;
+    }
+
+    /**
+     * Places atoms for the current player and resolves the chain reaction.
+     * Returns the number of explosion waves, or -1 if the move is not legal.
+     */
+    public int placeAtom(int cell) {
+        if (!isLegalMove(cell)) {
+            return -1;
+        }
+
+        long bit = 1L << cell;
+        long mine = owned[currentPlayer];
+
+        // If it's a new cell, reset click count
+        if ((mine & bit) == 0) {
+            clicks0 &= ~bit;
+            clicks1 &= ~bit;
+        }
+        int clicks = getClickCount(cell) + 1;
+        clicks0 = (clicks & 1) != 0 ? clicks0 | bit : clicks0 & ~bit;
+        clicks1 = (clicks & 2) != 0 ? clicks1 | bit : clicks1 & ~bit;
+
+        // Add atoms based on click count
+        int atoms = getAtomCount(cell) + clicks;
+        atoms0 = (atoms & 1) != 0 ? atoms0 | bit : atoms0 & ~bit;
+        atoms1 = (atoms & 2) != 0 ? atoms1 | bit : atoms1 & ~bit;
+        atoms2 = (atoms & 4) != 0 ? atoms2 | bit : atoms2 & ~bit;
+        owned[currentPlayer] = mine | bit;
+
+        int waves = 0;
+        int explosions = 0;
+        boolean saturated = false;
+        long critical = criticalCells();
+        while (critical != 0) {
+            if (waves >= maxWaves || explosions >= maxExplosions) {
+                saturated = true;
+                defuse(critical);
+                break;
+            }
+            explode(critical, currentPlayer);
+            explosions += Long.bitCount(critical);
+            waves++;
+            if (playersWithAtoms() <= 1) {
+                break;
+            }
+            critical = criticalCells();
+        }
+        lastWaveCount = waves;
+        lastMoveSaturated = saturated;
+
+        if (waves > 0) {
+            checkGameOver();
+        }
+        if (!gameOver) {
+            nextTurn();
+        }
+        return waves;
+    }
+
+    private long criticalCells() {
+        long atLeast1 = atoms0 | atoms1 | atoms2;
+        long atLeast2 = atoms1 | atoms2;
+        long atLeast3 = atoms2 | (atoms1 & atoms0);
+        return (capacity1 & atLeast1) | (capacity2 & atLeast2) | (capacity3 & atLeast3) | (capacity4 & atoms2);
+    }
+
+    private void explode(long exploding, int playerId) {
+        // Reset every exploding cell at once
+        long keep = ~exploding;
+        atoms0 &= keep;
+        atoms1 &= keep;
+        atoms2 &= keep;
+        clicks0 &= keep;
+        clicks1 &= keep;
+        for (int p = 0; p < numPlayers; p++) {
+            owned[p] &= keep;
+        }
+
+        // Each exploding cell sends one atom in every direction that stays on the board
+        long east = (exploding & notLastCol) << 1;
+        long west = (exploding & notFirstCol) >>> 1;
+        addOneAtom(east);
+        addOneAtom(west);
+        long received = east | west;
+        if (rows > 1) {
+            long south = (exploding << cols) & boardMask;
+            long north = exploding >>> cols;
+            addOneAtom(south);
+            addOneAtom(north);
+            received |= south | north;
+        }
+
+        // Captured cells change colour and lose their click streak
+        long captured = received & ~owned[playerId];
+        clicks0 &= ~captured;
+        clicks1 &= ~captured;
+        for (int p = 0; p < numPlayers; p++) {
+            owned[p] &= ~received;
+        }
+        owned[playerId] |= received;
+    }
+
+    private void defuse(long cells) {
+        // Leave each cell one atom short of its capacity
+        atoms2 &= ~cells;
+        long three = cells & capacity4;
+        long two = cells & capacity3;
+        long one = cells & capacity2;
+        atoms1 = (atoms1 & ~cells) | three | two;
+        atoms0 = (atoms0 & ~cells) | three | one;
+        long emptied = cells & capacity1;
+        clicks0 &= ~emptied;
+        clicks1 &= ~emptied;
+        for (int p = 0; p < numPlayers; p++) {
+            owned[p] &= ~emptied;
+        }
+    }
+
+    private int playersWithAtoms() {
+        int players = 0;
+        for (int p = 0; p < numPlayers; p++) {
+            if (owned[p] != 0) {
+                players++;
+            }
+        }
+        return players;
+    }
+
+    private void addOneAtom(long cells) {
+        long carry0 = atoms0 & cells;
+        atoms0 ^= cells;
+        long carry1 = atoms1 & carry0;
+        atoms1 ^= carry0;
+        atoms2 |= carry1;
+    }
+
+    private void checkGameOver() {
+        int active = 0;
+        int lastActive = -1;
+        for (int p = 0; p < numPlayers; p++) {
+            if (owned[p] != 0) {
+                active++;
+                lastActive = p;
+            } else {
+                activePlayers &= ~(1 << p);
+            }
+        }
+        if (active <= 1) {
+            gameOver = true;
+            winnerId = lastActive;
+        }
+    }
+
+    private void nextTurn() {
+        int original = currentPlayer;
+        do {
+            currentPlayer = (currentPlayer + 1) % numPlayers;
+            if (currentPlayer == original) {
+                break;
+            }
+        } while ((activePlayers & (1 << currentPlayer)) == 0);
+    }
+
+    @Override
+    public int getPlayerAtomCount(int playerId) {
+        long mine = owned[playerId];
+        return Long.bitCount(atoms0 & mine) + 2 * Long.bitCount(atoms1 & mine) + 4 * Long.bitCount(atoms2 & mine);
+    }
+
+    @Override
+    public int getPlayerCellCount(int playerId) {
+        return Long.bitCount(owned[playerId]);
+    }
+
+    @Override
+    public int getOccupiedCount() {
+        return Long.bitCount(occupiedCells());
+    }
+
+    @Override
+    public int getOccupiedCell(int k) {
+        long cells = occupiedCells();
+        for (int i = 0; i < k; i++) {
+            cells &= cells - 1;
+        }
+        return Long.numberOfTrailingZeros(cells);
+    }
+
+    private long occupiedCells() {
+        long cells = 0;
+        for (int p = 0; p < numPlayers; p++) {
+            cells |= owned[p];
+        }
+        return cells;
+    }
+
+    public long getOwnedCells(int playerId) {
+        return owned[playerId];
+    }
+
+    public boolean isPlayerActive(int playerId) {
+        return (activePlayers & (1 << playerId)) != 0;
+    }
+
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    /**
+     * 64-bit hash of the position, computed from the bitplanes in constant
+     * time. It is not equal to the {@link Zobrist} hash of the same position.
+     */
+    public long getHash() {
+        long hash = Zobrist.turnKey(currentPlayer) ^ Zobrist.mix(activePlayers + PLANE_SEED);
+        hash ^= Zobrist.mix(atoms0 + PLANE_SEED * 2);
+        hash ^= Zobrist.mix(atoms1 + PLANE_SEED * 3);
+        hash ^= Zobrist.mix(atoms2 + PLANE_SEED * 4);
+        hash ^= Zobrist.mix(clicks0 + PLANE_SEED * 5);
+        hash ^= Zobrist.mix(clicks1 + PLANE_SEED * 6);
+        for (int p = 0; p < numPlayers; p++) {
+            hash ^= Zobrist.mix(owned[p] + PLANE_SEED * (7 + p));
+        }
+        return hash;
+    }
+
+    public int getLastWaveCount() {
+        return lastWaveCount;
+    }
+
+    public boolean isLastMoveSaturated() {
+        return lastMoveSaturated;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public int getCellCount() {
+        return rows * cols;
+    }
+
+    @Override
+    public int getAtomCount(int index) {
+        return (int) ((atoms0 >>> index) & 1) | (int) ((atoms1 >>> index) & 1) << 1 | (int) ((atoms2 >>> index) & 1) << 2;
+    }
+
+    @Override
+    public int getOwnerPlayerId(int index) {
+        long bit = 1L << index;
+        for (int p = 0; p < numPlayers; p++) {
+            if ((owned[p] & bit) != 0) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getMaxCapacity(int index) {
+        long bit = 1L << index;
+        if ((capacity4 & bit) != 0) return 4;
+        if ((capacity3 & bit) != 0) return 3;
+        if ((capacity2 & bit) != 0) return 2;
+        return 1;
+    }
+
+    @Override
+    public int getClickCount(int index) {
+        return (int) ((clicks0 >>> index) & 1) | (int) ((clicks1 >>> index) & 1) << 1;
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.chainreaction.engine;
+
+import java.util.Arrays;
+
+/**
+ * Grid state stored as flat primitive arrays indexed by
+ * {@code row * cols + col}. Capacities and neighbours come from a shared,
+ * immutable {@link BoardGeometry}, so a board only holds what changes during
+ * a game.
+ *
+ * <p>Per-player atom and cell totals are updated by every mutation, so
+ * elimination checks never have to scan the grid. The same goes for the
+ * {@link Zobrist} hash of the cells and for the list of occupied cells, which
+ * lets callers on large boards visit only the cells that hold atoms.
+ */
+public class Board implements BoardView {
+    public static final int MAX_PLAYERS = 4;
+
+    private final BoardGeometry geometry;
+    private final int rows;
+    private final int cols;
+    private final byte[] atomCounts;
+    private final byte[] owners;
+    private final byte[] capacities;
+    private final int[] clickCounts;
+    private final int[] playerAtoms;
+    private final int[] playerCells;
+    // Occupied cells in no particular order; occupiedSlots[i] is i's position in it, or -1
+    private final int[] occupied;
+    private final int[] occupiedSlots;
+    private int occupiedCount;
+    private long hash;
+
+    public Board(int rows, int cols) {
+        this(BoardGeometry.rectangle(rows, cols));
+    }
+
+    public Board(BoardGeometry geometry) {
+        this.geometry = geometry;
+        this.rows = geometry.getRows();
+        this.cols = geometry.getCols();
+        int cellCount = geometry.getCellCount();
+        this.atomCounts = new byte[cellCount];
+        this.owners = new byte[cellCount];
+        this.capacities = geometry.capacities;
+        this.clickCounts = new int[cellCount];
+        this.playerAtoms = new int[MAX_PLAYERS];
+        this.playerCells = new int[MAX_PLAYERS];
+        this.occupied = new int[cellCount];
+        this.occupiedSlots = new int[cellCount];
+        Arrays.fill(owners, (byte) -1);
+        Arrays.fill(occupiedSlots, -1);
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public int getCellCount() {
+        return atomCounts.length;
+    }
+
+    @Override
+    public int getAtomCount(int index) {
+        return atomCounts[index];
+    }
+
+    @Override
+    public int getOwnerPlayerId(int index) {
+        return owners[index];
+    }
+
+    @Override
+    public int getMaxCapacity(int index) {
+        return capacities[index];
+    }
+
+    @Override
+    public int getClickCount(int index) {
+        return clickCounts[index];
+    }
+
+    @Override
+    public int getPlayerAtomCount(int playerId) {
+        return playerAtoms[playerId];
+    }
+
+    @Override
+    public int getPlayerCellCount(int playerId) {
+        return playerCells[playerId];
+    }
+
+    @Override
+    public int getOccupiedCount() {
+        return occupiedCount;
+    }
+
+    @Override
+    public int getOccupiedCell(int k) {
+        return occupied[k];
+    }
+
+    private void markOccupied(int index) {
+        occupiedSlots[index] = occupiedCount;
+        occupied[occupiedCount++] = index;
+    }
+
+    private void markEmpty(int index) {
+        // Move the last occupied cell into the freed slot
+        int slot = occupiedSlots[index];
+        int last = occupied[--occupiedCount];
+        occupied[slot] = last;
+        occupiedSlots[last] = slot;
+        occupiedSlots[index] = -1;
+    }
+
+    /** XOR of the {@link Zobrist#cellKey} of every occupied cell. */
+    public long getHash() {
+        return hash;
+    }
+
+    private long cellKey(int index) {
+        int owner = owners[index];
+        return owner < 0 ? 0 : Zobrist.cellKey(index, owner, atomCounts[index], clickCounts[index]);
+    }
+
+    public boolean isInside(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public boolean isFull(int index) {
+        return atomCounts[index] >= capacities[index];
+    }
+
+    /** Returns the {@code k}-th neighbour of a cell, for {@code k < getMaxCapacity(index)}. */
+    public int getNeighbor(int index, int k) {
+        return geometry.getNeighbor(index, k);
+    }
+
+    /** Copies the cell state of a board with the same geometry. */
+    public void copyFrom(Board other) {
+        if (other.geometry != geometry) {
+            throw new IllegalArgumentException("Cannot copy a board of a different shape");
+        }
+        System.arraycopy(other.atomCounts, 0, atomCounts, 0, atomCounts.length);
+        System.arraycopy(other.owners, 0, owners, 0, owners.length);
+        System.arraycopy(other.clickCounts, 0, clickCounts, 0, clickCounts.length);
+        System.arraycopy(other.playerAtoms, 0, playerAtoms, 0, MAX_PLAYERS);
+        System.arraycopy(other.playerCells, 0, playerCells, 0, MAX_PLAYERS);
+        System.arraycopy(other.occupied, 0, occupied, 0, other.occupiedCount);
+        System.arraycopy(other.occupiedSlots, 0, occupiedSlots, 0, occupiedSlots.length);
+        occupiedCount = other.occupiedCount;
+        hash = other.hash;
+    }
+
+    void clear() {
+        Arrays.fill(atomCounts, (byte) 0);
+        Arrays.fill(owners, (byte) -1);
+        Arrays.fill(clickCounts, 0);
+        Arrays.fill(playerAtoms, 0);
+        Arrays.fill(playerCells, 0);
+        for (int k = 0; k < occupiedCount; k++) {
+            occupiedSlots[occupied[k]] = -1;
+        }
+        occupiedCount = 0;
+        hash = 0;
+    }
+
+    void addAtom(int index, int playerId) {
+        hash ^= cellKey(index);
+        if (atomCounts[index] == 0) {
+            owners[index] = (byte) playerId;
+            playerCells[playerId]++;
+            markOccupied(index);
+        }
+        atomCounts[index]++;
+        playerAtoms[owners[index]]++;
+        hash ^= cellKey(index);
+    }
+
+    void capture(int index, int playerId) {
+        // An explosion converts the neighbour to the exploding player's colour
+        hash ^= cellKey(index);
+        int owner = owners[index];
+        if (owner != playerId) {
+            if (owner >= 0) {
+                playerCells[owner]--;
+                playerAtoms[owner] -= atomCounts[index];
+            } else {
+                markOccupied(index);
+            }
+            owners[index] = (byte) playerId;
+            clickCounts[index] = 0;
+            playerCells[playerId]++;
+            playerAtoms[playerId] += atomCounts[index];
+        }
+        atomCounts[index]++;
+        playerAtoms[playerId]++;
+        hash ^= cellKey(index);
+    }
+
+    void reset(int index) {
+        hash ^= cellKey(index);
+        int owner = owners[index];
+        if (owner >= 0) {
+            playerCells[owner]--;
+            playerAtoms[owner] -= atomCounts[index];
+            markEmpty(index);
+        }
+        atomCounts[index] = 0;
+        owners[index] = -1;
+        clickCounts[index] = 0;
+    }
+
+    int incrementClickCount(int index) {
+        hash ^= cellKey(index);
+        int clicks = ++clickCounts[index];
+        hash ^= cellKey(index);
+        return clicks;
+    }
+
+    void resetClickCount(int index) {
+        hash ^= cellKey(index);
+        clickCounts[index] = 0;
+        hash ^= cellKey(index);
+    }
+
+    void setClickCount(int index, int clicks) {
+        hash ^= cellKey(index);
+        clickCounts[index] = clicks;
+        hash ^= cellKey(index);
+    }
+
+    void setCell(int index, int ownerPlayerId, int atomCount) {
+        int clickCount = clickCounts[index];
+        reset(index);
+        if (ownerPlayerId >= 0 && atomCount > 0) {
+            owners[index] = (byte) ownerPlayerId;
+            atomCounts[index] = (byte) atomCount;
+            playerCells[ownerPlayerId]++;
+            playerAtoms[ownerPlayerId] += atomCount;
+            clickCounts[index] = clickCount;
+            markOccupied(index);
+            hash ^= cellKey(index);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.chainreaction.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable shape of a board: which cells neighbour which, and from that each
+ * cell's capacity. Neighbours are stored CSR-style, so the neighbours of cell
+ * {@code i} are {@code neighbors[neighborStart[i]]} up to
+ * {@code neighbors[neighborStart[i + 1] - 1]} and the capacity of a cell is
+ * its neighbour count.
+ *
+ * <p>Geometries are cached per shape and size, so every game, search and
+ * simulation of the same dimensions shares one instance. The propagation
+ * loop only ever walks the neighbour list, so a new board variant needs
+ * nothing more than a new factory here.
+ */
+public final class BoardGeometry {
+    private static final ConcurrentMap<String, BoardGeometry> CACHE = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final boolean wrapping;
+    final byte[] capacities;
+    final int[] neighborStart;
+    final int[] neighbors;
+
+    private BoardGeometry(int rows, int cols, boolean wrapping) {
+        this.rows = rows;
+        this.cols = cols;
+        this.wrapping = wrapping;
+        int cellCount = rows * cols;
+        this.capacities = new byte[cellCount];
+        this.neighborStart = new int[cellCount + 1];
+        int[] scratch = new int[cellCount * 4];
+        int count = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int index = i * cols + j;
+                neighborStart[index] = count;
+                if (wrapping) {
+                    scratch[count++] = ((i + rows - 1) % rows) * cols + j;
+                    scratch[count++] = ((i + 1) % rows) * cols + j;
+                    scratch[count++] = i * cols + (j + cols - 1) % cols;
+                    scratch[count++] = i * cols + (j + 1) % cols;
+                } else {
+                    if (i > 0) scratch[count++] = index - cols;
+                    if (i < rows - 1) scratch[count++] = index + cols;
+                    if (j > 0) scratch[count++] = index - 1;
+                    if (j < cols - 1) scratch[count++] = index + 1;
+                }
+                capacities[index] = (byte) (count - neighborStart[index]);
+            }
+        }
+        neighborStart[cellCount] = count;
+        this.neighbors = count == scratch.length ? scratch : Arrays.copyOf(scratch, count);
+    }
+
+    /** The classic board: orthogonal neighbours, so corners hold 2, edges 3 and interior cells 4 atoms. */
+    public static BoardGeometry rectangle(int rows, int cols) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Board must be at least 1x1, got " + rows + "x" + cols);
+        }
+        return CACHE.computeIfAbsent("rect:" + rows + "x" + cols, key -> new BoardGeometry(rows, cols, false));
+    }
+
+    /** Opposite edges are joined, so every cell has four neighbours and a capacity of 4. */
+    public static BoardGeometry torus(int rows, int cols) {
+        if (rows < 3 || cols < 3) {
+            throw new IllegalArgumentException("A torus needs at least 3x3 cells, got " + rows + "x" + cols);
+        }
+        return CACHE.computeIfAbsent("torus:" + rows + "x" + cols, key -> new BoardGeometry(rows, cols, true));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getCellCount() {
+        return capacities.length;
+    }
+
+    public boolean isWrapping() {
+        return wrapping;
+    }
+
+    public int getCapacity(int index) {
+        return capacities[index];
+    }
+
+    /** Returns the {@code k}-th neighbour of a cell, for {@code k < getCapacity(index)}. */
+    public int getNeighbor(int index, int k) {
+        return neighbors[neighborStart[index] + k];
+    }
+}
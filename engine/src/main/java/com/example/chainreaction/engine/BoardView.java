@@ -0,0 +1,66 @@
+package com.example.chainreaction.engine;
+
+/**
+ * Read-only view of a board. Cells are addressed by index
+ * {@code row * cols + col} so callers can walk the board without
+ * materialising per-cell objects.
+ */
+public interface BoardView {
+    int getRows();
+
+    int getCols();
+
+    int getCellCount();
+
+    int getAtomCount(int index);
+
+    /** Returns the owning player id, or -1 for an empty cell. */
+    int getOwnerPlayerId(int index);
+
+    int getMaxCapacity(int index);
+
+    int getClickCount(int index);
+
+    /** Total atoms currently owned by a player, maintained incrementally. */
+    int getPlayerAtomCount(int playerId);
+
+    /** Number of cells currently owned by a player, maintained incrementally. */
+    int getPlayerCellCount(int playerId);
+
+    /**
+     * Number of cells that hold atoms. Together with {@link #getOccupiedCell}
+     * this lets callers visit only occupied cells; the default scans the board.
+     */
+    default int getOccupiedCount() {
+        int count = 0;
+        for (int i = 0; i < getCellCount(); i++) {
+            if (getOwnerPlayerId(i) >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Returns the {@code k}-th occupied cell, in no particular order. */
+    default int getOccupiedCell(int k) {
+        int remaining = k;
+        for (int i = 0; i < getCellCount(); i++) {
+            if (getOwnerPlayerId(i) >= 0 && remaining-- == 0) {
+                return i;
+            }
+        }
+        throw new IndexOutOfBoundsException("Occupied cell " + k);
+    }
+
+    default int indexOf(int row, int col) {
+        return row * getCols() + col;
+    }
+
+    default int rowOf(int index) {
+        return index / getCols();
+    }
+
+    default int colOf(int index) {
+        return index % getCols();
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.chainreaction.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Resolves a chain reaction to a fixed point in a single call. The board is
+ * left in its final state and the explosions are returned wave by wave so a
+ * UI can animate them afterwards.
+ *
+ * <p>Every cell that is critical at the start of a wave explodes in that wave.
+ * A cell pushed over capacity by several neighbours is queued once, using a
+ * bitset that is reused across moves. The pending wave is kept in a reusable
+ * index array and exploded cells are appended to a reusable
+ * {@link ExplosionLog}, so resolving a move does not allocate.
+ *
+ * <p>Propagation stops as soon as only one player has atoms left, since the
+ * game is decided. A wave and explosion budget bounds the work of any single
+ * move. The budget is checked between waves, so a wave is never split and the
+ * explosion count may overshoot by at most one wave. A chain cut short by the
+ * budget is reported as saturated and its remaining critical cells are
+ * defused to one atom below capacity, so no cell is ever left critical
+ * between moves.
+ *
+ * <p>{@link #resolve(int, boolean)} can also record the cells each wave
+ * changed, for playback; a per-cell stamp keeps each cell to one entry per
+ * wave. Search and simulation leave it off and pay nothing for it.
+ */
+public class ChainReactionResolver {
+    public static final int DEFAULT_WAVES_PER_CELL = 4;
+    public static final int DEFAULT_EXPLOSIONS_PER_CELL = 16;
+
+    private final Board board;
+    private final int[] neighborStart;
+    private final int[] neighbors;
+    private final BitSet queued;
+    private final ExplosionLog log;
+    private int[] currentWave;
+    private int[] nextWave;
+    private int nextWaveSize;
+    private int maxWaves;
+    private int maxExplosions;
+    private boolean saturated;
+    private boolean recording;
+    // touched[i] == stamp when cell i is already in the current wave's changes
+    private final int[] touched;
+    private int stamp;
+
+    public ChainReactionResolver(Board board) {
+        this.board = board;
+        this.neighborStart = board.getGeometry().neighborStart;
+        this.neighbors = board.getGeometry().neighbors;
+        this.queued = new BitSet(board.getCellCount());
+        this.log = new ExplosionLog(board.getCellCount());
+        this.currentWave = new int[board.getCellCount()];
+        this.nextWave = new int[board.getCellCount()];
+        this.touched = new int[board.getCellCount()];
+        this.maxWaves = board.getCellCount() * DEFAULT_WAVES_PER_CELL;
+        this.maxExplosions = board.getCellCount() * DEFAULT_EXPLOSIONS_PER_CELL;
+    }
+
+    public void setBudget(int maxWaves, int maxExplosions) {
+        if (maxWaves < 1 || maxExplosions < 1) {
+            throw new IllegalArgumentException("Budget must allow at least one explosion");
+        }
+        this.maxWaves = maxWaves;
+        this.maxExplosions = maxExplosions;
+    }
+
+    public int getMaxWaves() {
+        return maxWaves;
+    }
+
+    public int getMaxExplosions() {
+        return maxExplosions;
+    }
+
+    /** Returns true if the last call to {@link #resolve} ran out of budget before reaching a fixed point. */
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    /** Returns the explosions of the last call to {@link #resolve}. */
+    public ExplosionLog getLog() {
+        return log;
+    }
+
+    /** Resolves the chain reaction started at {@code cell} and returns the number of waves. */
+    public int resolve(int cell) {
+        return resolve(cell, false);
+    }
+
+    /** As {@link #resolve(int)}, also logging the cells each wave changed if {@code recordChanges} is set. */
+    public int resolve(int cell, boolean recordChanges) {
+        recording = recordChanges;
+        saturated = false;
+        log.clear();
+        if (!board.isFull(cell)) {
+            return 0;
+        }
+
+        // Every cell in a chain is captured by the moving player, so they all explode in that colour
+        int playerId = board.getOwnerPlayerId(cell);
+        enqueue(cell);
+        while (nextWaveSize > 0) {
+            if (log.getWaveCount() >= maxWaves || log.getExplosionCount() >= maxExplosions) {
+                saturated = true;
+                defusePending();
+                break;
+            }
+
+            int[] wave = nextWave;
+            int waveSize = nextWaveSize;
+            nextWave = currentWave;
+            nextWaveSize = 0;
+            currentWave = wave;
+
+            if (recording) {
+                if (log.getWaveCount() > 0) {
+                    log.finishWave(board);
+                }
+                if (++stamp == 0) {
+                    Arrays.fill(touched, 0);
+                    stamp = 1;
+                }
+            }
+
+            // All cells of a wave explode together, so spill only after every one of them was reset
+            log.startWave();
+            for (int n = 0; n < waveSize; n++) {
+                queued.clear(wave[n]);
+                touch(wave[n]);
+                board.reset(wave[n]);
+                log.add(wave[n]);
+            }
+            for (int n = 0; n < waveSize; n++) {
+                spill(wave[n], playerId);
+            }
+
+            if (playersWithAtoms() <= 1) {
+                break;
+            }
+        }
+        clearPending();
+        // After defusing, so the last wave ends on the board the move leaves
+        if (recording && log.getWaveCount() > 0) {
+            log.finishWave(board);
+        }
+        return log.getWaveCount();
+    }
+
+    private void touch(int cell) {
+        if (recording && touched[cell] != stamp) {
+            touched[cell] = stamp;
+            log.addChange(cell, ExplosionLog.packState(board.getOwnerPlayerId(cell), board.getAtomCount(cell)));
+        }
+    }
+
+    private void enqueue(int cell) {
+        if (!queued.get(cell)) {
+            queued.set(cell);
+            nextWave[nextWaveSize++] = cell;
+        }
+    }
+
+    private void defusePending() {
+        for (int n = 0; n < nextWaveSize; n++) {
+            int cell = nextWave[n];
+            board.setCell(cell, board.getOwnerPlayerId(cell), board.getMaxCapacity(cell) - 1);
+        }
+    }
+
+    private void clearPending() {
+        for (int n = 0; n < nextWaveSize; n++) {
+            queued.clear(nextWave[n]);
+        }
+        nextWaveSize = 0;
+    }
+
+    private int playersWithAtoms() {
+        int players = 0;
+        for (int p = 0; p < Board.MAX_PLAYERS; p++) {
+            if (board.getPlayerAtomCount(p) > 0) {
+                players++;
+            }
+        }
+        return players;
+    }
+
+    private void spill(int cell, int playerId) {
+        // Distribute atoms to neighbors and change their ownership
+        for (int k = neighborStart[cell], end = neighborStart[cell + 1]; k < end; k++) {
+            int neighbor = neighbors[k];
+            touch(neighbor);
+            board.capture(neighbor, playerId);
+            if (board.isFull(neighbor)) {
+                enqueue(neighbor);
+            }
+        }
+    }
+}
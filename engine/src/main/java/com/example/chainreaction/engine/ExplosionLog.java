@@ -0,0 +1,124 @@
+package com.example.chainreaction.engine;
+
+import java.util.Arrays;
+
+/**
+ * Reusable record of the explosions of the last resolved move, stored as one
+ * flat array of cell indices plus the offset at which each wave starts. The
+ * arrays only grow when a chain is longer than any seen before, so resolving
+ * moves does not allocate in steady state. The contents are overwritten by
+ * the next move.
+ *
+ * <p>When the resolver is asked to record changes, every wave also lists the
+ * cells it changed with their state before and after it, so the chain can be
+ * shown step by step instead of over the final board. A state is packed as
+ * {@code (owner + 1) << 8 | atoms}.
+ */
+public final class ExplosionLog {
+    private int[] cells;
+    private int[] waveStarts;
+    private int waveCount;
+    private int explosionCount;
+    // Cells changed by each wave, indexed like cells by changeStarts; empty unless changes are recorded
+    private int[] changedCells;
+    private int[] before;
+    private int[] after;
+    private int[] changeStarts;
+    private int changeCount;
+
+    ExplosionLog(int initialCapacity) {
+        this.cells = new int[Math.max(initialCapacity, 1)];
+        this.waveStarts = new int[Math.max(initialCapacity, 1) + 1];
+        this.changedCells = new int[Math.max(initialCapacity, 1)];
+        this.before = new int[changedCells.length];
+        this.after = new int[changedCells.length];
+        this.changeStarts = new int[waveStarts.length];
+    }
+
+    static int packState(int owner, int atoms) {
+        return (owner + 1) << 8 | atoms;
+    }
+
+    static int ownerOf(int state) {
+        return (state >>> 8) - 1;
+    }
+
+    static int atomsOf(int state) {
+        return state & 0xFF;
+    }
+
+    void clear() {
+        waveCount = 0;
+        explosionCount = 0;
+        changeCount = 0;
+    }
+
+    void startWave() {
+        if (waveCount + 1 >= waveStarts.length) {
+            waveStarts = Arrays.copyOf(waveStarts, waveStarts.length * 2);
+            changeStarts = Arrays.copyOf(changeStarts, waveStarts.length);
+        }
+        changeStarts[waveCount] = changeCount;
+        waveStarts[waveCount++] = explosionCount;
+        waveStarts[waveCount] = explosionCount;
+        changeStarts[waveCount] = changeCount;
+    }
+
+    /** Notes the state of {@code cell} before the current wave first touches it. */
+    void addChange(int cell, int state) {
+        if (changeCount == changedCells.length) {
+            int capacity = changeCount * 2;
+            changedCells = Arrays.copyOf(changedCells, capacity);
+            before = Arrays.copyOf(before, capacity);
+            after = Arrays.copyOf(after, capacity);
+        }
+        changedCells[changeCount] = cell;
+        before[changeCount++] = state;
+        changeStarts[waveCount] = changeCount;
+    }
+
+    /** Takes the state after the current wave of every cell it changed from {@code board}. */
+    void finishWave(Board board) {
+        for (int i = changeStarts[waveCount - 1]; i < changeCount; i++) {
+            int cell = changedCells[i];
+            after[i] = packState(board.getOwnerPlayerId(cell), board.getAtomCount(cell));
+        }
+    }
+
+    void add(int cell) {
+        if (explosionCount == cells.length) {
+            cells = Arrays.copyOf(cells, cells.length * 2);
+        }
+        cells[explosionCount++] = cell;
+        waveStarts[waveCount] = explosionCount;
+    }
+
+    public int getWaveCount() {
+        return waveCount;
+    }
+
+    public int getExplosionCount() {
+        return explosionCount;
+    }
+
+    public int getWaveSize(int wave) {
+        return waveStarts[wave + 1] - waveStarts[wave];
+    }
+
+    public int getCell(int wave, int i) {
+        return cells[waveStarts[wave] + i];
+    }
+
+    /** Number of cells {@code wave} changed, or 0 if changes were not recorded. */
+    public int getChangeCount(int wave) {
+        return changeStarts[wave + 1] - changeStarts[wave];
+    }
+
+    ExplosionWave toWave(int wave, int cols) {
+        int from = changeStarts[wave];
+        int to = changeStarts[wave + 1];
+        return new ExplosionWave(wave, cols, Arrays.copyOfRange(cells, waveStarts[wave], waveStarts[wave + 1]),
+                Arrays.copyOfRange(changedCells, from, to), Arrays.copyOfRange(before, from, to),
+                Arrays.copyOfRange(after, from, to));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.chainreaction.engine;
+
+/**
+ * Cells that exploded during one step of a chain reaction. Wave {@code n + 1}
+ * contains the cells that became critical because of wave {@code n}. Cells are
+ * stored as board indices ({@code row * cols + col}).
+ *
+ * <p>A wave from {@link GameEngine#placeAtom} also knows every cell it changed
+ * and what that cell held before and after, so playback can walk a copy of
+ * the board through the chain: {@link #revert} the waves still to be shown,
+ * newest first, from the final board, then {@link #applyTo} each as it plays.
+ */
+public class ExplosionWave {
+    private static final int[] NONE = new int[0];
+
+    private final int index;
+    private final int cols;
+    private final int[] cells;
+    private final int size;
+    private final int[] changedCells;
+    private final int[] before;
+    private final int[] after;
+
+    ExplosionWave(int index, int cols, int[] cells) {
+        this(index, cols, cells, NONE, NONE, NONE);
+    }
+
+    ExplosionWave(int index, int cols, int[] cells, int[] changedCells, int[] before, int[] after) {
+        this.index = index;
+        this.cols = cols;
+        this.cells = cells;
+        this.size = cells.length;
+        this.changedCells = changedCells;
+        this.before = before;
+        this.after = after;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    public int getRow(int i) {
+        return cells[i] / cols;
+    }
+
+    public int getCol(int i) {
+        return cells[i] % cols;
+    }
+
+    /** Whether the wave knows the cells it changed; waves restored from old snapshots do not. */
+    public boolean hasChanges() {
+        return changedCells.length > 0;
+    }
+
+    public int getChangeCount() {
+        return changedCells.length;
+    }
+
+    public int getChangedCell(int i) {
+        return changedCells[i];
+    }
+
+    /** Owner of changed cell {@code i} after the wave, or -1 if it was left empty. */
+    public int getOwnerAfter(int i) {
+        return ExplosionLog.ownerOf(after[i]);
+    }
+
+    public int getAtomsAfter(int i) {
+        return ExplosionLog.atomsOf(after[i]);
+    }
+
+    public int getOwnerBefore(int i) {
+        return ExplosionLog.ownerOf(before[i]);
+    }
+
+    public int getAtomsBefore(int i) {
+        return ExplosionLog.atomsOf(before[i]);
+    }
+
+    /** Moves {@code board} from the state before this wave to the state after it. */
+    public void applyTo(Board board) {
+        for (int i = 0; i < changedCells.length; i++) {
+            board.setCell(changedCells[i], getOwnerAfter(i), getAtomsAfter(i));
+        }
+    }
+
+    /** Moves {@code board} from the state after this wave back to the state before it. */
+    public void revert(Board board) {
+        for (int i = changedCells.length - 1; i >= 0; i--) {
+            board.setCell(changedCells[i], getOwnerBefore(i), getAtomsBefore(i));
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.chainreaction.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only store of finished games. Each game's {@link ReplayWriter} log
+ * is appended to a data file, and a fixed-width entry describing it is
+ * appended to an index file. Both files are memory-mapped, so opening the
+ * archive reads nothing but the index header. Listing and filtering touch
+ * only the 48-byte index entries, and loading a replay touches only that
+ * game's bytes.
+ *
+ * <p>Index entry layout, little-endian:
+ * <pre>
+ *  0  long  game id (1, 2, 3, ...)
+ *  8  long  timestamp, ms since the epoch
+ * 16  long  offset of the replay in the data file
+ * 24  int   replay length in bytes
+ * 28  byte  winner id, or -1
+ * 29  byte  player count
+ * 30  short move count, saturated at 65535
+ * 32  int[4] {@link String#hashCode()} of each player name
+ * </pre>
+ *
+ * <p>A game is committed by bumping the entry count in the index header
+ * after its replay and entry are written. If the process dies first, the
+ * half-appended game is simply not there on the next open and its bytes are
+ * overwritten by the next append. {@link #flush()} additionally forces both
+ * files to storage.
+ *
+ * <p>Not thread-safe; use an archive from one thread at a time.
+ */
+public final class GameArchive implements Closeable {
+    public static final String INDEX_FILE = "games.idx";
+    public static final String DATA_FILE = "games.dat";
+
+    static final int MAGIC = 0x43524149;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 48;
+    private static final int COUNT_OFFSET = 8;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int ID = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int OFFSET = 16;
+    private static final int LENGTH = 24;
+    private static final int WINNER = 28;
+    private static final int PLAYERS = 29;
+    private static final int MOVES = 30;
+    private static final int NAME_HASHES = 32;
+
+    private final FileChannel indexChannel;
+    private final FileChannel dataChannel;
+    private MappedByteBuffer index;
+    private MappedByteBuffer data;
+    private int count;
+    private long dataEnd;
+
+    private GameArchive(FileChannel indexChannel, FileChannel dataChannel) {
+        this.indexChannel = indexChannel;
+        this.dataChannel = dataChannel;
+    }
+
+    /** Opens the archive in {@code directory}, creating it if needed. */
+    public static GameArchive open(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        FileChannel indexChannel = FileChannel.open(new File(directory, INDEX_FILE).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel dataChannel = null;
+        try {
+            dataChannel = FileChannel.open(new File(directory, DATA_FILE).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            GameArchive archive = new GameArchive(indexChannel, dataChannel);
+            archive.load();
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            indexChannel.close();
+            if (dataChannel != null) {
+                dataChannel.close();
+            }
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        long size = indexChannel.size();
+        if (size == 0) {
+            mapIndex(INITIAL_CAPACITY);
+            index.putInt(0, MAGIC);
+            index.putInt(4, VERSION);
+            index.putInt(COUNT_OFFSET, 0);
+            return;
+        }
+        if (size < HEADER_BYTES) {
+            throw new IOException("Truncated archive index");
+        }
+        mapIndex((int) ((size - HEADER_BYTES) / ENTRY_BYTES));
+        if (index.getInt(0) != MAGIC) {
+            throw new IOException("Not a game archive");
+        }
+        int version = index.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported archive version " + version);
+        }
+        count = index.getInt(COUNT_OFFSET);
+        if (count < 0 || HEADER_BYTES + (long) count * ENTRY_BYTES > size) {
+            throw new IOException("Corrupt archive index");
+        }
+        if (count > 0) {
+            int last = entry(count - 1);
+            dataEnd = index.getLong(last + OFFSET) + index.getInt(last + LENGTH);
+            if (dataEnd > dataChannel.size()) {
+                throw new IOException("Archive data is shorter than its index");
+            }
+        }
+    }
+
+    private void mapIndex(int capacity) throws IOException {
+        // Mapping past the end grows the file; the entry count says how much of it is used
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * ENTRY_BYTES);
+        index.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int capacity() {
+        return (index.capacity() - HEADER_BYTES) / ENTRY_BYTES;
+    }
+
+    private static int entry(int i) {
+        return HEADER_BYTES + i * ENTRY_BYTES;
+    }
+
+    /**
+     * Appends a finished game and returns its id. {@code replay} must be a
+     * complete {@link ReplayWriter} log; it is parsed once to fill in the
+     * player names and move count.
+     */
+    public long append(long timestamp, int winnerId, byte[] replay) throws IOException {
+        ReplayReader reader = new ReplayReader(new ByteArrayInputStream(replay));
+        List<String> names = reader.getPlayerNames();
+
+        ByteBuffer source = ByteBuffer.wrap(replay);
+        long position = dataEnd;
+        while (source.hasRemaining()) {
+            position += dataChannel.write(source, position);
+        }
+
+        if (count == capacity()) {
+            mapIndex(Math.max(INITIAL_CAPACITY, capacity() * 2));
+        }
+        long id = count == 0 ? 1 : index.getLong(entry(count - 1) + ID) + 1;
+        int e = entry(count);
+        index.putLong(e + ID, id);
+        index.putLong(e + TIMESTAMP, timestamp);
+        index.putLong(e + OFFSET, dataEnd);
+        index.putInt(e + LENGTH, replay.length);
+        index.put(e + WINNER, (byte) winnerId);
+        index.put(e + PLAYERS, (byte) names.size());
+        index.putShort(e + MOVES, (short) Math.min(reader.getMoveCount(), 0xFFFF));
+        for (int p = 0; p < Board.MAX_PLAYERS; p++) {
+            index.putInt(e + NAME_HASHES + p * 4, p < names.size() ? names.get(p).hashCode() : 0);
+        }
+        dataEnd = position;
+        index.putInt(COUNT_OFFSET, ++count);
+        return id;
+    }
+
+    /** Forces appended games to storage. */
+    public void flush() throws IOException {
+        dataChannel.force(false);
+        index.force();
+    }
+
+    /** Number of games, oldest first. */
+    public int size() {
+        return count;
+    }
+
+    public long getGameId(int i) {
+        return index.getLong(checkedEntry(i) + ID);
+    }
+
+    public long getTimestamp(int i) {
+        return index.getLong(checkedEntry(i) + TIMESTAMP);
+    }
+
+    public int getWinnerId(int i) {
+        return index.get(checkedEntry(i) + WINNER);
+    }
+
+    public int getPlayerCount(int i) {
+        return index.get(checkedEntry(i) + PLAYERS);
+    }
+
+    public int getMoveCount(int i) {
+        return index.getShort(checkedEntry(i) + MOVES) & 0xFFFF;
+    }
+
+    /** Length in bytes of game {@code i}'s replay. */
+    public int getLength(int i) {
+        return index.getInt(checkedEntry(i) + LENGTH);
+    }
+
+    private int checkedEntry(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Game " + i + " of " + count);
+        }
+        return entry(i);
+    }
+
+    /** Positions of the games won by {@code winnerId}, oldest first. */
+    public int[] findByWinner(int winnerId) {
+        int[] found = new int[16];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (index.get(entry(i) + WINNER) == winnerId) {
+                if (n == found.length) {
+                    found = Arrays.copyOf(found, n * 2);
+                }
+                found[n++] = i;
+            }
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    /**
+     * Positions of the games in which a player called {@code name} took
+     * part, oldest first. Names are matched by hash in the index; only games
+     * with a matching hash have their replay header read to confirm, and
+     * none of their moves are decoded.
+     */
+    public int[] findByPlayer(String name) throws IOException {
+        int hash = name.hashCode();
+        int[] found = new int[16];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            int e = entry(i);
+            int players = index.get(e + PLAYERS);
+            for (int p = 0; p < players; p++) {
+                if (index.getInt(e + NAME_HASHES + p * 4) == hash && readPlayerNames(i).contains(name)) {
+                    if (n == found.length) {
+                        found = Arrays.copyOf(found, n * 2);
+                    }
+                    found[n++] = i;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    /** Read-only view of game {@code i}'s replay bytes in the mapped data file. */
+    public ByteBuffer getReplayBytes(int i) throws IOException {
+        int e = checkedEntry(i);
+        long offset = index.getLong(e + OFFSET);
+        int length = index.getInt(e + LENGTH);
+        if (data == null || data.capacity() < dataEnd) {
+            data = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, dataEnd);
+        }
+        ByteBuffer slice = data.duplicate();
+        slice.position((int) offset).limit((int) (offset + length));
+        return slice.slice();
+    }
+
+    private List<String> readPlayerNames(int i) throws IOException {
+        return ReplayReader.readPlayerNames(new BufferInputStream(getReplayBytes(i)));
+    }
+
+    public ReplayReader openReplay(int i) throws IOException {
+        return new ReplayReader(new BufferInputStream(getReplayBytes(i)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            indexChannel.close();
+        } finally {
+            dataChannel.close();
+        }
+        index = null;
+        data = null;
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.chainreaction.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Platform-independent Chain Reaction rules. Every call to {@link #placeAtom}
+ * resolves the whole chain reaction synchronously, so the engine can run in
+ * unit tests or on a server; animating the returned waves is left to the caller.
+ */
+public class GameEngine {
+    private static final int[] PLAYER_COLORS = {
+            0xFFFF0000, // Red
+            0xFF00FF00, // Green
+            0xFF0000FF, // Blue
+            0xFFFFA500  // Yellow
+    };
+
+    private final Board board;
+    private final List<Player> players;
+    private final ChainReactionResolver resolver;
+    private int currentPlayerIndex;
+    private boolean gameOver;
+    private int winnerId;
+    private int lastEliminatedMask;
+
+    public GameEngine(int rows, int cols, int numPlayers, List<String> playerNames) {
+        this(BoardGeometry.rectangle(rows, cols), numPlayers, playerNames);
+    }
+
+    public GameEngine(BoardGeometry geometry, int numPlayers, List<String> playerNames) {
+        if (numPlayers < 2 || numPlayers > PLAYER_COLORS.length) {
+            throw new IllegalArgumentException("Unsupported number of players: " + numPlayers);
+        }
+        this.board = new Board(geometry);
+        this.players = new ArrayList<>();
+        this.resolver = new ChainReactionResolver(board);
+        this.currentPlayerIndex = 0;
+        this.gameOver = false;
+        this.winnerId = -1;
+        initializePlayers(numPlayers, playerNames != null ? playerNames : Collections.<String>emptyList());
+    }
+
+    private void initializePlayers(int numPlayers, List<String> playerNames) {
+        for (int i = 0; i < numPlayers; i++) {
+            String name = i < playerNames.size() ? playerNames.get(i) : "Player " + (i + 1);
+            players.add(new Player(i, PLAYER_COLORS[i], name));
+        }
+    }
+
+    /** Caps the work a single move may do; see {@link ChainReactionResolver}. */
+    public void setExplosionBudget(int maxWaves, int maxExplosions) {
+        resolver.setBudget(maxWaves, maxExplosions);
+    }
+
+    public boolean isLegalMove(int row, int col) {
+        if (gameOver || !board.isInside(row, col)) {
+            return false;
+        }
+        // Can only place on empty cell or own cell
+        int owner = board.getOwnerPlayerId(board.indexOf(row, col));
+        return owner == -1 || owner == players.get(currentPlayerIndex).getId();
+    }
+
+    /**
+     * Places atoms for the current player and resolves any resulting chain
+     * reaction. Returns {@code null} if the move is not legal.
+     */
+    public MoveResult placeAtom(int row, int col) {
+        if (!isLegalMove(row, col)) {
+            return null;
+        }
+
+        int playerId = players.get(currentPlayerIndex).getId();
+        int waveCount = play(board.indexOf(row, col), true);
+
+        ExplosionLog log = resolver.getLog();
+        List<ExplosionWave> waves = new ArrayList<>(waveCount);
+        for (int w = 0; w < waveCount; w++) {
+            waves.add(log.toWave(w, board.getCols()));
+        }
+        List<Integer> eliminated = new ArrayList<>();
+        for (int p = 0; p < players.size(); p++) {
+            if ((lastEliminatedMask & (1 << p)) != 0) {
+                eliminated.add(p);
+            }
+        }
+        return new MoveResult(row, col, playerId, waves, eliminated, gameOver, winnerId, resolver.isSaturated());
+    }
+
+    /**
+     * Allocation-free variant of {@link #placeAtom} for simulation and search.
+     * Returns the number of explosion waves, or -1 if the move is not legal.
+     * The exploded cells are available from {@link #getLastExplosions()}.
+     */
+    public int play(int cell) {
+        return play(cell, false);
+    }
+
+    private int play(int cell, boolean recordChanges) {
+        if (cell < 0 || cell >= board.getCellCount() || !isLegalMove(board.rowOf(cell), board.colOf(cell))) {
+            return -1;
+        }
+
+        int playerId = players.get(currentPlayerIndex).getId();
+
+        // If it's a new cell or different player, reset click count
+        if (board.getOwnerPlayerId(cell) != playerId) {
+            board.resetClickCount(cell);
+        }
+
+        int atomsToAdd = board.incrementClickCount(cell);
+
+        // Add atoms based on click count
+        for (int i = 0; i < atomsToAdd; i++) {
+            board.addAtom(cell, playerId);
+        }
+
+        int waveCount = resolver.resolve(cell, recordChanges);
+        lastEliminatedMask = 0;
+        if (waveCount > 0) {
+            checkGameOver();
+        }
+        if (!gameOver) {
+            nextTurn();
+        }
+        return waveCount;
+    }
+
+    /** Returns the explosions of the last move. Overwritten by the next move. */
+    public ExplosionLog getLastExplosions() {
+        return resolver.getLog();
+    }
+
+    /** Returns whether the last move's chain reaction was cut short by the explosion budget. */
+    public boolean isLastMoveSaturated() {
+        return resolver.isSaturated();
+    }
+
+    /** Bit {@code p} is set if player {@code p} was eliminated by the last move. */
+    public int getLastEliminatedMask() {
+        return lastEliminatedMask;
+    }
+
+    /** Copies the position of a game on the same geometry with the same number of players. */
+    public void copyFrom(GameEngine other) {
+        if (other.players.size() != players.size()) {
+            throw new IllegalArgumentException("Cannot copy a game with a different number of players");
+        }
+        board.copyFrom(other.board);
+        for (int p = 0; p < players.size(); p++) {
+            players.get(p).setActive(other.players.get(p).isActive());
+        }
+        currentPlayerIndex = other.currentPlayerIndex;
+        gameOver = other.gameOver;
+        winnerId = other.winnerId;
+        lastEliminatedMask = other.lastEliminatedMask;
+    }
+
+    /** Sets the turn state of a game whose cells have been restored; see {@link GameSnapshot}. */
+    void restoreTurn(int currentPlayerIndex, int activeMask, boolean gameOver, int winnerId, int lastEliminatedMask) {
+        for (int p = 0; p < players.size(); p++) {
+            players.get(p).setActive((activeMask & (1 << p)) != 0);
+        }
+        this.currentPlayerIndex = currentPlayerIndex;
+        this.gameOver = gameOver;
+        this.winnerId = winnerId;
+        this.lastEliminatedMask = lastEliminatedMask;
+    }
+
+    /** Starts a new game on the same board without allocating. */
+    public void reset() {
+        board.clear();
+        for (int p = 0; p < players.size(); p++) {
+            players.get(p).setActive(true);
+        }
+        currentPlayerIndex = 0;
+        gameOver = false;
+        winnerId = -1;
+        lastEliminatedMask = 0;
+        resolver.getLog().clear();
+    }
+
+    private void checkGameOver() {
+        int activePlayers = 0;
+        int lastActivePlayerId = -1;
+        int totalAtoms = 0;
+
+        // The board keeps per-player totals up to date, so this is O(players)
+        for (int p = 0; p < players.size(); p++) {
+            Player player = players.get(p);
+            int playerAtoms = board.getPlayerAtomCount(player.getId());
+            if (playerAtoms > 0) {
+                totalAtoms += playerAtoms;
+                activePlayers++;
+                lastActivePlayerId = player.getId();
+            } else if (player.isActive()) {
+                // Player has no atoms left, eliminate them
+                player.setActive(false);
+                lastEliminatedMask |= 1 << player.getId();
+            }
+        }
+
+        // Game is over if there's only one player with atoms or no atoms left
+        if (activePlayers <= 1 || totalAtoms == 0) {
+            gameOver = true;
+            winnerId = lastActivePlayerId;
+        }
+    }
+
+    private void nextTurn() {
+        int originalIndex = currentPlayerIndex;
+        do {
+            currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
+            // If we've gone through all players and none are active, break to prevent infinite loop
+            if (currentPlayerIndex == originalIndex) {
+                break;
+            }
+        } while (!players.get(currentPlayerIndex).isActive());
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    public int getPlayerAtomCount(int playerId) {
+        return board.getPlayerAtomCount(playerId);
+    }
+
+    public int getPlayerCellCount(int playerId) {
+        return board.getPlayerCellCount(playerId);
+    }
+
+    /** {@link Zobrist} hash of the cells and the player to move, kept up to date by every move. */
+    public long getPositionHash() {
+        return board.getHash() ^ Zobrist.turnKey(currentPlayerIndex);
+    }
+
+    public int getCurrentPlayerIndex() {
+        return currentPlayerIndex;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getWinnerId() {
+        return winnerId;
+    }
+}
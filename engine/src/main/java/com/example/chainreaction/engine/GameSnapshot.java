@@ -0,0 +1,286 @@
+package com.example.chainreaction.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary image of a game in progress: the board, whose turn it is,
+ * who is still playing and, optionally, a move whose explosion waves have
+ * not all been shown yet. Only occupied cells are written, so a typical
+ * mid-game 6x9 snapshot is a few dozen bytes and encodes or decodes in
+ * microseconds.
+ *
+ * <p>Format, all integers unsigned LEB128 varints unless noted:
+ * <pre>
+ * magic "CRSN" (4 bytes), version (1 byte)
+ * rows, cols, flags (bit 0: torus), player count
+ * per player: name length in UTF-8 bytes, name bytes
+ * current player, active player mask, game over (1 byte), winner + 1,
+ * last eliminated mask
+ * occupied cell count; per cell: index, owner (1 byte), atoms (1 byte), clicks
+ * pending move present (1 byte); if present:
+ *   row, col, player, eliminated mask, game over (1 byte), winner + 1,
+ *   saturated (1 byte), next wave, wave count; per wave: size, cell indices
+ *   since version 2, per wave: changed cell count; per cell: index, state
+ *   before, state after, each state being (owner + 1) &lt;&lt; 8 | atoms
+ * </pre>
+ *
+ * <p>Readers accept every version up to {@link #VERSION}; a new version may
+ * only append fields, so snapshots taken before an update still restore.
+ * Every size, cell, player and atom count is range-checked as it is read, so
+ * damaged bytes fail with an {@link IOException} rather than a runtime
+ * exception or a huge allocation.
+ */
+public final class GameSnapshot {
+    public static final int VERSION = 2;
+    static final int MAGIC = 0x4352534E;
+
+    private final GameEngine engine;
+    private final MoveResult pendingResult;
+    private final int nextWaveIndex;
+
+    private GameSnapshot(GameEngine engine, MoveResult pendingResult, int nextWaveIndex) {
+        this.engine = engine;
+        this.pendingResult = pendingResult;
+        this.nextWaveIndex = nextWaveIndex;
+    }
+
+    /** The restored game, already past the pending move if there is one. */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /** The move whose waves were still being played back, or {@code null}. */
+    public MoveResult getPendingResult() {
+        return pendingResult;
+    }
+
+    /** Index of the first wave of {@link #getPendingResult()} that had not been shown. */
+    public int getNextWaveIndex() {
+        return nextWaveIndex;
+    }
+
+    /**
+     * Encodes a game. {@code pendingResult} may be {@code null}; otherwise its
+     * waves from {@code nextWaveIndex} on are still to be played back.
+     */
+    public static byte[] write(GameEngine engine, MoveResult pendingResult, int nextWaveIndex) {
+        Board board = engine.getBoard();
+        List<Player> players = engine.getPlayers();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + board.getOccupiedCount() * 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            BoardGeometry geometry = board.getGeometry();
+            Varints.write(out, geometry.getRows());
+            Varints.write(out, geometry.getCols());
+            Varints.write(out, geometry.isWrapping() ? ReplayWriter.FLAG_TORUS : 0);
+            Varints.write(out, players.size());
+            int activeMask = 0;
+            for (int p = 0; p < players.size(); p++) {
+                byte[] name = players.get(p).getName().getBytes(StandardCharsets.UTF_8);
+                Varints.write(out, name.length);
+                out.write(name);
+                if (players.get(p).isActive()) {
+                    activeMask |= 1 << p;
+                }
+            }
+
+            Varints.write(out, engine.getCurrentPlayerIndex());
+            Varints.write(out, activeMask);
+            out.writeBoolean(engine.isGameOver());
+            Varints.write(out, engine.getWinnerId() + 1);
+            Varints.write(out, engine.getLastEliminatedMask());
+
+            Varints.write(out, board.getOccupiedCount());
+            for (int k = 0; k < board.getOccupiedCount(); k++) {
+                int cell = board.getOccupiedCell(k);
+                Varints.write(out, cell);
+                out.writeByte(board.getOwnerPlayerId(cell));
+                out.writeByte(board.getAtomCount(cell));
+                Varints.write(out, board.getClickCount(cell));
+            }
+
+            out.writeBoolean(pendingResult != null);
+            if (pendingResult != null) {
+                writePending(out, pendingResult, nextWaveIndex);
+            }
+        } catch (IOException e) {
+            // A ByteArrayOutputStream never throws
+            throw new AssertionError(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writePending(DataOutputStream out, MoveResult result, int nextWaveIndex) throws IOException {
+        Varints.write(out, result.getRow());
+        Varints.write(out, result.getCol());
+        Varints.write(out, result.getPlayerId());
+        int eliminatedMask = 0;
+        for (int playerId : result.getEliminatedPlayerIds()) {
+            eliminatedMask |= 1 << playerId;
+        }
+        Varints.write(out, eliminatedMask);
+        out.writeBoolean(result.isGameOver());
+        Varints.write(out, result.getWinnerId() + 1);
+        out.writeBoolean(result.isSaturated());
+        Varints.write(out, nextWaveIndex);
+        List<ExplosionWave> waves = result.getWaves();
+        Varints.write(out, waves.size());
+        for (ExplosionWave wave : waves) {
+            Varints.write(out, wave.size());
+            for (int i = 0; i < wave.size(); i++) {
+                Varints.write(out, wave.getCell(i));
+            }
+        }
+        for (ExplosionWave wave : waves) {
+            Varints.write(out, wave.getChangeCount());
+            for (int i = 0; i < wave.getChangeCount(); i++) {
+                Varints.write(out, wave.getChangedCell(i));
+                Varints.write(out, ExplosionLog.packState(wave.getOwnerBefore(i), wave.getAtomsBefore(i)));
+                Varints.write(out, ExplosionLog.packState(wave.getOwnerAfter(i), wave.getAtomsAfter(i)));
+            }
+        }
+    }
+
+    /** Decodes a snapshot written by this or an earlier version. */
+    public static GameSnapshot read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a game snapshot");
+        }
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int rows = Varints.readInRange(in, 1, ReplayReader.MAX_SIDE, "row count");
+        int cols = Varints.readInRange(in, 1, ReplayReader.MAX_SIDE, "column count");
+        int flags = Varints.read(in);
+        boolean torus = (flags & ReplayWriter.FLAG_TORUS) != 0;
+        if (torus && (rows < 3 || cols < 3)) {
+            throw new IOException("Bad torus " + rows + "x" + cols);
+        }
+        BoardGeometry geometry = torus ? BoardGeometry.torus(rows, cols) : BoardGeometry.rectangle(rows, cols);
+        int numPlayers = Varints.readInRange(in, 2, Board.MAX_PLAYERS, "player count");
+        List<String> names = new ArrayList<>(numPlayers);
+        for (int p = 0; p < numPlayers; p++) {
+            byte[] name = new byte[Varints.readInRange(in, 0, ReplayReader.MAX_NAME_BYTES, "name length")];
+            in.readFully(name);
+            names.add(new String(name, StandardCharsets.UTF_8));
+        }
+        GameEngine engine = new GameEngine(geometry, numPlayers, names);
+
+        int allPlayers = (1 << numPlayers) - 1;
+        int currentPlayer = readPlayer(in, numPlayers);
+        int activeMask = Varints.readInRange(in, 0, allPlayers, "active player mask");
+        boolean gameOver = in.readBoolean();
+        int winnerId = Varints.readInRange(in, 0, numPlayers, "winner") - 1;
+        int lastEliminatedMask = Varints.readInRange(in, 0, allPlayers, "eliminated player mask");
+        engine.restoreTurn(currentPlayer, activeMask, gameOver, winnerId, lastEliminatedMask);
+
+        Board board = engine.getBoard();
+        int occupied = Varints.readInRange(in, 0, board.getCellCount(), "occupied cell count");
+        for (int k = 0; k < occupied; k++) {
+            int cell = readCell(in, board);
+            int owner = in.readUnsignedByte();
+            if (owner >= numPlayers) {
+                throw new IOException("Bad owner " + owner + " of cell " + cell);
+            }
+            int atoms = checkAtoms(in.readUnsignedByte(), cell, board);
+            if (atoms == 0) {
+                throw new IOException("Occupied cell " + cell + " has no atoms");
+            }
+            int clicks = Varints.readInRange(in, 0, Integer.MAX_VALUE, "click count");
+            board.setCell(cell, owner, atoms);
+            board.setClickCount(cell, clicks);
+        }
+
+        MoveResult pending = null;
+        int nextWaveIndex = 0;
+        if (in.readBoolean()) {
+            int row = Varints.readInRange(in, 0, rows - 1, "move row");
+            int col = Varints.readInRange(in, 0, cols - 1, "move column");
+            int playerId = readPlayer(in, numPlayers);
+            int eliminatedMask = Varints.readInRange(in, 0, allPlayers, "eliminated player mask");
+            boolean pendingGameOver = in.readBoolean();
+            int pendingWinner = Varints.readInRange(in, 0, numPlayers, "winner") - 1;
+            boolean saturated = in.readBoolean();
+            nextWaveIndex = Varints.read(in);
+            // A restored engine resolves with the default budget, which caps a chain's waves
+            int waveCount = Varints.readInRange(in, 0,
+                    board.getCellCount() * ChainReactionResolver.DEFAULT_WAVES_PER_CELL, "wave count");
+            if (nextWaveIndex < 0 || nextWaveIndex > waveCount) {
+                throw new IOException("Bad next wave " + nextWaveIndex + " of " + waveCount);
+            }
+            int[][] waveCells = new int[waveCount][];
+            for (int w = 0; w < waveCount; w++) {
+                int[] cells = new int[Varints.readInRange(in, 0, board.getCellCount(), "wave size")];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = readCell(in, board);
+                }
+                waveCells[w] = cells;
+            }
+            List<ExplosionWave> waves = new ArrayList<>(waveCount);
+            for (int w = 0; w < waveCount; w++) {
+                if (version < 2) {
+                    waves.add(new ExplosionWave(w, cols, waveCells[w]));
+                    continue;
+                }
+                int changes = Varints.readInRange(in, 0, board.getCellCount(), "change count");
+                int[] changedCells = new int[changes];
+                int[] before = new int[changes];
+                int[] after = new int[changes];
+                for (int i = 0; i < changes; i++) {
+                    int cell = readCell(in, board);
+                    changedCells[i] = cell;
+                    before[i] = readState(in, cell, board, numPlayers);
+                    after[i] = readState(in, cell, board, numPlayers);
+                }
+                waves.add(new ExplosionWave(w, cols, waveCells[w], changedCells, before, after));
+            }
+            List<Integer> eliminated = new ArrayList<>();
+            for (int p = 0; p < numPlayers; p++) {
+                if ((eliminatedMask & (1 << p)) != 0) {
+                    eliminated.add(p);
+                }
+            }
+            pending = new MoveResult(row, col, playerId, waves, eliminated, pendingGameOver, pendingWinner, saturated);
+        }
+        return new GameSnapshot(engine, pending, nextWaveIndex);
+    }
+
+    private static int readPlayer(DataInputStream in, int numPlayers) throws IOException {
+        return Varints.readInRange(in, 0, numPlayers - 1, "player");
+    }
+
+    private static int readCell(DataInputStream in, Board board) throws IOException {
+        return Varints.readInRange(in, 0, board.getCellCount() - 1, "cell");
+    }
+
+    private static int readState(DataInputStream in, int cell, Board board, int numPlayers) throws IOException {
+        int state = Varints.readInRange(in, 0, ExplosionLog.packState(numPlayers - 1, 0xFF), "cell state");
+        int atoms = checkAtoms(ExplosionLog.atomsOf(state), cell, board);
+        if ((ExplosionLog.ownerOf(state) < 0) != (atoms == 0)) {
+            throw new IOException("Bad state " + state + " of cell " + cell);
+        }
+        return state;
+    }
+
+    /**
+     * Between moves a cell holds less than its capacity, except when a chain
+     * ended the game early: then a critical cell may also have been hit by
+     * every neighbour in the last wave, which is as far over as a cell gets.
+     */
+    private static int checkAtoms(int atoms, int cell, Board board) throws IOException {
+        if (atoms > 2 * board.getMaxCapacity(cell)) {
+            throw new IOException("Cell " + cell + " holds " + atoms + " atoms");
+        }
+        return atoms;
+    }
+}
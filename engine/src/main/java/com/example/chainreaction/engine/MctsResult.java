@@ -0,0 +1,50 @@
+package com.example.chainreaction.engine;
+
+/** Outcome of an {@link MctsSearch}, with the playout rate needed to compare board representations. */
+public final class MctsResult {
+    private final int move;
+    private final long visits;
+    private final double expectedReward;
+    private final long playouts;
+    private final long elapsedNanos;
+
+    MctsResult(int move, long visits, double expectedReward, long playouts, long elapsedNanos) {
+        this.move = move;
+        this.visits = visits;
+        this.expectedReward = expectedReward;
+        this.playouts = playouts;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Cell index of the most visited root move. */
+    public int getMove() {
+        return move;
+    }
+
+    public long getVisits() {
+        return visits;
+    }
+
+    /** Average reward of the chosen move for the player to move, from 0 to 1. */
+    public double getExpectedReward() {
+        return expectedReward;
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts * 1_000_000_000L / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("move %d, %d visits, reward %.3f, %d playouts, %d playouts/s",
+                move, visits, expectedReward, playouts, getPlayoutsPerSecond());
+    }
+}
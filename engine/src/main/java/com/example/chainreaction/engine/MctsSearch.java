@@ -0,0 +1,344 @@
+package com.example.chainreaction.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monte Carlo tree search over {@link BitBoardEngine} positions with root
+ * parallelisation: every worker grows its own tree from the same root with
+ * its own random stream, and the root visit counts are summed at the end.
+ * The trees share nothing while searching, so no locks or virtual loss are
+ * needed.
+ *
+ * <p>Each node keeps the total reward of every player, and selection at a
+ * node maximises the reward of the player to move there, so three- and
+ * four-player games are searched without assuming a coalition. Playouts are
+ * uniformly random moves up to a move limit; an unfinished playout rewards
+ * each player by their share of the atoms.
+ *
+ * <p>The search stops at whichever comes first of the time budget and the
+ * playout budget. All trees together stay within a fixed memory budget, so
+ * adding threads makes each tree smaller rather than the search larger; a
+ * full tree keeps running playouts from its existing leaves. Arrays grown
+ * during a search are dropped when it returns, so nothing large is held
+ * between moves. Call {@link #close()} to stop the worker threads.
+ */
+public class MctsSearch implements AutoCloseable {
+    private static final double EXPLORATION = 1.4;
+    private static final int PLAYOUT_MOVE_LIMIT = 256;
+    /** Memory all trees of a search may use together unless the constructor is given another budget. */
+    public static final long DEFAULT_MEMORY_BYTES = 16L << 20;
+    private static final int INITIAL_NODES = 1024;
+    private static final int CLOCK_CHECK_INTERVAL = 64;
+
+    private final int rows;
+    private final int cols;
+    private final int numPlayers;
+    private final int threads;
+    private final int maxNodesPerTree;
+    private final ExecutorService executor;
+    private final Tree[] trees;
+    // Searches are numbered as they are reserved; cancel() stops every one reserved before it
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger cancelledThrough = new AtomicInteger();
+
+    public MctsSearch(int rows, int cols, int numPlayers, int threads) {
+        this(rows, cols, numPlayers, threads, DEFAULT_MEMORY_BYTES);
+    }
+
+    /** A search whose trees share {@code memoryBytes}, split evenly between the threads. */
+    public MctsSearch(int rows, int cols, int numPlayers, int threads, long memoryBytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread, got " + threads);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.numPlayers = numPlayers;
+        this.threads = threads;
+        // Every tree can at least expand its root, whatever the budget
+        long nodes = memoryBytes / threads / bytesPerNode(numPlayers);
+        this.maxNodesPerTree = (int) Math.min(Integer.MAX_VALUE / numPlayers, Math.max(1 + rows * cols, nodes));
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.trees = new Tree[threads];
+        for (int t = 0; t < threads; t++) {
+            trees[t] = new Tree();
+        }
+    }
+
+    /** Move, first child, child count and visits, plus a reward per player. */
+    static int bytesPerNode(int numPlayers) {
+        return 4 * Integer.BYTES + numPlayers * Double.BYTES;
+    }
+
+    int getMaxNodesPerTree() {
+        return maxNodesPerTree;
+    }
+
+    /** Nodes the trees have room for right now, which is what they hold on to between searches. */
+    long getAllocatedNodes() {
+        long nodes = 0;
+        for (Tree tree : trees) {
+            nodes += tree.move.length;
+        }
+        return nodes;
+    }
+
+    /**
+     * Stops the running search and any reserved one that has not started yet;
+     * they return the best move found so far.
+     */
+    public void cancel() {
+        cancelledThrough.accumulateAndGet(reserved.get(), Math::max);
+    }
+
+    /**
+     * Numbers a search to be run later, so that a {@link #cancel()} arriving
+     * before it starts is not lost; pass the ticket to
+     * {@link #search(BitBoardEngine, long, long, long, int)}.
+     */
+    public int reserveSearch() {
+        return reserved.incrementAndGet();
+    }
+
+    /**
+     * Searches until {@code budgetMillis} have passed or {@code maxPlayouts}
+     * playouts have been run across all threads, whichever comes first.
+     */
+    public MctsResult search(BitBoardEngine position, long budgetMillis, long maxPlayouts, long seed)
+            throws InterruptedException {
+        return search(position, budgetMillis, maxPlayouts, seed, reserveSearch());
+    }
+
+    /** Runs a search reserved with {@link #reserveSearch()}; it stops at once if it was cancelled in the meantime. */
+    public MctsResult search(BitBoardEngine position, long budgetMillis, long maxPlayouts, long seed, int ticket)
+            throws InterruptedException {
+        if (position.isGameOver()) {
+            throw new IllegalArgumentException("The game is already over");
+        }
+        long start = System.nanoTime();
+        long deadline = start + budgetMillis * 1_000_000L;
+
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Tree tree = trees[t];
+            long playouts = maxPlayouts / threads + (t < maxPlayouts % threads ? 1 : 0);
+            long treeSeed = seed + t * 0x9E3779B97F4A7C15L;
+            workers.add(executor.submit(() -> tree.search(position, deadline, playouts, treeSeed, ticket)));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("MCTS worker failed", e.getCause());
+            }
+        }
+
+        // Sum the root children of all trees; they list the legal moves in the same order
+        Tree first = trees[0];
+        int bestMove = -1;
+        long bestVisits = -1;
+        double bestReward = 0;
+        long playouts = 0;
+        for (Tree tree : trees) {
+            playouts += tree.playouts;
+        }
+        for (int c = 0; c < first.childCount[0]; c++) {
+            long visits = 0;
+            double reward = 0;
+            for (Tree tree : trees) {
+                int child = tree.firstChild[0] + c;
+                visits += tree.visits[child];
+                reward += tree.rewards[child * numPlayers + position.getCurrentPlayer()];
+            }
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                bestMove = first.move[first.firstChild[0] + c];
+                bestReward = visits == 0 ? 0 : reward / visits;
+            }
+        }
+        for (Tree tree : trees) {
+            tree.trim();
+        }
+        return new MctsResult(bestMove, bestVisits, bestReward, playouts, System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() {
+        cancelledThrough.set(Integer.MAX_VALUE);
+        executor.shutdownNow();
+    }
+
+    /** One worker's tree, stored as parallel arrays indexed by node. */
+    private final class Tree {
+        private final BitBoardEngine root = new BitBoardEngine(rows, cols, numPlayers);
+        private final BitBoardEngine scratch = new BitBoardEngine(rows, cols, numPlayers);
+        private int[] path = new int[64];
+        private int[] move = new int[INITIAL_NODES];
+        private int[] firstChild = new int[INITIAL_NODES];
+        private int[] childCount = new int[INITIAL_NODES];
+        private int[] visits = new int[INITIAL_NODES];
+        // Summed over hundreds of thousands of playouts, so floats would drop the small shares
+        private double[] rewards = new double[INITIAL_NODES * numPlayers];
+        private final double[] outcome = new double[numPlayers];
+        private int nodeCount;
+        private long playouts;
+
+        void search(BitBoardEngine position, long deadline, long maxPlayouts, long seed, int ticket) {
+            SplittableRandom random = new SplittableRandom(seed);
+            root.copyFrom(position);
+            nodeCount = 0;
+            playouts = 0;
+            newNode(-1);
+            expand(0, root);
+
+            while (playouts < maxPlayouts && ticket > cancelledThrough.get()) {
+                if (playouts % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() > deadline && playouts > 0) {
+                    break;
+                }
+                scratch.copyFrom(root);
+                int depth = 0;
+                int node = 0;
+                depth = push(depth, node);
+
+                // Selection: descend while the node has been expanded
+                while (childCount[node] > 0 && !scratch.isGameOver()) {
+                    node = select(node, scratch.getCurrentPlayer());
+                    scratch.placeAtom(move[node]);
+                    depth = push(depth, node);
+                }
+
+                // Expansion: a leaf that has been visited before gets its children
+                if (!scratch.isGameOver() && visits[node] > 0 && expand(node, scratch)) {
+                    node = firstChild[node] + random.nextInt(childCount[node]);
+                    scratch.placeAtom(move[node]);
+                    depth = push(depth, node);
+                }
+
+                playout(scratch, random);
+
+                // Backpropagation
+                for (int i = 0; i < depth; i++) {
+                    int n = path[i];
+                    visits[n]++;
+                    for (int p = 0; p < numPlayers; p++) {
+                        rewards[n * numPlayers + p] += outcome[p];
+                    }
+                }
+                playouts++;
+            }
+        }
+
+        private int push(int depth, int node) {
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth] = node;
+            return depth + 1;
+        }
+
+        private int select(int node, int player) {
+            int first = firstChild[node];
+            int count = childCount[node];
+            double logVisits = Math.log(Math.max(1, visits[node]));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + count; child++) {
+                int n = visits[child];
+                if (n == 0) {
+                    return child;
+                }
+                double value = rewards[child * numPlayers + player] / n + EXPLORATION * Math.sqrt(logVisits / n);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private boolean expand(int node, BitBoardEngine position) {
+            long legal = position.getLegalMoves();
+            int count = Long.bitCount(legal);
+            if (nodeCount + count > maxNodesPerTree) {
+                return false;
+            }
+            firstChild[node] = nodeCount;
+            childCount[node] = count;
+            for (long bits = legal; bits != 0; bits &= bits - 1) {
+                int child = newNode(node);
+                move[child] = Long.numberOfTrailingZeros(bits);
+            }
+            return true;
+        }
+
+        private int newNode(int parent) {
+            if (nodeCount == move.length) {
+                // expand() keeps nodeCount within maxNodesPerTree, so growth stops there too
+                int capacity = Math.min(move.length * 2, maxNodesPerTree);
+                move = Arrays.copyOf(move, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                visits = Arrays.copyOf(visits, capacity);
+                rewards = Arrays.copyOf(rewards, capacity * numPlayers);
+            }
+            int node = nodeCount++;
+            move[node] = -1;
+            firstChild[node] = 0;
+            childCount[node] = 0;
+            visits[node] = 0;
+            for (int p = 0; p < numPlayers; p++) {
+                rewards[node * numPlayers + p] = 0;
+            }
+            return node;
+        }
+
+        /** Lets go of arrays grown during a search, keeping the root children search() reads. */
+        void trim() {
+            int keep = Math.max(INITIAL_NODES, firstChild[0] + childCount[0]);
+            if (move.length > keep) {
+                move = Arrays.copyOf(move, keep);
+                firstChild = Arrays.copyOf(firstChild, keep);
+                childCount = Arrays.copyOf(childCount, keep);
+                visits = Arrays.copyOf(visits, keep);
+                rewards = Arrays.copyOf(rewards, keep * numPlayers);
+                nodeCount = Math.min(nodeCount, keep);
+            }
+        }
+
+        /** Plays random moves to the end and fills {@link #outcome}, which sums to one. */
+        private void playout(BitBoardEngine position, SplittableRandom random) {
+            for (int i = 0; i < PLAYOUT_MOVE_LIMIT && !position.isGameOver(); i++) {
+                long legal = position.getLegalMoves();
+                for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; skip--) {
+                    legal &= legal - 1;
+                }
+                position.placeAtom(Long.numberOfTrailingZeros(legal));
+            }
+
+            if (position.isGameOver()) {
+                for (int p = 0; p < numPlayers; p++) {
+                    outcome[p] = p == position.getWinnerId() ? 1 : 0;
+                }
+                return;
+            }
+            int totalAtoms = 0;
+            for (int p = 0; p < numPlayers; p++) {
+                totalAtoms += position.getPlayerAtomCount(p);
+            }
+            for (int p = 0; p < numPlayers; p++) {
+                outcome[p] = (double) position.getPlayerAtomCount(p) / totalAtoms;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.chainreaction.engine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one accepted move: the explosion waves it triggered and any
+ * eliminations or game-over it caused.
+ */
+public class MoveResult {
+    private final int row;
+    private final int col;
+    private final int playerId;
+    private final List<ExplosionWave> waves;
+    private final List<Integer> eliminatedPlayerIds;
+    private final boolean gameOver;
+    private final int winnerId;
+    private final boolean saturated;
+
+    MoveResult(int row, int col, int playerId, List<ExplosionWave> waves,
+               List<Integer> eliminatedPlayerIds, boolean gameOver, int winnerId, boolean saturated) {
+        this.row = row;
+        this.col = col;
+        this.playerId = playerId;
+        this.waves = Collections.unmodifiableList(waves);
+        this.eliminatedPlayerIds = Collections.unmodifiableList(eliminatedPlayerIds);
+        this.gameOver = gameOver;
+        this.winnerId = winnerId;
+        this.saturated = saturated;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public List<ExplosionWave> getWaves() {
+        return waves;
+    }
+
+    public boolean hasExplosions() {
+        return !waves.isEmpty();
+    }
+
+    public int getExplosionCount() {
+        int count = 0;
+        for (ExplosionWave wave : waves) {
+            count += wave.size();
+        }
+        return count;
+    }
+
+    public List<Integer> getEliminatedPlayerIds() {
+        return eliminatedPlayerIds;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    /** Returns true if the chain reaction was cut short by the explosion budget. */
+    public boolean isSaturated() {
+        return saturated;
+    }
+}
@@ -1,17 +1,15 @@
-package com.example.chainreaction;
+package com.example.chainreaction.engine;
 
 public class Player {
     private int id;
     private int color;
     private boolean isActive;
-    private int atomCount;
     private String name;
 
     public Player(int id, int color, String name) {
         this.id = id;
         this.color = color;
         this.isActive = true;
-        this.atomCount = 0;
         this.name = name;
     }
 
@@ -31,14 +29,6 @@ public class Player {
         isActive = active;
     }
 
-    public int getAtomCount() {
-        return atomCount;
-    }
-
-    public void setAtomCount(int atomCount) {
-        this.atomCount = atomCount;
-    }
-
     public String getName() {
         return name;
     }
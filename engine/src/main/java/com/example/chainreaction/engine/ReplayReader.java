@@ -0,0 +1,159 @@
+package com.example.chainreaction.engine;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a log written by {@link ReplayWriter} and reconstructs any position by
+ * re-running the engine. Positions are snapshotted every
+ * {@link #SNAPSHOT_INTERVAL} moves as they are first reached, so
+ * {@link #seek(int)} replays at most that many moves from the nearest
+ * snapshot before the target.
+ *
+ * <p>A log that is corrupt or cut short in its header, or that holds a cell
+ * outside the board, is rejected with an {@link IOException}; a move cut off
+ * at the end of the file is dropped, since that is how a log looks when the
+ * app was killed mid-write.
+ */
+public class ReplayReader {
+    public static final int SNAPSHOT_INTERVAL = 32;
+    // Far beyond anything the app offers; only there so a corrupt header cannot ask for gigabytes.
+    // GameSnapshot shares them, since its header has the same shape.
+    static final int MAX_SIDE = 1024;
+    static final int MAX_NAME_BYTES = 256;
+
+    private final BoardGeometry geometry;
+    private final List<String> playerNames;
+    private final int[] moves;
+    private final List<GameEngine> snapshots = new ArrayList<>();
+    private final GameEngine position;
+    private int positionMove;
+
+    public ReplayReader(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        geometry = readGeometry(in);
+        playerNames = readPlayerNames(in);
+        int numPlayers = playerNames.size();
+
+        int cellCount = geometry.getRows() * geometry.getCols();
+        int[] read = new int[64];
+        int count = 0;
+        int first;
+        while ((first = in.read()) >= 0) {
+            int move;
+            try {
+                move = Varints.read(in, first);
+            } catch (EOFException e) {
+                break;
+            }
+            if (move < 0 || move >= cellCount) {
+                throw new IOException("Move " + count + " is outside the board: cell " + (move & 0xFFFFFFFFL));
+            }
+            if (count == read.length) {
+                read = Arrays.copyOf(read, count * 2);
+            }
+            read[count++] = move;
+        }
+        moves = Arrays.copyOf(read, count);
+
+        position = new GameEngine(geometry, numPlayers, playerNames);
+        snapshots.add(newGame());
+    }
+
+    /**
+     * Reads only the header of the log in {@code input} and returns its
+     * player names, without decoding a single move. Used to check a log's
+     * players cheaply.
+     */
+    public static List<String> readPlayerNames(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        readGeometry(in);
+        return readPlayerNames(in);
+    }
+
+    private static BoardGeometry readGeometry(DataInputStream in) throws IOException {
+        if (in.readInt() != ReplayWriter.MAGIC) {
+            throw new IOException("Not a replay log");
+        }
+        int version = in.readUnsignedByte();
+        if (version != ReplayWriter.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        int rows = Varints.readInRange(in, 1, MAX_SIDE, "row count");
+        int cols = Varints.readInRange(in, 1, MAX_SIDE, "column count");
+        int flags = Varints.read(in);
+        boolean torus = (flags & ReplayWriter.FLAG_TORUS) != 0;
+        if (torus && (rows < 3 || cols < 3)) {
+            throw new IOException("Bad torus " + rows + "x" + cols);
+        }
+        return torus ? BoardGeometry.torus(rows, cols) : BoardGeometry.rectangle(rows, cols);
+    }
+
+    private static List<String> readPlayerNames(DataInputStream in) throws IOException {
+        int numPlayers = Varints.readInRange(in, 2, Board.MAX_PLAYERS, "player count");
+        List<String> names = new ArrayList<>(numPlayers);
+        for (int p = 0; p < numPlayers; p++) {
+            byte[] bytes = new byte[Varints.readInRange(in, 0, MAX_NAME_BYTES, "name length")];
+            in.readFully(bytes);
+            names.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    private GameEngine newGame() {
+        return new GameEngine(geometry, playerNames.size(), playerNames);
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public List<String> getPlayerNames() {
+        return playerNames;
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /** Returns the cell index of move {@code n}, counting from 0. */
+    public int getMove(int n) {
+        return moves[n];
+    }
+
+    /**
+     * Returns the position after the first {@code n} moves. The returned
+     * engine is reused by the next call; copy it to keep it.
+     */
+    public GameEngine seek(int n) throws IOException {
+        if (n < 0 || n > moves.length) {
+            throw new IndexOutOfBoundsException("Move " + n + " of " + moves.length);
+        }
+        // Restart from the nearest snapshot unless the current position is already closer
+        int snapshot = Math.min(n / SNAPSHOT_INTERVAL, snapshots.size() - 1);
+        if (n < positionMove || positionMove < snapshot * SNAPSHOT_INTERVAL) {
+            position.copyFrom(snapshots.get(snapshot));
+            positionMove = snapshot * SNAPSHOT_INTERVAL;
+        }
+        while (positionMove < n) {
+            if (position.play(moves[positionMove]) < 0) {
+                throw new IOException("Move " + positionMove + " (cell " + moves[positionMove] + ") is not legal");
+            }
+            positionMove++;
+            if (positionMove % SNAPSHOT_INTERVAL == 0 && positionMove / SNAPSHOT_INTERVAL == snapshots.size()) {
+                GameEngine copy = newGame();
+                copy.copyFrom(position);
+                snapshots.add(copy);
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.chainreaction.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends a game to a compact binary replay log. The header records the
+ * board shape and the players; after it every accepted move is a single
+ * varint cell index, so a typical 6x9 game takes well under 200 bytes.
+ * Writes go through a buffer and are never synced per move.
+ *
+ * <p>Format, all integers unsigned LEB128 varints unless noted:
+ * <pre>
+ * magic "CRRP" (4 bytes), version (1 byte)
+ * rows, cols, flags (bit 0: torus), player count
+ * per player: name length in UTF-8 bytes, name bytes
+ * per move: cell index
+ * </pre>
+ */
+public class ReplayWriter implements Closeable {
+    static final int MAGIC = 0x43525250;
+    static final int VERSION = 1;
+    static final int FLAG_TORUS = 1;
+
+    private final DataOutputStream out;
+    // Bytes already in the log before this writer was opened on it
+    private final long startBytes;
+    private int moveCount;
+
+    public ReplayWriter(OutputStream out, BoardGeometry geometry, List<String> playerNames) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.startBytes = 0;
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        Varints.write(this.out, geometry.getRows());
+        Varints.write(this.out, geometry.getCols());
+        Varints.write(this.out, geometry.isWrapping() ? FLAG_TORUS : 0);
+        Varints.write(this.out, playerNames.size());
+        for (String name : playerNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            Varints.write(this.out, bytes.length);
+            this.out.write(bytes);
+        }
+    }
+
+    /** Convenience for a game that is about to start. */
+    public ReplayWriter(OutputStream out, GameEngine engine) throws IOException {
+        this(out, engine.getBoard().getGeometry(), playerNames(engine));
+    }
+
+    /**
+     * Continues a log that already holds {@code byteCount} bytes with
+     * {@code moveCount} moves, as reported by {@link #getByteCount()} and
+     * {@link #getMoveCount()} after a {@link #flush()}. {@code out} must append
+     * to a file cut back to exactly those bytes.
+     */
+    public ReplayWriter(OutputStream out, long byteCount, int moveCount) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.startBytes = byteCount;
+        this.moveCount = moveCount;
+    }
+
+    private static List<String> playerNames(GameEngine engine) {
+        List<String> names = new ArrayList<>();
+        for (Player player : engine.getPlayers()) {
+            names.add(player.getName());
+        }
+        return names;
+    }
+
+    public void writeMove(int cell) throws IOException {
+        Varints.write(out, cell);
+        moveCount++;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /** Length of the log once everything written so far has been flushed. */
+    public long getByteCount() {
+        return startBytes + out.size();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.chainreaction.engine;
+
+/** Outcome of an {@link AlphaBetaSearch}, with the counters needed to tune it. */
+public final class SearchResult {
+    private final int move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    SearchResult(int move, int score, int depth, long nodes, long elapsedNanos) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Cell index of the chosen move. */
+    public int getMove() {
+        return move;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /** Deepest fully searched depth. */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "move " + move + ", score " + score + ", depth " + depth + ", " + nodes + " nodes, "
+                + getNodesPerSecond() + " nodes/s";
+    }
+}
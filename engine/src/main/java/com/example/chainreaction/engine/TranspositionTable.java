@@ -0,0 +1,122 @@
+package com.example.chainreaction.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table that many search threads can share without
+ * locks. Each bucket has two slots: a depth-preferred slot that is only
+ * replaced by an equal or deeper search of any position (or by anything once
+ * it belongs to an older search), and an always-replace slot that takes every
+ * other store.
+ *
+ * <p>A slot is two {@code long}s, the packed entry and the key XOR the entry.
+ * A reader that sees a slot half-written by another thread gets a key that
+ * does not match and treats it as a miss, so no lock or CAS is needed.
+ *
+ * <p>Entries are packed into a {@code long}; use the static accessors to read
+ * a value returned by {@link #probe}.
+ */
+public final class TranspositionTable {
+    public static final long MISS = 0;
+
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    private static final int LONGS_PER_BUCKET = 4;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private final long[] slots;
+    private final int bucketMask;
+    private int generation;
+
+    /** Creates a table of at most {@code megabytes} MB, rounded down to a power of two of buckets. */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > 1024) {
+            throw new IllegalArgumentException("Table size must be 1 to 1024 MB, got " + megabytes);
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        this.slots = new long[(int) buckets * LONGS_PER_BUCKET];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    public int getBucketCount() {
+        return bucketMask + 1;
+    }
+
+    /** Marks older entries as replaceable; call once per search. */
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+    }
+
+    /** Returns the packed entry for {@code key}, or {@link #MISS}. */
+    public long probe(long key) {
+        int base = bucketIndex(key);
+        long entry = slots[base];
+        if (entry != MISS && (slots[base + 1] ^ entry) == key) {
+            return entry;
+        }
+        entry = slots[base + 2];
+        if (entry != MISS && (slots[base + 3] ^ entry) == key) {
+            return entry;
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a search result. {@code move} is a cell index or -1, {@code depth}
+     * is 0 to 255 and {@code score} any int.
+     */
+    public void store(long key, int move, int depth, int score, int bound) {
+        long entry = pack(move, depth, score, bound, generation);
+        int base = bucketIndex(key);
+        long preferred = slots[base];
+        if (preferred == MISS
+                || (slots[base + 1] ^ preferred) == key
+                || depth(preferred) <= depth
+                || generation(preferred) != generation) {
+            slots[base] = entry;
+            slots[base + 1] = key ^ entry;
+        } else {
+            slots[base + 2] = entry;
+            slots[base + 3] = key ^ entry;
+        }
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) key & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    // Layout: score in bits 32-63, move + 1 in bits 16-31, depth in 8-15, generation in 2-7 and bound in 0-1
+    private static long pack(int move, int depth, int score, int bound, int generation) {
+        return (long) score << 32
+                | (long) ((move + 1) & 0xFFFF) << 16
+                | (long) (depth & 0xFF) << 8
+                | (long) (generation & 0x3F) << 2
+                | bound;
+    }
+
+    public static int move(long entry) {
+        return (int) ((entry >>> 16) & 0xFFFF) - 1;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 8) & 0xFF);
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry & 3);
+    }
+
+    private static int generation(long entry) {
+        return (int) ((entry >>> 2) & 0x3F);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.chainreaction.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/** Unsigned LEB128 varints shared by the replay and snapshot formats. */
+final class Varints {
+
+    private Varints() {
+    }
+
+    static void write(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int read(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            throw new EOFException("Truncated varint");
+        }
+        return read(in, first);
+    }
+
+    /** Reads a varint that must lie between {@code min} and {@code max}; anything else means a corrupt file. */
+    static int readInRange(DataInputStream in, int min, int max, String what) throws IOException {
+        int value = read(in);
+        if (value < min || value > max) {
+            throw new IOException("Bad " + what + " " + (value & 0xFFFFFFFFL));
+        }
+        return value;
+    }
+
+    /** Reads the rest of a varint whose first byte has already been consumed. */
+    static int read(DataInputStream in, int first) throws IOException {
+        int value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            if (shift > 28) {
+                throw new IOException("Varint too long");
+            }
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated varint");
+            }
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+}
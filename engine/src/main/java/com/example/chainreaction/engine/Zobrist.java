@@ -0,0 +1,47 @@
+package com.example.chainreaction.engine;
+
+/**
+ * Zobrist-style position keys. Every occupied cell contributes a key derived
+ * from its index, owner, atom count and click count; the position hash is the
+ * XOR of those keys and the key of the player to move, so changing one cell
+ * updates the hash with two XORs.
+ *
+ * <p>Keys are computed with the SplitMix64 finaliser instead of being looked
+ * up in a random table, which keeps boards of any size free of per-board key
+ * tables and gives the same hash for the same position in every process.
+ */
+public final class Zobrist {
+    private static final long CELL_SEED = 0x9E3779B97F4A7C15L;
+    private static final long TURN_SEED = 0xD1B54A32D192ED03L;
+
+    private Zobrist() {
+    }
+
+    /** Key of an occupied cell; empty cells contribute nothing. */
+    public static long cellKey(int cell, int owner, int atoms, int clicks) {
+        long feature = (((long) cell * Board.MAX_PLAYERS + owner) * 8 + atoms) * 8 + clicks;
+        return mix(feature * CELL_SEED);
+    }
+
+    public static long turnKey(int playerId) {
+        return mix(TURN_SEED + playerId);
+    }
+
+    /** Hashes a position from scratch, e.g. to check an incrementally kept hash. */
+    public static long hash(BoardView board, int currentPlayer) {
+        long hash = turnKey(currentPlayer);
+        for (int i = 0; i < board.getCellCount(); i++) {
+            int owner = board.getOwnerPlayerId(i);
+            if (owner >= 0) {
+                hash ^= cellKey(i, owner, board.getAtomCount(i), board.getClickCount(i));
+            }
+        }
+        return hash;
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AlphaBetaSearchTest {
+
+    @Test
+    public void takesAnImmediateWin() {
+        GameEngine engine = new GameEngine(3, 3, 2, null);
+        Board board = engine.getBoard();
+        board.setCell(board.indexOf(0, 0), 0, 1);
+        board.setCell(board.indexOf(0, 1), 1, 1);
+        board.setCell(board.indexOf(2, 2), 0, 1);
+        BitBoardEngine position = new BitBoardEngine(3, 3, 2);
+        position.copyFrom(engine);
+
+        SearchResult result = new AlphaBetaSearch(3, 3, 2).search(position, 1000);
+
+        assertEquals(board.indexOf(0, 0), result.getMove());
+        assertTrue(result.getScore() > 0);
+        assertTrue(result.getNodes() > 0);
+    }
+
+    @Test
+    public void copyFromScalarEngineMatchesBoard() {
+        GameEngine engine = new GameEngine(6, 9, 3, null);
+        int[] moves = {0, 53, 26, 0, 52, 27, 1};
+        for (int move : moves) {
+            engine.play(move);
+        }
+        BitBoardEngine position = new BitBoardEngine(6, 9, 3);
+        position.copyFrom(engine);
+
+        Board board = engine.getBoard();
+        for (int i = 0; i < board.getCellCount(); i++) {
+            assertEquals(board.getAtomCount(i), position.getAtomCount(i));
+            assertEquals(board.getOwnerPlayerId(i), position.getOwnerPlayerId(i));
+            assertEquals(board.getClickCount(i), position.getClickCount(i));
+        }
+        assertEquals(engine.getCurrentPlayerIndex(), position.getCurrentPlayer());
+    }
+
+    @Test
+    public void respectsTimeBudgetAndReturnsALegalMove() {
+        GameEngine engine = new GameEngine(6, 9, 2, null);
+        int[] opening = {0, 53, 8, 45, 22, 31, 0, 53};
+        for (int move : opening) {
+            engine.play(move);
+        }
+        BitBoardEngine position = new BitBoardEngine(6, 9, 2);
+        position.copyFrom(engine);
+
+        AlphaBetaSearch search = new AlphaBetaSearch(6, 9, 2);
+        SearchResult result = search.search(position, 100);
+
+        assertTrue(position.isLegalMove(result.getMove()));
+        assertTrue(result.getDepth() >= 1);
+        assertTrue("took " + result.getElapsedNanos() / 1_000_000 + " ms",
+                result.getElapsedNanos() < 400_000_000L);
+    }
+
+    @Test
+    public void cancelBeforeTheSearchStartsIsKept() {
+        BitBoardEngine position = new BitBoardEngine(6, 9, 2);
+        AlphaBetaSearch search = new AlphaBetaSearch(6, 9, 2);
+        int ticket = search.reserveSearch();
+        search.cancel();
+
+        SearchResult cancelled = search.search(position, 60_000, AlphaBetaSearch.MAX_DEPTH, ticket);
+        assertTrue(position.isLegalMove(cancelled.getMove()));
+        assertTrue("took " + cancelled.getElapsedNanos() / 1_000_000 + " ms",
+                cancelled.getElapsedNanos() < 1_000_000_000L);
+
+        // The cancel does not carry over to searches reserved after it
+        SearchResult next = search.search(position, 60_000, 3);
+        assertEquals(3, next.getDepth());
+    }
+
+    @Test
+    public void beatsRandomPlayer() {
+        AlphaBetaSearch search = new AlphaBetaSearch(4, 4, 2);
+        BitBoardEngine game = new BitBoardEngine(4, 4, 2);
+        Random random = new Random(5);
+        int wins = 0;
+        for (int round = 0; round < 10; round++) {
+            game.reset();
+            while (!game.isGameOver()) {
+                if (game.getCurrentPlayer() == 0) {
+                    game.placeAtom(search.search(game, 1000, 2).getMove());
+                } else {
+                    long legal = game.getLegalMoves();
+                    int cell;
+                    do {
+                        cell = random.nextInt(16);
+                    } while ((legal & (1L << cell)) == 0);
+                    game.placeAtom(cell);
+                }
+            }
+            if (game.getWinnerId() == 0) {
+                wins++;
+            }
+        }
+        assertTrue("won " + wins + " of 10", wins >= 8);
+    }
+}
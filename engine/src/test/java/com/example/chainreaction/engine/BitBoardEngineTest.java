@@ -0,0 +1,92 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BitBoardEngineTest {
+
+    @Test
+    public void supportsOnlyBoardsThatFitInALong() {
+        assertTrue(BitBoardEngine.supports(6, 9));
+        assertTrue(BitBoardEngine.supports(8, 8));
+        assertTrue(BitBoardEngine.supports(1, 64));
+        assertFalse(BitBoardEngine.supports(10, 15));
+        assertFalse(BitBoardEngine.supports(1, 1));
+    }
+
+    @Test
+    public void matchesScalarEngineOnRandomGames() {
+        int[][] sizes = {{6, 9}, {8, 8}, {3, 3}, {1, 10}, {2, 32}};
+        for (int[] size : sizes) {
+            for (int numPlayers = 2; numPlayers <= 4; numPlayers++) {
+                for (long seed = 0; seed < 20; seed++) {
+                    playAndCompare(size[0], size[1], numPlayers, seed, 0);
+                    if (seed < 5) {
+                        playAndCompare(size[0], size[1], numPlayers, seed, 3);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void playAndCompare(int rows, int cols, int numPlayers, long seed, int budget) {
+        GameEngine scalar = new GameEngine(rows, cols, numPlayers, null);
+        BitBoardEngine bits = new BitBoardEngine(rows, cols, numPlayers);
+        if (budget > 0) {
+            scalar.setExplosionBudget(budget, budget * 4);
+            bits.setExplosionBudget(budget, budget * 4);
+        }
+        Board board = scalar.getBoard();
+        Random random = new Random(seed);
+
+        // A tight budget keeps defusing chains, so such games need not finish on their own
+        for (int move = 0; move < 1000 && !scalar.isGameOver(); move++) {
+            long legal = bits.getLegalMoves();
+            int cell;
+            do {
+                cell = random.nextInt(rows * cols);
+            } while ((legal & (1L << cell)) == 0);
+            assertTrue(scalar.isLegalMove(board.rowOf(cell), board.colOf(cell)));
+
+            MoveResult result = scalar.placeAtom(board.rowOf(cell), board.colOf(cell));
+            int waves = bits.placeAtom(cell);
+
+            String where = rows + "x" + cols + " players=" + numPlayers + " seed=" + seed
+                    + " budget=" + budget + " move=" + move;
+            assertEquals(where, result.getWaves().size(), waves);
+            assertEquals(where, result.isSaturated(), bits.isLastMoveSaturated());
+            for (int i = 0; i < board.getCellCount(); i++) {
+                assertEquals(where + " cell=" + i, board.getAtomCount(i), bits.getAtomCount(i));
+                assertEquals(where + " cell=" + i, board.getOwnerPlayerId(i), bits.getOwnerPlayerId(i));
+                assertEquals(where + " cell=" + i, board.getClickCount(i), bits.getClickCount(i));
+            }
+            assertEquals(where, board.getOccupiedCount(), bits.getOccupiedCount());
+            assertEquals(where, scalar.getCurrentPlayerIndex(), bits.getCurrentPlayer());
+            assertEquals(where, scalar.isGameOver(), bits.isGameOver());
+            assertEquals(where, scalar.getWinnerId(), bits.getWinnerId());
+        }
+    }
+
+    @Test
+    public void copyFromRestoresPosition() {
+        BitBoardEngine engine = new BitBoardEngine(6, 9, 2);
+        engine.placeAtom(0);
+        engine.placeAtom(53);
+        BitBoardEngine saved = new BitBoardEngine(6, 9, 2);
+        saved.copyFrom(engine);
+
+        engine.placeAtom(0);
+        assertEquals(1, engine.getLastWaveCount());
+
+        engine.copyFrom(saved);
+        assertFalse(engine.isLastMoveSaturated());
+        assertEquals(1, engine.getAtomCount(0));
+        assertEquals(0, engine.getOwnerPlayerId(0));
+        assertEquals(0, engine.getCurrentPlayer());
+        assertEquals(1, engine.getPlayerAtomCount(0));
+        assertEquals(1, engine.getPlayerCellCount(1));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the play -> propagate -> game-over path does not allocate once
+ * warmed up, using HotSpot's per-thread allocation counter.
+ */
+public class EngineAllocationTest {
+
+    private static int playRandomGames(GameEngine engine, BitBoardEngine bits, Random random, int games) {
+        int cells = engine.getBoard().getCellCount();
+        int moves = 0;
+        for (int g = 0; g < games; g++) {
+            engine.reset();
+            bits.reset();
+            while (!engine.isGameOver()) {
+                int cell = random.nextInt(cells);
+                if (engine.play(cell) >= 0) {
+                    bits.placeAtom(cell);
+                    moves++;
+                }
+            }
+        }
+        return moves;
+    }
+
+    @Test
+    public void steadyStatePlayDoesNotAllocate() {
+        Assume.assumeTrue(AllocationCounter.isSupported());
+
+        GameEngine engine = new GameEngine(6, 9, 2, null);
+        BitBoardEngine bits = new BitBoardEngine(6, 9, 2);
+        Random random = new Random(7);
+
+        // Warm up until the explosion log has grown to its working size and the
+        // JIT has finished compiling the hot path, which can allocate once
+        playRandomGames(engine, bits, random, 5_000);
+
+        long start = AllocationCounter.start();
+        int moves = playRandomGames(engine, bits, random, 200);
+        long allocated = AllocationCounter.allocatedSince(start);
+
+        assertTrue(moves > 1000);
+        assertEquals("bytes allocated over " + moves + " moves", 0, allocated);
+    }
+
+    @Test
+    public void resetStartsAFreshGame() {
+        GameEngine engine = new GameEngine(3, 3, 2, null);
+        engine.play(0);
+        engine.play(8);
+        engine.reset();
+
+        Board board = engine.getBoard();
+        for (int i = 0; i < board.getCellCount(); i++) {
+            assertEquals(0, board.getAtomCount(i));
+            assertEquals(-1, board.getOwnerPlayerId(i));
+            assertEquals(0, board.getClickCount(i));
+        }
+        assertEquals(0, engine.getPlayerAtomCount(0));
+        assertEquals(0, engine.getCurrentPlayerIndex());
+        assertFalse(engine.isGameOver());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final List<List<String>> LINEUPS = Arrays.asList(
+            Arrays.asList("Ana", "Bo"),
+            Arrays.asList("Bo", "Chidi", "Dee"),
+            Arrays.asList("Ana", "Chidi", "Dee", "Eli"));
+
+    /** Plays a random game and returns its replay; the winner is left in {@code winner[0]}. */
+    private static byte[] playGame(List<String> names, long seed, int[] winner) throws IOException {
+        GameEngine engine = new GameEngine(6, 9, names.size(), names);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayWriter writer = new ReplayWriter(bytes, engine);
+        Random random = new Random(seed);
+        while (!engine.isGameOver()) {
+            int cell = random.nextInt(54);
+            if (engine.play(cell) >= 0) {
+                writer.writeMove(cell);
+            }
+        }
+        writer.close();
+        winner[0] = engine.getWinnerId();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void listsFiltersAndLoadsGamesAfterReopening() throws IOException {
+        File dir = folder.newFolder("archive");
+        int games = 600;
+        int[] winners = new int[games];
+        byte[][] replays = new byte[games][];
+        int[] winner = new int[1];
+        try (GameArchive archive = GameArchive.open(dir)) {
+            for (int g = 0; g < games; g++) {
+                replays[g] = playGame(LINEUPS.get(g % 3), g, winner);
+                winners[g] = winner[0];
+                assertEquals(g + 1, archive.append(1_000L * g, winner[0], replays[g]));
+            }
+        }
+
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertEquals(games, archive.size());
+            for (int g = 0; g < games; g += 37) {
+                assertEquals(g + 1, archive.getGameId(g));
+                assertEquals(1_000L * g, archive.getTimestamp(g));
+                assertEquals(winners[g], archive.getWinnerId(g));
+                assertEquals(LINEUPS.get(g % 3).size(), archive.getPlayerCount(g));
+                assertEquals(replays[g].length, archive.getLength(g));
+
+                ReplayReader reader = archive.openReplay(g);
+                assertEquals(LINEUPS.get(g % 3), reader.getPlayerNames());
+                assertEquals(archive.getMoveCount(g), reader.getMoveCount());
+                GameEngine end = reader.seek(reader.getMoveCount());
+                assertTrue(end.isGameOver());
+                assertEquals(winners[g], end.getWinnerId());
+            }
+
+            int[] wonByFirst = archive.findByWinner(0);
+            int expected = 0;
+            for (int g = 0; g < games; g++) {
+                if (winners[g] == 0) {
+                    assertEquals(g, wonByFirst[expected++]);
+                }
+            }
+            assertEquals(expected, wonByFirst.length);
+
+            // Bo sits in the first two lineups only
+            int[] withBo = archive.findByPlayer("Bo");
+            assertEquals(400, withBo.length);
+            for (int g : withBo) {
+                assertNotEquals(2, g % 3);
+            }
+            assertEquals(0, archive.findByPlayer("Zed").length);
+        }
+    }
+
+    @Test
+    public void halfAppendedGameIsDroppedAndOverwritten() throws IOException {
+        File dir = folder.newFolder("archive");
+        int[] winner = new int[1];
+        byte[] first = playGame(LINEUPS.get(0), 1, winner);
+        try (GameArchive archive = GameArchive.open(dir)) {
+            archive.append(1, winner[0], first);
+            archive.append(2, winner[0], playGame(LINEUPS.get(1), 2, winner));
+        }
+        // Simulate dying before the second game was committed
+        try (RandomAccessFile index = new RandomAccessFile(new File(dir, GameArchive.INDEX_FILE), "rw")) {
+            index.seek(8);
+            index.writeInt(Integer.reverseBytes(1));
+        }
+
+        try (GameArchive archive = GameArchive.open(dir)) {
+            assertEquals(1, archive.size());
+            byte[] third = playGame(LINEUPS.get(2), 3, winner);
+            assertEquals(2, archive.append(3, winner[0], third));
+            ByteBuffer stored = archive.getReplayBytes(1);
+            byte[] bytes = new byte[stored.remaining()];
+            stored.get(bytes);
+            assertArrayEquals(third, bytes);
+            assertEquals(LINEUPS.get(2), archive.openReplay(1).getPlayerNames());
+            assertEquals(LINEUPS.get(0), archive.openReplay(0).getPlayerNames());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        File dir = folder.newFolder("archive");
+        try (RandomAccessFile index = new RandomAccessFile(new File(dir, GameArchive.INDEX_FILE), "rw")) {
+            index.writeBytes("definitely not an archive index");
+        }
+        GameArchive.open(dir).close();
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameEngineTest {
+
+    private static GameEngine newGame(int rows, int cols, int players) {
+        return new GameEngine(rows, cols, players, Arrays.asList("A", "B", "C", "D"));
+    }
+
+    private static void seed(Board board, int row, int col, int playerId, int atoms) {
+        board.setCell(board.indexOf(row, col), playerId, atoms);
+    }
+
+    @Test
+    public void capacityMatchesNeighbourCount() {
+        Board board = new Board(6, 9);
+        assertEquals(2, board.getMaxCapacity(board.indexOf(0, 0)));
+        assertEquals(3, board.getMaxCapacity(board.indexOf(0, 4)));
+        assertEquals(4, board.getMaxCapacity(board.indexOf(3, 4)));
+        assertEquals(2, board.getMaxCapacity(board.indexOf(5, 8)));
+    }
+
+    @Test
+    public void neighborTableListsOrthogonalCells() {
+        Board board = new Board(6, 9);
+        int corner = board.indexOf(0, 0);
+        assertEquals(board.indexOf(1, 0), board.getNeighbor(corner, 0));
+        assertEquals(board.indexOf(0, 1), board.getNeighbor(corner, 1));
+
+        int centre = board.indexOf(3, 4);
+        assertEquals(board.indexOf(2, 4), board.getNeighbor(centre, 0));
+        assertEquals(board.indexOf(4, 4), board.getNeighbor(centre, 1));
+        assertEquals(board.indexOf(3, 3), board.getNeighbor(centre, 2));
+        assertEquals(board.indexOf(3, 5), board.getNeighbor(centre, 3));
+    }
+
+    @Test
+    public void geometryIsSharedPerSize() {
+        assertSame(new Board(6, 9).getGeometry(), new Board(6, 9).getGeometry());
+        assertSame(BoardGeometry.torus(6, 9), BoardGeometry.torus(6, 9));
+        assertNotSame(BoardGeometry.rectangle(6, 9), BoardGeometry.torus(6, 9));
+        assertNotSame(BoardGeometry.rectangle(6, 9), BoardGeometry.rectangle(9, 6));
+    }
+
+    @Test
+    public void torusWrapsAroundEdges() {
+        BoardGeometry torus = BoardGeometry.torus(4, 5);
+        for (int i = 0; i < torus.getCellCount(); i++) {
+            assertEquals(4, torus.getCapacity(i));
+        }
+        Board board = new Board(torus);
+        int corner = board.indexOf(0, 0);
+        assertEquals(board.indexOf(3, 0), board.getNeighbor(corner, 0));
+        assertEquals(board.indexOf(1, 0), board.getNeighbor(corner, 1));
+        assertEquals(board.indexOf(0, 4), board.getNeighbor(corner, 2));
+        assertEquals(board.indexOf(0, 1), board.getNeighbor(corner, 3));
+    }
+
+    @Test
+    public void torusGamesTerminate() {
+        for (long seed = 0; seed < 20; seed++) {
+            GameEngine engine = new GameEngine(BoardGeometry.torus(5, 5), 3, null);
+            Random random = new Random(seed);
+            int moves = 0;
+            while (!engine.isGameOver()) {
+                if (engine.play(random.nextInt(25)) >= 0) {
+                    moves++;
+                }
+                assertTrue("seed " + seed + " did not finish", moves < 10_000);
+            }
+        }
+    }
+
+    @Test
+    public void quietMovePassesTurn() {
+        GameEngine engine = newGame(6, 9, 2);
+        MoveResult result = engine.placeAtom(2, 3);
+
+        Board board = engine.getBoard();
+        assertNotNull(result);
+        assertFalse(result.hasExplosions());
+        assertEquals(1, board.getAtomCount(board.indexOf(2, 3)));
+        assertEquals(0, board.getOwnerPlayerId(board.indexOf(2, 3)));
+        assertEquals(1, engine.getCurrentPlayerIndex());
+    }
+
+    @Test
+    public void rejectsOpponentCellAndOutOfBounds() {
+        GameEngine engine = newGame(6, 9, 2);
+        engine.placeAtom(0, 0);
+
+        assertNull(engine.placeAtom(0, 0));
+        assertNull(engine.placeAtom(-1, 0));
+        assertNull(engine.placeAtom(6, 0));
+        assertEquals(1, engine.getCurrentPlayerIndex());
+    }
+
+    @Test
+    public void chainReactionResolvesSynchronouslyInWaves() {
+        GameEngine engine = newGame(3, 3, 2);
+        Board board = engine.getBoard();
+        seed(board, 0, 0, 0, 1);
+        seed(board, 0, 1, 0, 2);
+        seed(board, 2, 2, 1, 1);
+
+        MoveResult result = engine.placeAtom(0, 0);
+
+        List<ExplosionWave> waves = result.getWaves();
+        assertEquals(2, waves.size());
+        assertEquals(0, waves.get(0).getRow(0));
+        assertEquals(0, waves.get(0).getCol(0));
+        assertEquals(0, waves.get(1).getRow(0));
+        assertEquals(1, waves.get(1).getCol(0));
+
+        assertEquals(1, board.getAtomCount(board.indexOf(0, 0)));
+        assertEquals(0, board.getAtomCount(board.indexOf(0, 1)));
+        assertEquals(1, board.getAtomCount(board.indexOf(0, 2)));
+        assertEquals(1, board.getAtomCount(board.indexOf(1, 0)));
+        assertEquals(1, board.getAtomCount(board.indexOf(1, 1)));
+        assertFalse(result.isGameOver());
+        assertEquals(1, engine.getCurrentPlayerIndex());
+    }
+
+    @Test
+    public void cellHitByTwoNeighboursExplodesOncePerWave() {
+        GameEngine engine = newGame(3, 3, 2);
+        Board board = engine.getBoard();
+        seed(board, 0, 0, 0, 1);
+        seed(board, 0, 1, 0, 2);
+        seed(board, 1, 0, 0, 2);
+        seed(board, 1, 1, 0, 3);
+        seed(board, 2, 2, 1, 1);
+
+        MoveResult result = engine.placeAtom(0, 0);
+
+        ExplosionWave second = result.getWaves().get(1);
+        assertEquals(2, second.size());
+        ExplosionWave third = result.getWaves().get(2);
+        int centre = board.indexOf(1, 1);
+        int hits = 0;
+        for (int i = 0; i < third.size(); i++) {
+            if (third.getCell(i) == centre) {
+                hits++;
+            }
+        }
+        assertEquals(1, hits);
+    }
+
+    @Test
+    public void explosionCapturesOpponentAndEndsGame() {
+        GameEngine engine = newGame(3, 3, 2);
+        Board board = engine.getBoard();
+        seed(board, 0, 0, 0, 1);
+        seed(board, 0, 1, 1, 1);
+
+        MoveResult result = engine.placeAtom(0, 0);
+
+        assertEquals(0, board.getOwnerPlayerId(board.indexOf(0, 1)));
+        assertEquals(2, board.getAtomCount(board.indexOf(0, 1)));
+        assertEquals(Arrays.asList(1), result.getEliminatedPlayerIds());
+        assertTrue(result.isGameOver());
+        assertEquals(0, result.getWinnerId());
+        assertNull(engine.placeAtom(2, 2));
+    }
+
+    @Test
+    public void chainStopsOnceOnlyOnePlayerHasAtoms() {
+        GameEngine engine = newGame(2, 2, 2);
+        Board board = engine.getBoard();
+        seed(board, 0, 0, 0, 1);
+        seed(board, 0, 1, 0, 1);
+        seed(board, 1, 0, 0, 1);
+        seed(board, 1, 1, 1, 1);
+
+        MoveResult result = engine.placeAtom(0, 0);
+
+        assertEquals(2, result.getWaves().size());
+        assertFalse(result.isSaturated());
+        assertTrue(result.isGameOver());
+        assertEquals(0, result.getWinnerId());
+        assertEquals(0, engine.getPlayerAtomCount(1));
+    }
+
+    @Test
+    public void waveBudgetSaturatesChain() {
+        GameEngine engine = newGame(3, 3, 2);
+        engine.setExplosionBudget(1, 100);
+        Board board = engine.getBoard();
+        seed(board, 0, 0, 0, 1);
+        seed(board, 0, 1, 0, 2);
+        seed(board, 2, 2, 1, 1);
+
+        MoveResult result = engine.placeAtom(0, 0);
+
+        assertEquals(1, result.getWaves().size());
+        assertTrue(result.isSaturated());
+        // The cell that would have exploded next is defused to one below capacity
+        assertEquals(2, board.getAtomCount(board.indexOf(0, 1)));
+        assertEquals(0, board.getOwnerPlayerId(board.indexOf(0, 1)));
+        assertEquals(1, engine.getCurrentPlayerIndex());
+    }
+
+    private static void assertSameCells(String where, Board expected, Board actual) {
+        for (int i = 0; i < expected.getCellCount(); i++) {
+            assertEquals(where + ", cell " + i, expected.getOwnerPlayerId(i), actual.getOwnerPlayerId(i));
+            assertEquals(where + ", cell " + i, expected.getAtomCount(i), actual.getAtomCount(i));
+        }
+    }
+
+    @Test
+    public void wavesStepTheBoardFromTheMoveToItsResult() {
+        for (long seed = 0; seed < 20; seed++) {
+            GameEngine engine = newGame(6, 9, 3);
+            // Some games run out of budget, so the defused cells are covered too
+            if (seed % 4 == 0) {
+                engine.setExplosionBudget(3, 20);
+            }
+            Board before = new Board(6, 9);
+            Board shown = new Board(6, 9);
+            Random random = new Random(seed);
+            while (!engine.isGameOver()) {
+                before.copyFrom(engine.getBoard());
+                int cell = random.nextInt(54);
+                MoveResult result = engine.placeAtom(cell / 9, cell % 9);
+                if (result == null || !result.hasExplosions()) {
+                    continue;
+                }
+                List<ExplosionWave> waves = result.getWaves();
+                shown.copyFrom(engine.getBoard());
+                for (int w = waves.size() - 1; w >= 0; w--) {
+                    assertTrue(waves.get(w).hasChanges());
+                    waves.get(w).revert(shown);
+                }
+                // Back at the move: only the clicked cell differs from the board before it
+                before.setCell(cell, result.getPlayerId(), shown.getAtomCount(cell));
+                assertSameCells("seed " + seed + " before the waves", before, shown);
+
+                for (ExplosionWave wave : waves) {
+                    for (int i = 0; i < wave.size(); i++) {
+                        assertTrue("seed " + seed + " wave " + wave.getIndex(),
+                                shown.isFull(wave.getCell(i)));
+                    }
+                    wave.applyTo(shown);
+                }
+                assertSameCells("seed " + seed + " after the waves", engine.getBoard(), shown);
+            }
+        }
+    }
+
+    @Test
+    public void randomGamesAlwaysTerminate() {
+        for (long seed = 0; seed < 50; seed++) {
+            GameEngine engine = newGame(6, 9, 2);
+            Random random = new Random(seed);
+            int moves = 0;
+            while (!engine.isGameOver()) {
+                int row = random.nextInt(6);
+                int col = random.nextInt(9);
+                if (engine.placeAtom(row, col) != null) {
+                    moves++;
+                }
+                assertTrue("seed " + seed + " did not finish", moves < 10_000);
+            }
+        }
+    }
+
+    @Test
+    public void playerCountersAndOccupiedCellsMatchFullScan() {
+        for (long seed = 0; seed < 20; seed++) {
+            GameEngine engine = newGame(6, 9, 3);
+            Board board = engine.getBoard();
+            Random random = new Random(seed);
+            while (!engine.isGameOver()) {
+                int row;
+                int col;
+                do {
+                    row = random.nextInt(6);
+                    col = random.nextInt(9);
+                } while (!engine.isLegalMove(row, col));
+                engine.placeAtom(row, col);
+
+                for (int player = 0; player < 3; player++) {
+                    int atoms = 0;
+                    int cells = 0;
+                    for (int i = 0; i < board.getCellCount(); i++) {
+                        if (board.getOwnerPlayerId(i) == player) {
+                            atoms += board.getAtomCount(i);
+                            cells++;
+                        }
+                    }
+                    assertEquals(atoms, engine.getPlayerAtomCount(player));
+                    assertEquals(cells, engine.getPlayerCellCount(player));
+                }
+
+                int occupied = 0;
+                for (int i = 0; i < board.getCellCount(); i++) {
+                    if (board.getOwnerPlayerId(i) >= 0) {
+                        occupied++;
+                    }
+                }
+                assertEquals(occupied, board.getOccupiedCount());
+                for (int k = 0; k < board.getOccupiedCount(); k++) {
+                    assertTrue(board.getOwnerPlayerId(board.getOccupiedCell(k)) >= 0);
+                }
+            }
+        }
+    }
+}
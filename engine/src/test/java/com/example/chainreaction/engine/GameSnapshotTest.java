@@ -0,0 +1,161 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameSnapshotTest {
+
+    private static void assertSameGame(String where, GameEngine expected, GameEngine actual) {
+        Board a = expected.getBoard();
+        Board b = actual.getBoard();
+        for (int i = 0; i < a.getCellCount(); i++) {
+            assertEquals(where, a.getOwnerPlayerId(i), b.getOwnerPlayerId(i));
+            assertEquals(where, a.getAtomCount(i), b.getAtomCount(i));
+            assertEquals(where, a.getClickCount(i), b.getClickCount(i));
+        }
+        for (int p = 0; p < expected.getPlayers().size(); p++) {
+            assertEquals(where, expected.getPlayers().get(p).isActive(), actual.getPlayers().get(p).isActive());
+            assertEquals(where, expected.getPlayers().get(p).getName(), actual.getPlayers().get(p).getName());
+            assertEquals(where, expected.getPlayerAtomCount(p), actual.getPlayerAtomCount(p));
+        }
+        assertEquals(where, a.getOccupiedCount(), b.getOccupiedCount());
+        assertEquals(where, expected.getPositionHash(), actual.getPositionHash());
+        assertEquals(where, expected.getCurrentPlayerIndex(), actual.getCurrentPlayerIndex());
+        assertEquals(where, expected.isGameOver(), actual.isGameOver());
+        assertEquals(where, expected.getWinnerId(), actual.getWinnerId());
+    }
+
+    @Test
+    public void restoresEveryPositionOfRandomGames() throws IOException {
+        for (long seed = 0; seed < 10; seed++) {
+            GameEngine engine = new GameEngine(6, 9, 3, Arrays.asList("Ana", "Bo", "Chidi"));
+            Random random = new Random(seed);
+            while (!engine.isGameOver()) {
+                if (engine.play(random.nextInt(54)) < 0) {
+                    continue;
+                }
+                GameEngine restored = GameSnapshot.read(GameSnapshot.write(engine, null, 0)).getEngine();
+                assertSameGame("seed " + seed, engine, restored);
+
+                // The restored game must also play on identically
+                int cell;
+                do {
+                    cell = random.nextInt(54);
+                } while (!engine.isGameOver() && !restored.isLegalMove(cell / 9, cell % 9));
+                if (!engine.isGameOver()) {
+                    GameEngine copy = new GameEngine(6, 9, 3, Arrays.asList("Ana", "Bo", "Chidi"));
+                    copy.copyFrom(engine);
+                    assertEquals(copy.play(cell), restored.play(cell));
+                    assertSameGame("seed " + seed + " after move", copy, restored);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void keepsPendingExplosionWaves() throws IOException {
+        GameEngine engine = new GameEngine(3, 3, 2, null);
+        Board board = engine.getBoard();
+        board.setCell(board.indexOf(0, 0), 0, 1);
+        board.setCell(board.indexOf(0, 1), 0, 2);
+        board.setCell(board.indexOf(2, 2), 1, 1);
+        MoveResult result = engine.placeAtom(0, 0);
+
+        GameSnapshot snapshot = GameSnapshot.read(GameSnapshot.write(engine, result, 1));
+
+        MoveResult pending = snapshot.getPendingResult();
+        assertEquals(1, snapshot.getNextWaveIndex());
+        assertEquals(0, pending.getRow());
+        assertEquals(0, pending.getCol());
+        assertEquals(result.getPlayerId(), pending.getPlayerId());
+        assertEquals(result.getWaves().size(), pending.getWaves().size());
+        for (int w = 0; w < result.getWaves().size(); w++) {
+            ExplosionWave expected = result.getWaves().get(w);
+            ExplosionWave actual = pending.getWaves().get(w);
+            assertEquals(w, actual.getIndex());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getRow(i), actual.getRow(i));
+                assertEquals(expected.getCol(i), actual.getCol(i));
+            }
+            assertTrue(actual.hasChanges());
+            assertEquals(expected.getChangeCount(), actual.getChangeCount());
+            for (int i = 0; i < expected.getChangeCount(); i++) {
+                assertEquals(expected.getChangedCell(i), actual.getChangedCell(i));
+                assertEquals(expected.getOwnerBefore(i), actual.getOwnerBefore(i));
+                assertEquals(expected.getAtomsBefore(i), actual.getAtomsBefore(i));
+                assertEquals(expected.getOwnerAfter(i), actual.getOwnerAfter(i));
+                assertEquals(expected.getAtomsAfter(i), actual.getAtomsAfter(i));
+            }
+        }
+        assertEquals(result.getEliminatedPlayerIds(), pending.getEliminatedPlayerIds());
+        assertEquals(result.isGameOver(), pending.isGameOver());
+        assertEquals(result.isSaturated(), pending.isSaturated());
+        assertSameGame("pending", engine, snapshot.getEngine());
+    }
+
+    @Test
+    public void restoresTorusGames() throws IOException {
+        GameEngine engine = new GameEngine(BoardGeometry.torus(5, 5), 2, null);
+        engine.play(0);
+        engine.play(24);
+        GameSnapshot snapshot = GameSnapshot.read(GameSnapshot.write(engine, null, 0));
+        assertTrue(snapshot.getEngine().getBoard().getGeometry().isWrapping());
+        assertNull(snapshot.getPendingResult());
+        assertSameGame("torus", engine, snapshot.getEngine());
+    }
+
+    @Test
+    public void rejectsNewerVersionsAndForeignData() {
+        byte[] data = GameSnapshot.write(new GameEngine(6, 9, 2, null), null, 0);
+        data[4] = (byte) (GameSnapshot.VERSION + 1);
+        try {
+            GameSnapshot.read(data);
+            fail("accepted a newer version");
+        } catch (IOException expected) {
+        }
+        try {
+            GameSnapshot.read("not a snapshot".getBytes());
+            fail("accepted foreign data");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void rejectsCorruptSnapshotsWithIOException() {
+        // Header of a 6x9 snapshot whose row count is a varint for -1
+        byte[] negativeSide = {'C', 'R', 'S', 'N', GameSnapshot.VERSION,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 9, 0, 2};
+        try {
+            GameSnapshot.read(negativeSide);
+            fail("accepted a negative row count");
+        } catch (IOException expected) {
+        }
+
+        GameEngine engine = new GameEngine(3, 3, 2, null);
+        Board board = engine.getBoard();
+        board.setCell(board.indexOf(0, 0), 0, 1);
+        board.setCell(board.indexOf(0, 1), 0, 2);
+        board.setCell(board.indexOf(2, 2), 1, 1);
+        MoveResult result = engine.placeAtom(0, 0);
+        byte[] data = GameSnapshot.write(engine, result, 1);
+        Random random = new Random(7);
+        for (int trial = 0; trial < 20000; trial++) {
+            byte[] corrupt = data.clone();
+            corrupt[5 + random.nextInt(corrupt.length - 5)] = (byte) random.nextInt(256);
+            if (random.nextBoolean()) {
+                corrupt[5 + random.nextInt(corrupt.length - 5)] = (byte) random.nextInt(256);
+            }
+            try {
+                GameSnapshot.read(corrupt);
+            } catch (IOException expected) {
+                // Anything but a checked rejection fails the test
+            }
+        }
+    }
+}
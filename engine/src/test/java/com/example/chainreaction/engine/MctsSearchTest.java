@@ -0,0 +1,101 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MctsSearchTest {
+
+    @Test
+    public void findsTheWinningCapture() throws InterruptedException {
+        GameEngine engine = new GameEngine(3, 3, 2, null);
+        Board board = engine.getBoard();
+        board.setCell(board.indexOf(0, 0), 0, 1);
+        board.setCell(board.indexOf(0, 1), 1, 1);
+        board.setCell(board.indexOf(2, 2), 0, 1);
+        BitBoardEngine position = new BitBoardEngine(3, 3, 2);
+        position.copyFrom(engine);
+
+        try (MctsSearch search = new MctsSearch(3, 3, 2, 2)) {
+            MctsResult result = search.search(position, 60_000, 4000, 1);
+
+            assertEquals(board.indexOf(0, 0), result.getMove());
+            assertEquals(4000, result.getPlayouts());
+            assertTrue(result.getExpectedReward() > 0.9);
+        }
+    }
+
+    @Test
+    public void stopsAtTimeBudget() throws InterruptedException {
+        BitBoardEngine position = new BitBoardEngine(6, 9, 4);
+        try (MctsSearch search = new MctsSearch(6, 9, 4, 2)) {
+            MctsResult result = search.search(position, 100, Long.MAX_VALUE, 1);
+
+            assertTrue(position.isLegalMove(result.getMove()));
+            assertTrue(result.getPlayouts() > 0);
+            assertTrue("took " + result.getElapsedNanos() / 1_000_000 + " ms",
+                    result.getElapsedNanos() < 500_000_000L);
+        }
+    }
+
+    @Test
+    public void cancelBeforeTheSearchStartsIsKept() throws InterruptedException {
+        BitBoardEngine position = new BitBoardEngine(6, 9, 4);
+        try (MctsSearch search = new MctsSearch(6, 9, 4, 2)) {
+            int ticket = search.reserveSearch();
+            search.cancel();
+
+            MctsResult cancelled = search.search(position, 60_000, Long.MAX_VALUE, 1, ticket);
+            assertTrue(position.isLegalMove(cancelled.getMove()));
+            assertEquals(0, cancelled.getPlayouts());
+
+            MctsResult next = search.search(position, 60_000, 500, 1);
+            assertEquals(500, next.getPlayouts());
+        }
+    }
+
+    @Test
+    public void beatsRandomPlayersInAThreePlayerGame() throws InterruptedException {
+        BitBoardEngine game = new BitBoardEngine(4, 4, 3);
+        Random random = new Random(11);
+        int wins = 0;
+        try (MctsSearch search = new MctsSearch(4, 4, 3, 1)) {
+            for (int round = 0; round < 10; round++) {
+                game.reset();
+                while (!game.isGameOver()) {
+                    if (game.getCurrentPlayer() == 0) {
+                        game.placeAtom(search.search(game, 60_000, 1500, round).getMove());
+                    } else {
+                        long legal = game.getLegalMoves();
+                        int cell;
+                        do {
+                            cell = random.nextInt(16);
+                        } while ((legal & (1L << cell)) == 0);
+                        game.placeAtom(cell);
+                    }
+                }
+                if (game.getWinnerId() == 0) {
+                    wins++;
+                }
+            }
+        }
+        assertTrue("won " + wins + " of 10", wins >= 7);
+    }
+
+    @Test
+    public void treesShareTheMemoryBudgetAndShrinkAfterASearch() throws InterruptedException {
+        long budget = 256 * 1024;
+        BitBoardEngine position = new BitBoardEngine(6, 9, 4);
+        try (MctsSearch search = new MctsSearch(6, 9, 4, 4, budget)) {
+            assertEquals(budget / 4 / MctsSearch.bytesPerNode(4), search.getMaxNodesPerTree());
+
+            // Far more playouts than the trees have room for; full trees keep playing from their leaves
+            MctsResult result = search.search(position, 60_000, 40_000, 1);
+            assertEquals(40_000, result.getPlayouts());
+            assertTrue(position.isLegalMove(result.getMove()));
+            assertTrue("kept " + search.getAllocatedNodes() + " nodes", search.getAllocatedNodes() <= 4 * 1024);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReplayTest {
+
+    private static List<Long> playRecorded(GameEngine engine, ReplayWriter writer, long seed) throws IOException {
+        List<Long> hashes = new ArrayList<>();
+        hashes.add(engine.getPositionHash());
+        Random random = new Random(seed);
+        while (!engine.isGameOver()) {
+            int cell = random.nextInt(engine.getBoard().getCellCount());
+            if (engine.play(cell) >= 0) {
+                writer.writeMove(cell);
+                hashes.add(engine.getPositionHash());
+            }
+        }
+        writer.close();
+        return hashes;
+    }
+
+    @Test
+    public void seeksToEveryMoveInAnyOrder() throws IOException {
+        GameEngine engine = new GameEngine(10, 15, 3, Arrays.asList("Ana", "Bo", "Chidi"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<Long> hashes = playRecorded(engine, new ReplayWriter(bytes, engine), 3);
+
+        ReplayReader reader = new ReplayReader(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(Arrays.asList("Ana", "Bo", "Chidi"), reader.getPlayerNames());
+        assertEquals(hashes.size() - 1, reader.getMoveCount());
+
+        int moves = reader.getMoveCount();
+        int[] order = {moves, 0, moves / 2, 1, moves - 1, ReplayReader.SNAPSHOT_INTERVAL, moves / 3, moves / 3 + 5};
+        for (int n : order) {
+            assertEquals("move " + n, (long) hashes.get(n), reader.seek(n).getPositionHash());
+        }
+        assertTrue(reader.seek(moves).isGameOver());
+    }
+
+    @Test
+    public void logIsAboutOneBytePerMove() throws IOException {
+        GameEngine engine = new GameEngine(6, 9, 2, Arrays.asList("A", "B"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayWriter writer = new ReplayWriter(bytes, engine);
+        playRecorded(engine, writer, 9);
+
+        int header = 4 + 1 + 4 + 2 * 2;
+        assertEquals(header + writer.getMoveCount(), bytes.size());
+    }
+
+    @Test
+    public void torusAndLargeCellIndicesRoundTrip() throws IOException {
+        GameEngine engine = new GameEngine(BoardGeometry.torus(100, 100), 2, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayWriter writer = new ReplayWriter(bytes, engine);
+        engine.play(9_999);
+        writer.writeMove(9_999);
+        engine.play(128);
+        writer.writeMove(128);
+        writer.close();
+
+        ReplayReader reader = new ReplayReader(new ByteArrayInputStream(bytes.toByteArray()));
+        assertTrue(reader.getGeometry().isWrapping());
+        assertEquals(9_999, reader.getMove(0));
+        assertEquals(128, reader.getMove(1));
+        assertEquals(engine.getPositionHash(), reader.seek(2).getPositionHash());
+    }
+
+    @Test
+    public void resumedLogReadsAsOneGame() throws IOException {
+        GameEngine engine = new GameEngine(6, 9, 2, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayWriter writer = new ReplayWriter(bytes, engine);
+        Random random = new Random(9);
+        List<Integer> moves = new ArrayList<>();
+        while (moves.size() < 20) {
+            int cell = random.nextInt(54);
+            if (engine.play(cell) >= 0) {
+                writer.writeMove(cell);
+                moves.add(cell);
+            }
+        }
+        writer.flush();
+        long savedBytes = writer.getByteCount();
+        int savedMoves = writer.getMoveCount();
+        assertEquals(bytes.size(), savedBytes);
+        // A move made after the save reaches the file but not the restored game
+        writer.writeMove(0);
+        writer.close();
+
+        // Cut back to the save and carry on from there
+        ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        resumed.write(bytes.toByteArray(), 0, (int) savedBytes);
+        ReplayWriter continued = new ReplayWriter(resumed, savedBytes, savedMoves);
+        while (!engine.isGameOver()) {
+            int cell = random.nextInt(54);
+            if (engine.play(cell) >= 0) {
+                continued.writeMove(cell);
+                moves.add(cell);
+            }
+        }
+        continued.close();
+        assertEquals(moves.size(), continued.getMoveCount());
+        assertEquals(resumed.size(), continued.getByteCount());
+
+        ReplayReader reader = new ReplayReader(new ByteArrayInputStream(resumed.toByteArray()));
+        assertEquals(moves.size(), reader.getMoveCount());
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals((int) moves.get(i), reader.getMove(i));
+        }
+        assertEquals(engine.getPositionHash(), reader.seek(moves.size()).getPositionHash());
+    }
+
+    @Test
+    public void readsPlayerNamesWithoutTheMoves() throws IOException {
+        GameEngine engine = new GameEngine(6, 9, 2, Arrays.asList("Ana", "Bo"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayWriter writer = new ReplayWriter(bytes, engine);
+        // Off the board, so only a reader that decodes moves would notice
+        writer.writeMove(1_000);
+        writer.close();
+
+        List<String> names = ReplayReader.readPlayerNames(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(Arrays.asList("Ana", "Bo"), names);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        new ReplayReader(new ByteArrayInputStream("not a replay".getBytes()));
+    }
+
+    @Test
+    public void truncatedLogsFailWithIOExceptionOrDropTheCutMove() throws IOException {
+        GameEngine engine = new GameEngine(BoardGeometry.rectangle(200, 200), 2, Arrays.asList("Ana", "Bo"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayWriter writer = new ReplayWriter(bytes, engine);
+        writer.writeMove(39_999);
+        writer.writeMove(0);
+        writer.close();
+        byte[] log = bytes.toByteArray();
+
+        int headerLength = log.length - 4;
+        for (int length = 0; length < log.length; length++) {
+            ByteArrayInputStream prefix = new ByteArrayInputStream(log, 0, length);
+            if (length < headerLength) {
+                try {
+                    new ReplayReader(prefix);
+                    fail("read a log cut to " + length + " bytes");
+                } catch (IOException expected) {
+                    // A cut header is corrupt
+                }
+            } else {
+                // The last move takes one byte and the first three
+                int moves = length == log.length - 1 ? 1 : 0;
+                assertEquals(moves, new ReplayReader(prefix).getMoveCount());
+            }
+        }
+    }
+
+    @Test
+    public void corruptHeadersFailWithIOException() {
+        int[][] headers = {
+                {3, 3, 0, 0},                   // no players
+                {3, 3, 0, 9},                   // more players than a board supports
+                {0, 3, 0, 2},                   // no rows
+                {2, 2, 1, 2},                   // a torus too small to wrap
+                {3, 3, 0, 2, 0xFF, 0x7F},       // a name longer than any player's
+                {0xFF, 0xFF, 0xFF, 0xFF, 0x0F}, // a row count that decodes as negative
+        };
+        for (int[] header : headers) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bytes.write(0x43);
+            bytes.write(0x52);
+            bytes.write(0x52);
+            bytes.write(0x50);
+            bytes.write(1);
+            for (int b : header) {
+                bytes.write(b);
+            }
+            // Enough trailing bytes that nothing fails only for being short
+            bytes.write(new byte[300], 0, 300);
+            try {
+                new ReplayReader(new ByteArrayInputStream(bytes.toByteArray()));
+                fail("read header " + Arrays.toString(header));
+            } catch (IOException expected) {
+                // Corrupt files surface as IOException rather than a runtime exception
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMovesOutsideTheBoard() throws IOException {
+        GameEngine engine = new GameEngine(3, 3, 2, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayWriter writer = new ReplayWriter(bytes, engine);
+        writer.writeMove(9);
+        writer.close();
+        new ReplayReader(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.chainreaction.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void incrementalHashMatchesFullRecompute() {
+        for (long seed = 0; seed < 10; seed++) {
+            GameEngine engine = new GameEngine(6, 9, 3, null);
+            Random random = new Random(seed);
+            while (!engine.isGameOver()) {
+                engine.play(random.nextInt(54));
+                assertEquals(Zobrist.hash(engine.getBoard(), engine.getCurrentPlayerIndex()),
+                        engine.getPositionHash());
+            }
+            engine.reset();
+            assertEquals(Zobrist.turnKey(0), engine.getPositionHash());
+        }
+    }
+
+    @Test
+    public void samePositionHashesEquallyAcrossMoveOrders() {
+        GameEngine first = new GameEngine(6, 9, 2, null);
+        first.play(0);
+        first.play(53);
+        first.play(8);
+        first.play(45);
+        GameEngine second = new GameEngine(6, 9, 2, null);
+        second.play(8);
+        second.play(45);
+        second.play(0);
+        second.play(53);
+
+        assertEquals(first.getPositionHash(), second.getPositionHash());
+        second.play(8);
+        assertNotEquals(first.getPositionHash(), second.getPositionHash());
+    }
+
+    @Test
+    public void storesAndProbesPackedEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42L, 17, 5, -123_456, TranspositionTable.BOUND_LOWER);
+        table.store(43L, -1, 0, 7, TranspositionTable.BOUND_EXACT);
+
+        long entry = table.probe(42L);
+        assertEquals(17, TranspositionTable.move(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(-123_456, TranspositionTable.score(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+        assertEquals(-1, TranspositionTable.move(table.probe(43L)));
+        assertEquals(TranspositionTable.MISS, table.probe(44L));
+    }
+
+    @Test
+    public void deepEntrySurvivesShallowCollision() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 5;
+        long shallow = deep + table.getBucketCount();
+        long newest = deep + 2L * table.getBucketCount();
+
+        table.store(deep, 1, 8, 0, TranspositionTable.BOUND_EXACT);
+        table.store(shallow, 2, 2, 0, TranspositionTable.BOUND_EXACT);
+        assertEquals(1, TranspositionTable.move(table.probe(deep)));
+        assertEquals(2, TranspositionTable.move(table.probe(shallow)));
+
+        // The always-replace slot takes the next shallow entry
+        table.store(newest, 3, 1, 0, TranspositionTable.BOUND_EXACT);
+        assertEquals(1, TranspositionTable.move(table.probe(deep)));
+        assertEquals(TranspositionTable.MISS, table.probe(shallow));
+
+        // Entries of an older search give way to anything
+        table.newSearch();
+        table.store(shallow, 4, 0, 0, TranspositionTable.BOUND_EXACT);
+        assertEquals(TranspositionTable.MISS, table.probe(deep));
+    }
+
+    @Test
+    public void tableReducesSearchedNodes() {
+        BitBoardEngine position = new BitBoardEngine(6, 9, 2);
+        int[] opening = {0, 53, 8, 45, 22, 31, 0, 53};
+        for (int move : opening) {
+            position.placeAtom(move);
+        }
+
+        SearchResult plain = new AlphaBetaSearch(6, 9, 2).search(position, 60_000, 6);
+        SearchResult cached = new AlphaBetaSearch(6, 9, 2, new TranspositionTable(16)).search(position, 60_000, 6);
+
+        assertEquals(6, cached.getDepth());
+        assertTrue(position.isLegalMove(cached.getMove()));
+        assertTrue(cached.getNodes() + " vs " + plain.getNodes(), cached.getNodes() < plain.getNodes());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.chainreaction.server;
+
+import com.example.chainreaction.engine.Board;
+import com.example.chainreaction.engine.BoardView;
+import com.example.chainreaction.engine.ExplosionLog;
+import com.example.chainreaction.engine.GameEngine;
+import com.example.chainreaction.engine.Zobrist;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The cells one move changed, with their new owner and atom count. A move
+ * can only touch the cell it was played on, the cells that exploded and
+ * their neighbours, so {@link #collect} visits just those instead of
+ * diffing the whole board. Instances are reused from move to move.
+ *
+ * <p>Wire form: changed cell count, then per cell in ascending order the gap
+ * to the previous index, {@code owner + 1} ({@code u8}) and atoms ({@code u8}).
+ * A quiet move costs three bytes.
+ */
+public final class BoardDelta {
+    private final int[] cells;
+    private final byte[] owners;
+    private final byte[] atoms;
+    // stamps[i] == epoch when cell i is already in this move's delta
+    private final int[] stamps;
+    private int epoch;
+    private int size;
+
+    public BoardDelta(int cellCount) {
+        this.cells = new int[cellCount];
+        this.owners = new byte[cellCount];
+        this.atoms = new byte[cellCount];
+        this.stamps = new int[cellCount];
+    }
+
+    /** Records the cells changed by the move just played on {@code cell}. */
+    public void collect(GameEngine engine, int cell) {
+        Board board = engine.getBoard();
+        ExplosionLog log = engine.getLastExplosions();
+        epoch++;
+        size = 0;
+        mark(cell);
+        for (int w = 0; w < log.getWaveCount(); w++) {
+            for (int i = 0; i < log.getWaveSize(w); i++) {
+                int exploded = log.getCell(w, i);
+                mark(exploded);
+                for (int k = 0; k < board.getMaxCapacity(exploded); k++) {
+                    mark(board.getNeighbor(exploded, k));
+                }
+            }
+        }
+        Arrays.sort(cells, 0, size);
+        for (int i = 0; i < size; i++) {
+            owners[i] = (byte) board.getOwnerPlayerId(cells[i]);
+            atoms[i] = (byte) board.getAtomCount(cells[i]);
+        }
+    }
+
+    private void mark(int cell) {
+        if (stamps[cell] != epoch) {
+            stamps[cell] = epoch;
+            cells[size++] = cell;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    /** Owner of the {@code i}-th changed cell, or -1 if it is now empty. */
+    public int getOwner(int i) {
+        return owners[i];
+    }
+
+    public int getAtoms(int i) {
+        return atoms[i];
+    }
+
+    public void write(ByteBuffer out) {
+        Protocol.putVarint(out, size);
+        int previous = -1;
+        for (int i = 0; i < size; i++) {
+            Protocol.putVarint(out, cells[i] - previous - 1);
+            out.put((byte) (owners[i] + 1));
+            out.put(atoms[i]);
+            previous = cells[i];
+        }
+    }
+
+    /** Replaces the contents with a delta read from the wire. */
+    public void read(ByteBuffer in) {
+        int count = Protocol.getVarint(in);
+        if (count > cells.length) {
+            throw new IllegalArgumentException("Delta of " + count + " cells");
+        }
+        int previous = -1;
+        for (int i = 0; i < count; i++) {
+            int cell = previous + 1 + Protocol.getVarint(in);
+            if (cell >= cells.length) {
+                throw new IllegalArgumentException("Delta cell " + cell);
+            }
+            cells[i] = cell;
+            owners[i] = (byte) ((in.get() & 0xFF) - 1);
+            atoms[i] = in.get();
+            previous = cell;
+        }
+        size = count;
+    }
+
+    /** Patches a thin client's board. Owners use -1 for an empty cell. */
+    public void applyTo(byte[] boardOwners, byte[] boardAtoms) {
+        for (int i = 0; i < size; i++) {
+            boardOwners[cells[i]] = owners[i];
+            boardAtoms[cells[i]] = atoms[i];
+        }
+    }
+
+    /**
+     * Hash of every cell's owner and atom count. Click counts are left out so
+     * a client that only patches owners and atoms can compute it too.
+     */
+    public static long checksum(BoardView board) {
+        long hash = 0;
+        for (int k = 0; k < board.getOccupiedCount(); k++) {
+            int cell = board.getOccupiedCell(k);
+            hash ^= Zobrist.cellKey(cell, board.getOwnerPlayerId(cell), board.getAtomCount(cell), 0);
+        }
+        return hash;
+    }
+
+    /** {@link #checksum(BoardView)} of a thin client's board. */
+    public static long checksum(byte[] boardOwners, byte[] boardAtoms) {
+        long hash = 0;
+        for (int cell = 0; cell < boardOwners.length; cell++) {
+            if (boardOwners[cell] >= 0) {
+                hash ^= Zobrist.cellKey(cell, boardOwners[cell], boardAtoms[cell], 0);
+            }
+        }
+        return hash;
+    }
+}
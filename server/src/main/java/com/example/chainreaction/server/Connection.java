@@ -0,0 +1,100 @@
+package com.example.chainreaction.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * One client socket. Only the worker that currently owns it touches it; a
+ * connection handed to another worker travels through that worker's
+ * mailbox, which publishes its state. Incoming frames
+ * are decoded in place from a fixed buffer. Outgoing frames are written to
+ * the socket straight from the buffer they were encoded into and are only
+ * copied when the socket cannot take them all.
+ */
+final class Connection {
+    // Requests are small; anything bigger is not a client of this protocol
+    static final int MAX_REQUEST = 256;
+    // A client that stops reading is dropped rather than buffered without bound
+    static final int MAX_PENDING_OUTPUT = 64 * 1024;
+
+    final SocketChannel channel;
+    // Key with the owning worker's selector; null while being handed over
+    SelectionKey key;
+    final ByteBuffer in = ByteBuffer.allocate(MAX_REQUEST);
+    private ByteBuffer pending = ByteBuffer.allocate(0);
+    Room room;
+    int seat = -1;
+    boolean closed;
+
+    Connection(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Sends the readable bytes of {@code frames} without moving its position,
+     * so the same buffer can go to every seat. Returns false if the client
+     * must be dropped.
+     */
+    boolean send(ByteBuffer frames) {
+        if (closed) {
+            return false;
+        }
+        int start = frames.position();
+        try {
+            if (pending.position() == 0) {
+                channel.write(frames);
+            }
+            if (frames.hasRemaining()) {
+                return queue(frames) && updateInterest();
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            frames.position(start);
+        }
+    }
+
+    private boolean queue(ByteBuffer frames) {
+        int needed = pending.position() + frames.remaining();
+        if (needed > MAX_PENDING_OUTPUT) {
+            return false;
+        }
+        if (needed > pending.capacity()) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, Math.min(pending.capacity() * 2, MAX_PENDING_OUTPUT)));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+        pending.put(frames);
+        return true;
+    }
+
+    /** Writes as much queued output as the socket takes. Returns false on a write error. */
+    boolean flush() {
+        pending.flip();
+        try {
+            channel.write(pending);
+        } catch (IOException e) {
+            return false;
+        } finally {
+            pending.compact();
+        }
+        return updateInterest();
+    }
+
+    /** Only ask for OP_WRITE while there is something left to write. */
+    int interestOps() {
+        return pending.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+    }
+
+    private boolean updateInterest() {
+        int ops = interestOps();
+        if (key != null && key.isValid() && key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.chainreaction.server;
+
+import com.example.chainreaction.engine.Board;
+import com.example.chainreaction.engine.GameEngine;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+/**
+ * Blocking client for tests and load generation. It follows the game both
+ * ways a real client could: it replays every {@code MOVED} in a local
+ * {@link GameEngine}, and it patches a bare owner/atom board from the
+ * delta. Both are checked against the delta and every checksum, and any
+ * disagreement is reported as an {@link IOException}.
+ */
+public final class GameClient implements Closeable {
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(2 * (Protocol.HEADER_BYTES + Protocol.MAX_PAYLOAD));
+    private final ByteBuffer out = ByteBuffer.allocate(Connection.MAX_REQUEST);
+    private int seat = -1;
+    private int rows;
+    private int cols;
+    private GameEngine engine;
+    private BoardDelta delta;
+    private byte[] patchedOwners;
+    private byte[] patchedAtoms;
+    private int lastMover;
+    private int lastCell;
+    private int winnerId;
+    private int abortedSeat;
+    private int errorCode;
+    private long bytesReceived;
+
+    public GameClient(InetSocketAddress address) throws IOException {
+        this.channel = SocketChannel.open();
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.connect(address);
+        in.flip();
+    }
+
+    /** Sends {@code JOIN} and waits for the seat. Throws if the server refuses. */
+    public int join(String room, int players, int rows, int cols, String name) throws IOException {
+        out.clear();
+        Protocol.join(out, room, players, rows, cols, name);
+        flush();
+        int type = next();
+        if (type != Protocol.JOINED) {
+            throw new IOException("Join refused with error " + errorCode);
+        }
+        return seat;
+    }
+
+    public void move(int cell) throws IOException {
+        out.clear();
+        Protocol.move(out, cell);
+        flush();
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    /** Reads the next frame, updates the local game and returns the frame type. */
+    public int next() throws IOException {
+        int size;
+        while ((size = Protocol.frameSize(in)) < 0) {
+            in.compact();
+            int n = channel.read(in);
+            in.flip();
+            if (n < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+            bytesReceived += n;
+        }
+        int end = in.position() + size;
+        int limit = in.limit();
+        int type = Protocol.frameType(in);
+        in.position(in.position() + Protocol.HEADER_BYTES).limit(end);
+        switch (type) {
+            case Protocol.JOINED:
+                Protocol.getName(in);
+                seat = in.get();
+                in.get();
+                rows = in.get();
+                cols = in.get();
+                break;
+            case Protocol.START:
+                String[] names = new String[in.get()];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = Protocol.getName(in);
+                }
+                engine = new GameEngine(rows, cols, names.length, Arrays.asList(names));
+                delta = new BoardDelta(rows * cols);
+                patchedOwners = new byte[rows * cols];
+                patchedAtoms = new byte[rows * cols];
+                Arrays.fill(patchedOwners, (byte) -1);
+                break;
+            case Protocol.MOVED:
+                applyMove();
+                break;
+            case Protocol.OVER:
+                winnerId = in.get() - 1;
+                break;
+            case Protocol.ABORTED:
+                abortedSeat = in.get();
+                break;
+            case Protocol.ERROR:
+                errorCode = in.get();
+                break;
+            default:
+                throw new IOException("Unknown frame type " + type);
+        }
+        in.limit(limit).position(end);
+        return type;
+    }
+
+    private void applyMove() throws IOException {
+        lastMover = in.get();
+        lastCell = Protocol.getVarint(in);
+        int flags = in.get();
+        delta.read(in);
+        if (lastMover != engine.getCurrentPlayerIndex() || engine.play(lastCell) < 0) {
+            throw new IOException("Server sent a move this client cannot apply: " + lastCell);
+        }
+        delta.applyTo(patchedOwners, patchedAtoms);
+
+        Board board = engine.getBoard();
+        for (int i = 0; i < delta.size(); i++) {
+            int cell = delta.getCell(i);
+            if (board.getOwnerPlayerId(cell) != delta.getOwner(i) || board.getAtomCount(cell) != delta.getAtoms(i)) {
+                throw new IOException("Delta disagrees with the replayed move at cell " + cell);
+            }
+        }
+        if ((flags & Protocol.FLAG_CHECKSUM) != 0) {
+            long checksum = in.getLong();
+            if (checksum != BoardDelta.checksum(board) || checksum != BoardDelta.checksum(patchedOwners, patchedAtoms)) {
+                throw new IOException("Board checksum mismatch after cell " + lastCell);
+            }
+        }
+    }
+
+    /** Reads frames until one of the given type arrives. */
+    public void await(int type) throws IOException {
+        while (next() != type) {
+            // Skip other messages
+        }
+    }
+
+    public int getSeat() {
+        return seat;
+    }
+
+    /** The local copy of the game, or {@code null} before {@code START}. */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public int getLastMover() {
+        return lastMover;
+    }
+
+    public int getLastCell() {
+        return lastCell;
+    }
+
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    public int getAbortedSeat() {
+        return abortedSeat;
+    }
+
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.chainreaction.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Authoritative game server. An acceptor thread hands new clients to a fixed
+ * set of {@link Worker}s, one event loop per core. Every room is placed on
+ * one worker and lives there until it closes; a client that joins a room
+ * owned by another worker is moved to that worker along with its unread
+ * bytes, so a room and all of its seats are only ever touched by one thread
+ * and need no locking. See {@link Protocol} for the messages.
+ */
+public final class GameServer implements Closeable {
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread thread;
+    private final Worker[] workers;
+    private final Thread[] workerThreads;
+    // Which worker owns each open room; entries are added on first JOIN and removed on close
+    private final ConcurrentMap<String, Worker> roomOwners = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private int nextWorker;
+
+    /** A server with one worker per available processor. */
+    public GameServer(InetSocketAddress address) throws IOException {
+        this(address, Runtime.getRuntime().availableProcessors());
+    }
+
+    public GameServer(InetSocketAddress address, int workerCount) throws IOException {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Need at least one worker, got " + workerCount);
+        }
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.workers = new Worker[workerCount];
+        this.workerThreads = new Thread[workerCount];
+        try {
+            serverChannel.bind(address, 1024);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            for (int i = 0; i < workerCount; i++) {
+                workers[i] = new Worker(this, i);
+                workerThreads[i] = new Thread(workers[i], "game-worker-" + i);
+            }
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        this.thread = new Thread(this::acceptLoop, "game-acceptor");
+    }
+
+    /** The bound port, useful when the server was bound to port 0. */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    public int getRoomCount() {
+        int rooms = 0;
+        for (Worker worker : workers) {
+            rooms += worker.getRoomCount();
+        }
+        return rooms;
+    }
+
+    public int getConnectionCount() {
+        int connections = 0;
+        for (Worker worker : workers) {
+            connections += worker.getConnectionCount();
+        }
+        return connections;
+    }
+
+    /** Current counters of every worker, in worker order. */
+    public List<WorkerMetrics> getMetrics() {
+        List<WorkerMetrics> metrics = new ArrayList<>(workers.length);
+        for (Worker worker : workers) {
+            metrics.add(worker.metrics());
+        }
+        return metrics;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    public void start() {
+        running = true;
+        for (Thread workerThread : workerThreads) {
+            workerThread.start();
+        }
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        for (Worker worker : workers) {
+            worker.wakeup();
+        }
+        try {
+            thread.join();
+            for (Thread workerThread : workerThreads) {
+                workerThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    /**
+     * The worker that owns room {@code name}, placing it on the least loaded
+     * worker if it is not open yet. Called from worker threads.
+     */
+    Worker placeRoom(String name) {
+        Worker owner = roomOwners.get(name);
+        if (owner != null) {
+            return owner;
+        }
+        Worker least = workers[0];
+        for (int i = 1; i < workers.length; i++) {
+            if (workers[i].load() < least.load()) {
+                least = workers[i];
+            }
+        }
+        owner = roomOwners.putIfAbsent(name, least);
+        return owner != null ? owner : least;
+    }
+
+    /** Forgets a placement, unless the name has since been placed elsewhere. */
+    void releaseRoom(String name, Worker worker) {
+        roomOwners.remove(name, worker);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                throw new IllegalStateException("Selector failed", e);
+            }
+            selector.selectedKeys().clear();
+            accept();
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel;
+        try {
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                // Round robin is enough here: rooms are balanced separately when they are joined
+                Worker worker = workers[nextWorker];
+                nextWorker = (nextWorker + 1) % workers.length;
+                Connection connection = new Connection(channel);
+                worker.post(() -> worker.adopt(connection));
+            }
+        } catch (IOException e) {
+            // The client went away before it could be handed to a worker
+        }
+    }
+}
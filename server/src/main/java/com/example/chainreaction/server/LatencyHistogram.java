@@ -0,0 +1,47 @@
+package com.example.chainreaction.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-scale latency histogram: bucket {@code b} counts samples below
+ * {@code 2^b} ns. One thread records; any thread may read. Percentiles are
+ * reported as the upper bound of their bucket, so they overestimate by at
+ * most a factor of two.
+ */
+final class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Only called from the owning thread. */
+    void record(long nanos) {
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+        // Single writer, so a plain increment published with lazySet is enough
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+    }
+
+    long count() {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += counts.get(b);
+        }
+        return total;
+    }
+
+    /** Upper bound of the bucket holding the {@code q} quantile, in ns, or 0 without samples. */
+    long percentile(double q) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return 1L << b;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+}
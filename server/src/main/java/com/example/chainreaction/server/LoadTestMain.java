@@ -0,0 +1,136 @@
+package com.example.chainreaction.server;
+
+import com.example.chainreaction.engine.GameEngine;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures how move throughput scales with the number of workers. For each
+ * worker count it starts a server on loopback, keeps {@code --rooms} two-player
+ * rooms busy with random legal moves for {@code --seconds}, and prints the
+ * moves per second and the per-worker metrics:
+ *
+ * <pre>
+ * --rooms N        rooms played at the same time (default 64)
+ * --workers LIST   comma-separated worker counts to try (default 1,2,4,8)
+ * --seconds N      length of each run (default 10)
+ * --size RxC       board size (default 10x15)
+ * </pre>
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rooms = 64;
+        int[] workerCounts = {1, 2, 4, 8};
+        int seconds = 10;
+        int rows = 10;
+        int cols = 15;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--rooms":
+                    rooms = Integer.parseInt(require(args[i], value));
+                    break;
+                case "--workers":
+                    String[] parts = require(args[i], value).split(",");
+                    workerCounts = new int[parts.length];
+                    for (int w = 0; w < parts.length; w++) {
+                        workerCounts[w] = Integer.parseInt(parts[w].trim());
+                    }
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(require(args[i], value));
+                    break;
+                case "--size":
+                    String[] size = require(args[i], value).split("x");
+                    rows = Integer.parseInt(size[0]);
+                    cols = Integer.parseInt(size[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        System.out.printf("%d rooms, %dx%d boards, %d s per run, %d processors%n",
+                rooms, rows, cols, seconds, Runtime.getRuntime().availableProcessors());
+        for (int workers : workerCounts) {
+            run(workers, rooms, rows, cols, seconds);
+        }
+    }
+
+    private static void run(int workers, int rooms, int rows, int cols, int seconds) throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (GameServer server = new GameServer(new InetSocketAddress(loopback, 0), workers)) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(loopback, server.getPort());
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            ExecutorService pool = Executors.newFixedThreadPool(rooms);
+            try {
+                List<Future<Long>> results = new ArrayList<>();
+                for (int r = 0; r < rooms; r++) {
+                    int room = r;
+                    results.add(pool.submit(() -> playUntil(address, "load" + room, rows, cols, room, deadline)));
+                }
+                long moves = 0;
+                for (Future<Long> result : results) {
+                    moves += result.get();
+                }
+                System.out.printf("%d workers: %.0f moves/s%n", workers, moves / (double) seconds);
+                for (WorkerMetrics metrics : server.getMetrics()) {
+                    System.out.println("  " + metrics);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /** Plays back-to-back games in rooms named after {@code room} and returns the moves made. */
+    private static long playUntil(InetSocketAddress address, String room, int rows, int cols, long seed,
+                                  long deadline) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long moves = 0;
+        for (int game = 0; System.nanoTime() < deadline; game++) {
+            try (GameClient first = new GameClient(address); GameClient second = new GameClient(address)) {
+                String name = room + "-" + game;
+                first.join(name, 2, rows, cols, "a");
+                second.join(name, 2, rows, cols, "b");
+                first.await(Protocol.START);
+                second.await(Protocol.START);
+                GameClient[] clients = {first, second};
+                GameEngine engine = first.getEngine();
+                while (!engine.isGameOver() && System.nanoTime() < deadline) {
+                    int cell;
+                    do {
+                        cell = random.nextInt(rows * cols);
+                    } while (!engine.isLegalMove(cell / cols, cell % cols));
+                    clients[engine.getCurrentPlayerIndex()].move(cell);
+                    first.await(Protocol.MOVED);
+                    second.await(Protocol.MOVED);
+                    moves++;
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.chainreaction.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary wire protocol. Every message is a frame: a big-endian {@code u16}
+ * payload length, a {@code u8} message type and the payload. Integers in
+ * payloads are unsigned LEB128 varints unless noted, and names are a
+ * {@code u8} length followed by ASCII.
+ *
+ * <pre>
+ * client to server
+ *   JOIN     room, players (u8), rows (u8), cols (u8), name
+ *   MOVE     cell                       board index row * cols + col
+ *
+ * server to client
+ *   JOINED   room, seat (u8), players (u8), rows (u8), cols (u8)
+ *   START    player count (u8), names   seat 0 moves first
+ *   MOVED    seat (u8), cell, flags (u8), {@link BoardDelta}, [checksum (i64)]
+ *   OVER     winner + 1 (u8)
+ *   ABORTED  seat (u8)                  a player left; the room is closed
+ *   ERROR    code (u8)                  the last request was rejected
+ * </pre>
+ *
+ * <p>{@code MOVED} carries the move and the cells it changed. A client with
+ * its own engine can replay the move; a thin client can patch its board from
+ * the delta alone. Every {@link #CHECKSUM_INTERVAL}th move, and the move that
+ * ends the game, also carries {@link BoardDelta#checksum} of the whole board
+ * so either kind of client can tell it has drifted.
+ *
+ * <p>The encoders write straight into the caller's buffer and the decoders
+ * read fields in place, so no message is copied into an intermediate array.
+ */
+public final class Protocol {
+    public static final int DEFAULT_PORT = 7777;
+    public static final int HEADER_BYTES = 3;
+    public static final int MAX_PAYLOAD = 8192;
+    public static final int MIN_SIDE = 2;
+    public static final int MAX_SIDE = 32;
+    public static final int CHECKSUM_INTERVAL = 8;
+
+    public static final int JOIN = 0x01;
+    public static final int MOVE = 0x02;
+
+    public static final int JOINED = 0x81;
+    public static final int START = 0x82;
+    public static final int MOVED = 0x83;
+    public static final int OVER = 0x84;
+    public static final int ABORTED = 0x85;
+    public static final int ERROR = 0x86;
+
+    /** Set in a {@code MOVED} frame's flags when a checksum follows the delta. */
+    public static final int FLAG_CHECKSUM = 1;
+
+    public static final int ERROR_BAD_REQUEST = 1;
+    public static final int ERROR_UNKNOWN_TYPE = 2;
+    public static final int ERROR_ALREADY_IN_ROOM = 3;
+    public static final int ERROR_ROOM_UNAVAILABLE = 4;
+    public static final int ERROR_NOT_IN_ROOM = 5;
+    public static final int ERROR_NOT_STARTED = 6;
+    public static final int ERROR_NOT_YOUR_TURN = 7;
+    public static final int ERROR_ILLEGAL_MOVE = 8;
+
+    private Protocol() {
+    }
+
+    /** Room and player names: 1 to 16 letters, digits, '-' or '_'. */
+    public static boolean isValidName(String name) {
+        if (name.isEmpty() || name.length() > 16) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean ok = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts a frame at the buffer's position and returns that position for
+     * {@link #endFrame}. The payload is written after this call.
+     */
+    public static int beginFrame(ByteBuffer out, int type) {
+        int start = out.position();
+        out.putShort((short) 0);
+        out.put((byte) type);
+        return start;
+    }
+
+    /** Fills in the length of the frame begun at {@code start}. */
+    public static void endFrame(ByteBuffer out, int start) {
+        int length = out.position() - start - HEADER_BYTES;
+        if (length > MAX_PAYLOAD) {
+            throw new IllegalStateException("Frame payload of " + length + " bytes");
+        }
+        out.putShort(start, (short) length);
+    }
+
+    /**
+     * Returns the size of the whole frame starting at the buffer's position,
+     * or -1 if it has not fully arrived. Does not move the position.
+     * Throws if the frame claims more than {@link #MAX_PAYLOAD} bytes.
+     */
+    public static int frameSize(ByteBuffer in) {
+        if (in.remaining() < HEADER_BYTES) {
+            return -1;
+        }
+        int length = in.getShort(in.position()) & 0xFFFF;
+        if (length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Frame payload of " + length + " bytes");
+        }
+        return in.remaining() < HEADER_BYTES + length ? -1 : HEADER_BYTES + length;
+    }
+
+    /** Type of the frame at the buffer's position. */
+    public static int frameType(ByteBuffer in) {
+        return in.get(in.position() + 2) & 0xFF;
+    }
+
+    public static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    public static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    public static void putName(ByteBuffer out, String name) {
+        out.put((byte) name.length());
+        for (int i = 0; i < name.length(); i++) {
+            out.put((byte) name.charAt(i));
+        }
+    }
+
+    public static String getName(ByteBuffer in) {
+        int length = in.get() & 0xFF;
+        if (in.hasArray()) {
+            String name = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.US_ASCII);
+            in.position(in.position() + length);
+            return name;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (in.get() & 0x7F);
+        }
+        return new String(chars);
+    }
+
+    // Encoders; each writes one complete frame
+
+    public static void join(ByteBuffer out, String room, int players, int rows, int cols, String name) {
+        int start = beginFrame(out, JOIN);
+        putName(out, room);
+        out.put((byte) players);
+        out.put((byte) rows);
+        out.put((byte) cols);
+        putName(out, name);
+        endFrame(out, start);
+    }
+
+    public static void move(ByteBuffer out, int cell) {
+        int start = beginFrame(out, MOVE);
+        putVarint(out, cell);
+        endFrame(out, start);
+    }
+
+    public static void joined(ByteBuffer out, String room, int seat, int players, int rows, int cols) {
+        int start = beginFrame(out, JOINED);
+        putName(out, room);
+        out.put((byte) seat);
+        out.put((byte) players);
+        out.put((byte) rows);
+        out.put((byte) cols);
+        endFrame(out, start);
+    }
+
+    public static void start(ByteBuffer out, String[] names) {
+        int start = beginFrame(out, START);
+        out.put((byte) names.length);
+        for (String name : names) {
+            putName(out, name);
+        }
+        endFrame(out, start);
+    }
+
+    /** Pass {@code checksum} only when {@code withChecksum} is set. */
+    public static void moved(ByteBuffer out, int seat, int cell, BoardDelta delta, boolean withChecksum, long checksum) {
+        int start = beginFrame(out, MOVED);
+        out.put((byte) seat);
+        putVarint(out, cell);
+        out.put((byte) (withChecksum ? FLAG_CHECKSUM : 0));
+        delta.write(out);
+        if (withChecksum) {
+            out.putLong(checksum);
+        }
+        endFrame(out, start);
+    }
+
+    public static void over(ByteBuffer out, int winnerId) {
+        int start = beginFrame(out, OVER);
+        out.put((byte) (winnerId + 1));
+        endFrame(out, start);
+    }
+
+    public static void aborted(ByteBuffer out, int seat) {
+        int start = beginFrame(out, ABORTED);
+        out.put((byte) seat);
+        endFrame(out, start);
+    }
+
+    public static void error(ByteBuffer out, int code) {
+        int start = beginFrame(out, ERROR);
+        out.put((byte) code);
+        endFrame(out, start);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.chainreaction.server;
+
+import com.example.chainreaction.engine.GameEngine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * One game. Seats fill in join order; the game starts when the last seat is
+ * taken. The room's {@link GameEngine} is the authority: a move is only
+ * broadcast after the engine has accepted it for the seat whose turn it is.
+ * Each broadcast is encoded once and the same bytes go to every seat.
+ */
+final class Room {
+    final String name;
+    final int rows;
+    final int cols;
+    private final Worker worker;
+    private final Connection[] seats;
+    private final String[] names;
+    private final BoardDelta delta;
+    private int joined;
+    private int moves;
+    private GameEngine engine;
+
+    Room(Worker worker, String name, int players, int rows, int cols) {
+        this.worker = worker;
+        this.name = name;
+        this.rows = rows;
+        this.cols = cols;
+        this.seats = new Connection[players];
+        this.names = new String[players];
+        this.delta = new BoardDelta(rows * cols);
+    }
+
+    int getPlayerCount() {
+        return seats.length;
+    }
+
+    boolean isStarted() {
+        return engine != null;
+    }
+
+    boolean isFull() {
+        return joined == seats.length;
+    }
+
+    void join(Connection connection, String playerName) {
+        int seat = joined++;
+        seats[seat] = connection;
+        names[seat] = playerName;
+        connection.room = this;
+        connection.seat = seat;
+        ByteBuffer out = worker.frameBuffer();
+        Protocol.joined(out, name, seat, seats.length, rows, cols);
+        send(connection, out);
+        if (isFull()) {
+            engine = new GameEngine(rows, cols, seats.length, Arrays.asList(names));
+            out = worker.frameBuffer();
+            Protocol.start(out, names);
+            broadcast(out);
+        }
+    }
+
+    /** Applies and broadcasts a move; returns false if it was rejected. */
+    boolean move(Connection connection, int cell) {
+        if (engine == null) {
+            error(connection, Protocol.ERROR_NOT_STARTED);
+            return false;
+        }
+        if (connection.seat != engine.getCurrentPlayerIndex()) {
+            error(connection, Protocol.ERROR_NOT_YOUR_TURN);
+            return false;
+        }
+        if (engine.play(cell) < 0) {
+            error(connection, Protocol.ERROR_ILLEGAL_MOVE);
+            return false;
+        }
+        moves++;
+        delta.collect(engine, cell);
+        boolean over = engine.isGameOver();
+        boolean withChecksum = over || moves % Protocol.CHECKSUM_INTERVAL == 0;
+        ByteBuffer out = worker.frameBuffer();
+        Protocol.moved(out, connection.seat, cell, delta, withChecksum,
+                withChecksum ? BoardDelta.checksum(engine.getBoard()) : 0);
+        if (over) {
+            Protocol.over(out, engine.getWinnerId());
+        }
+        broadcast(out);
+        if (over) {
+            close();
+        }
+        return true;
+    }
+
+    /** A seated player disconnected; the game cannot go on without them. */
+    void leave(Connection connection) {
+        seats[connection.seat] = null;
+        connection.room = null;
+        ByteBuffer out = worker.frameBuffer();
+        Protocol.aborted(out, connection.seat);
+        broadcast(out);
+        close();
+    }
+
+    private void close() {
+        for (Connection seat : seats) {
+            if (seat != null) {
+                seat.room = null;
+                seat.seat = -1;
+            }
+        }
+        Arrays.fill(seats, null);
+        worker.removeRoom(this);
+    }
+
+    private void error(Connection connection, int code) {
+        ByteBuffer out = worker.frameBuffer();
+        Protocol.error(out, code);
+        send(connection, out);
+    }
+
+    private void broadcast(ByteBuffer out) {
+        out.flip();
+        for (Connection seat : seats) {
+            if (seat != null && !seat.send(out)) {
+                worker.drop(seat);
+            }
+        }
+    }
+
+    private void send(Connection connection, ByteBuffer out) {
+        out.flip();
+        if (!connection.send(out)) {
+            worker.drop(connection);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.chainreaction.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Command-line entry point:
+ *
+ * <pre>
+ * --host ADDRESS   interface to listen on (default: all)
+ * --port N         port to listen on (default 7777)
+ * --workers N      event-loop threads (default: one per processor)
+ * </pre>
+ */
+public final class ServerMain {
+
+    private ServerMain() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = null;
+        int port = Protocol.DEFAULT_PORT;
+        int workers = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--host":
+                    host = require(args[i], value);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(require(args[i], value));
+                    break;
+                case "--workers":
+                    workers = Integer.parseInt(require(args[i], value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        InetSocketAddress address = host != null ? new InetSocketAddress(host, port) : new InetSocketAddress(port);
+        GameServer server = new GameServer(address, workers);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // Exiting anyway
+            }
+        }));
+        server.start();
+        System.out.printf("Listening on port %d with %d workers%n", server.getPort(), server.getWorkerCount());
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.printf("%d connections, %d rooms%n", server.getConnectionCount(), server.getRoomCount());
+            for (WorkerMetrics metrics : server.getMetrics()) {
+                System.out.println("  " + metrics);
+            }
+        }
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return value;
+    }
+}
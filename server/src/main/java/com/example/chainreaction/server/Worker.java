@@ -0,0 +1,333 @@
+package com.example.chainreaction.server;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One event loop of the server. A worker owns a selector, the connections
+ * registered with it and the rooms placed on it, and is the only thread that
+ * touches any of them, so rooms need no locks. Other threads reach a worker
+ * only through its mailbox: the acceptor posts new connections, and other
+ * workers post connections that joined one of this worker's rooms.
+ */
+final class Worker implements Runnable {
+    final int index;
+    private final GameServer server;
+    private final Selector selector;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mailboxDepth = new AtomicInteger();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final Map<String, Room> rooms = new HashMap<>();
+    private final List<Connection> dropped = new ArrayList<>();
+    // Room for a MOVED frame followed by an OVER frame
+    private final ByteBuffer frames = ByteBuffer.allocate(2 * (Protocol.HEADER_BYTES + Protocol.MAX_PAYLOAD));
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private volatile int maxMailboxDepth;
+    private volatile int roomCount;
+    private volatile int connectionCount;
+    private volatile long moves;
+
+    Worker(GameServer server, int index) throws IOException {
+        this.server = server;
+        this.index = index;
+        this.selector = Selector.open();
+    }
+
+    int getRoomCount() {
+        return roomCount;
+    }
+
+    int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /** What room placement balances: rooms owned plus work already queued. */
+    int load() {
+        return roomCount + mailboxDepth.get();
+    }
+
+    WorkerMetrics metrics() {
+        return new WorkerMetrics(index, roomCount, connectionCount, mailboxDepth.get(), maxMailboxDepth,
+                moves, moveLatency.percentile(0.50), moveLatency.percentile(0.99));
+    }
+
+    /** Runs {@code task} on this worker's thread. Safe to call from any thread. */
+    void post(Runnable task) {
+        int depth = mailboxDepth.incrementAndGet();
+        if (depth > maxMailboxDepth) {
+            // Racy maximum; an occasional lost update only under-reports a peak
+            maxMailboxDepth = depth;
+        }
+        mailbox.add(task);
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (server.isRunning()) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                throw new IllegalStateException("Selector failed", e);
+            }
+            wakeupPending.set(false);
+            Runnable task;
+            while ((task = mailbox.poll()) != null) {
+                mailboxDepth.decrementAndGet();
+                task.run();
+            }
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                if (connection.closed || connection.key != key) {
+                    continue;
+                }
+                if (key.isWritable() && !connection.flush()) {
+                    drop(connection);
+                }
+                if (key.isValid() && key.isReadable()) {
+                    read(connection);
+                }
+            }
+            // Close connections that failed while another one was being handled
+            for (int i = 0; i < dropped.size(); i++) {
+                disconnect(dropped.get(i));
+            }
+            dropped.clear();
+        }
+        closeAll();
+    }
+
+    /** Takes over a connection from the acceptor or another worker. Worker thread only. */
+    void adopt(Connection connection) {
+        try {
+            connection.key = connection.channel.register(selector, connection.interestOps(), connection);
+        } catch (ClosedChannelException e) {
+            // Gone while in the mailbox; don't leave its room placed here
+            ByteBuffer in = connection.in;
+            in.flip();
+            String roomName = peekRoomName(in);
+            in.compact();
+            if (roomName != null && !rooms.containsKey(roomName)) {
+                server.releaseRoom(roomName, this);
+            }
+            return;
+        }
+        connectionCount++;
+        // Frames that arrived before the handover are already in the buffer
+        decode(connection);
+    }
+
+    private void handOff(Connection connection, Worker owner) {
+        connection.key.cancel();
+        connection.key = null;
+        connectionCount--;
+        owner.post(() -> owner.adopt(connection));
+    }
+
+    private void read(Connection connection) {
+        int n;
+        try {
+            n = connection.channel.read(connection.in);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            drop(connection);
+            return;
+        }
+        decode(connection);
+    }
+
+    private void decode(Connection connection) {
+        // Decode every complete frame in place, then keep the partial one for the next read
+        ByteBuffer in = connection.in;
+        in.flip();
+        try {
+            int size;
+            while (!connection.closed && (size = Protocol.frameSize(in)) >= 0) {
+                int type = Protocol.frameType(in);
+                if (type == Protocol.JOIN && connection.room == null) {
+                    // Rechecked on every worker it reaches, in case the room closed in between
+                    String roomName = peekRoomName(in);
+                    Worker owner = roomName == null ? this : server.placeRoom(roomName);
+                    if (owner != this) {
+                        // Leave the JOIN unread; the room's worker decodes it
+                        in.compact();
+                        handOff(connection, owner);
+                        return;
+                    }
+                }
+                int end = in.position() + size;
+                int limit = in.limit();
+                in.position(in.position() + Protocol.HEADER_BYTES).limit(end);
+                try {
+                    handle(connection, type, in);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    reply(connection, Protocol.ERROR_BAD_REQUEST);
+                }
+                in.limit(limit).position(end);
+            }
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            // A frame longer than any request is not a client of this protocol
+            drop(connection);
+        }
+        in.compact();
+        if (!in.hasRemaining()) {
+            drop(connection);
+        }
+    }
+
+    /** Room name of the {@code JOIN} at the buffer's position, or null if it is malformed. */
+    private static String peekRoomName(ByteBuffer in) {
+        int start = in.position();
+        in.position(start + Protocol.HEADER_BYTES);
+        try {
+            return Protocol.getName(in);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        } finally {
+            in.position(start);
+        }
+    }
+
+    private void handle(Connection connection, int type, ByteBuffer payload) {
+        switch (type) {
+            case Protocol.JOIN:
+                join(connection, payload);
+                break;
+            case Protocol.MOVE:
+                if (connection.room == null) {
+                    reply(connection, Protocol.ERROR_NOT_IN_ROOM);
+                    break;
+                }
+                long start = System.nanoTime();
+                if (connection.room.move(connection, Protocol.getVarint(payload))) {
+                    moveLatency.record(System.nanoTime() - start);
+                    moves++;
+                }
+                break;
+            default:
+                reply(connection, Protocol.ERROR_UNKNOWN_TYPE);
+                break;
+        }
+    }
+
+    private void join(Connection connection, ByteBuffer payload) {
+        if (connection.room != null) {
+            reply(connection, Protocol.ERROR_ALREADY_IN_ROOM);
+            return;
+        }
+        String roomName = Protocol.getName(payload);
+        int players = payload.get();
+        int rows = payload.get();
+        int cols = payload.get();
+        String playerName = Protocol.getName(payload);
+        if (!Protocol.isValidName(roomName) || !Protocol.isValidName(playerName) || players < 2 || players > 4
+                || rows < Protocol.MIN_SIDE || rows > Protocol.MAX_SIDE
+                || cols < Protocol.MIN_SIDE || cols > Protocol.MAX_SIDE) {
+            reply(connection, Protocol.ERROR_BAD_REQUEST);
+            if (!rooms.containsKey(roomName)) {
+                server.releaseRoom(roomName, this);
+            }
+            return;
+        }
+
+        Room room = rooms.get(roomName);
+        if (room == null) {
+            room = new Room(this, roomName, players, rows, cols);
+            rooms.put(room.name, room);
+            roomCount = rooms.size();
+        } else if (room.isFull() || room.getPlayerCount() != players || room.rows != rows || room.cols != cols) {
+            reply(connection, Protocol.ERROR_ROOM_UNAVAILABLE);
+            return;
+        }
+        room.join(connection, playerName);
+    }
+
+    private void reply(Connection connection, int errorCode) {
+        ByteBuffer out = frameBuffer();
+        Protocol.error(out, errorCode);
+        out.flip();
+        if (!connection.send(out)) {
+            drop(connection);
+        }
+    }
+
+    /** Empty buffer to encode outgoing frames into; reused by every message. */
+    ByteBuffer frameBuffer() {
+        frames.clear();
+        return frames;
+    }
+
+    void removeRoom(Room room) {
+        if (rooms.get(room.name) == room) {
+            rooms.remove(room.name);
+            roomCount = rooms.size();
+            server.releaseRoom(room.name, this);
+        }
+    }
+
+    /** Closes a connection once the current event has been handled. */
+    void drop(Connection connection) {
+        if (!connection.closed) {
+            connection.closed = true;
+            dropped.add(connection);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        if (connection.room != null) {
+            connection.room.leave(connection);
+        }
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with it
+        }
+        connectionCount--;
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // Shutting down anyway
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Shutting down anyway
+        }
+    }
+}
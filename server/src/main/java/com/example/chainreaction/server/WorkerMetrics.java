@@ -0,0 +1,68 @@
+package com.example.chainreaction.server;
+
+/** Point-in-time counters of one server worker. */
+public final class WorkerMetrics {
+    private final int worker;
+    private final int rooms;
+    private final int connections;
+    private final int mailboxDepth;
+    private final int maxMailboxDepth;
+    private final long moves;
+    private final long p50Nanos;
+    private final long p99Nanos;
+
+    WorkerMetrics(int worker, int rooms, int connections, int mailboxDepth, int maxMailboxDepth,
+                  long moves, long p50Nanos, long p99Nanos) {
+        this.worker = worker;
+        this.rooms = rooms;
+        this.connections = connections;
+        this.mailboxDepth = mailboxDepth;
+        this.maxMailboxDepth = maxMailboxDepth;
+        this.moves = moves;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+    }
+
+    public int getWorker() {
+        return worker;
+    }
+
+    public int getRooms() {
+        return rooms;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    /** Tasks waiting in the worker's mailbox right now. */
+    public int getMailboxDepth() {
+        return mailboxDepth;
+    }
+
+    /** Deepest the mailbox has been since the worker started. */
+    public int getMaxMailboxDepth() {
+        return maxMailboxDepth;
+    }
+
+    /** Moves accepted since the worker started. */
+    public long getMoves() {
+        return moves;
+    }
+
+    /** Median time to validate, apply and broadcast a move, rounded up to a power of two. */
+    public long getMoveLatencyP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getMoveLatencyP99Nanos() {
+        return p99Nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("worker %d: %d rooms, %d connections, mailbox %d (max %d), %d moves, "
+                        + "move p50 %.1f us, p99 %.1f us",
+                worker, rooms, connections, mailboxDepth, maxMailboxDepth, moves, p50Nanos / 1e3, p99Nanos / 1e3);
+    }
+}
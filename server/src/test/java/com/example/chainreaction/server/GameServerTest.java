@@ -0,0 +1,197 @@
+package com.example.chainreaction.server;
+
+import com.example.chainreaction.engine.GameEngine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class GameServerTest {
+    private static final int WORKERS = 4;
+
+    private GameServer server;
+    private InetSocketAddress address;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), WORKERS);
+        server.start();
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    /** Plays one room to the end with random legal moves and returns the number of moves. */
+    private int playRoom(String room, int players, long seed) throws IOException {
+        GameClient[] clients = new GameClient[players];
+        try {
+            for (int p = 0; p < players; p++) {
+                clients[p] = new GameClient(address);
+                assertEquals(p, clients[p].join(room, players, 6, 9, "p" + p));
+            }
+            for (GameClient client : clients) {
+                client.await(Protocol.START);
+            }
+
+            SplittableRandom random = new SplittableRandom(seed);
+            int moves = 0;
+            GameEngine game = clients[0].getEngine();
+            while (!game.isGameOver()) {
+                int cell;
+                do {
+                    cell = random.nextInt(54);
+                } while (!game.isLegalMove(cell / 9, cell % 9));
+                clients[game.getCurrentPlayerIndex()].move(cell);
+                for (GameClient client : clients) {
+                    client.await(Protocol.MOVED);
+                    assertEquals(cell, client.getLastCell());
+                }
+                moves++;
+            }
+            for (GameClient client : clients) {
+                client.await(Protocol.OVER);
+                assertEquals(game.getWinnerId(), client.getWinnerId());
+                assertEquals(game.getPositionHash(), client.getEngine().getPositionHash());
+            }
+            return moves;
+        } finally {
+            for (GameClient client : clients) {
+                if (client != null) {
+                    client.close();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void manyConcurrentRoomsPlayToTheEnd() throws Exception {
+        int rooms = 300;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> games = new ArrayList<>();
+            for (int r = 0; r < rooms; r++) {
+                int room = r;
+                games.add(pool.submit(() -> playRoom("room" + room, 2 + room % 3, room)));
+            }
+            for (Future<Integer> game : games) {
+                assertTrue(game.get() > 0);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        awaitNoRooms();
+    }
+
+    private void awaitNoRooms() throws InterruptedException {
+        // Rooms close on their worker right after the last broadcast
+        for (int i = 0; i < 100 && server.getRoomCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getRoomCount());
+    }
+
+    @Test
+    public void roomsAreSpreadOverWorkersAndMeasured() throws Exception {
+        List<GameClient> clients = new ArrayList<>();
+        try {
+            // Seat one player in each of several rooms so they all stay open
+            for (int r = 0; r < 2 * WORKERS; r++) {
+                GameClient client = new GameClient(address);
+                clients.add(client);
+                client.join("spread" + r, 2, 6, 9, "p");
+            }
+            int total = 0;
+            for (WorkerMetrics metrics : server.getMetrics()) {
+                assertEquals(2, metrics.getRooms());
+                total += metrics.getRooms();
+            }
+            assertEquals(server.getRoomCount(), total);
+        } finally {
+            for (GameClient client : clients) {
+                client.close();
+            }
+        }
+        awaitNoRooms();
+
+        int moves = playRoom("measured", 2, 7);
+        // A move is counted once its broadcast has gone out, so the last one may lag a little
+        long recorded = 0;
+        for (int i = 0; i < 100 && recorded < moves; i++) {
+            Thread.sleep(10);
+            recorded = 0;
+            for (WorkerMetrics metrics : server.getMetrics()) {
+                recorded += metrics.getMoves();
+            }
+        }
+        assertEquals(moves, recorded);
+        for (WorkerMetrics metrics : server.getMetrics()) {
+            if (metrics.getMoves() > 0) {
+                assertTrue(metrics.getMoveLatencyP50Nanos() > 0);
+                assertTrue(metrics.getMoveLatencyP99Nanos() >= metrics.getMoveLatencyP50Nanos());
+            }
+        }
+    }
+
+    @Test
+    public void rejectsOutOfTurnAndIllegalMoves() throws IOException {
+        try (GameClient first = new GameClient(address); GameClient second = new GameClient(address)) {
+            first.join("duel", 2, 6, 9, "Ana");
+            second.join("duel", 2, 6, 9, "Bo");
+            first.await(Protocol.START);
+            second.await(Protocol.START);
+
+            second.move(0);
+            assertEquals(Protocol.ERROR, second.next());
+            assertEquals(Protocol.ERROR_NOT_YOUR_TURN, second.getErrorCode());
+            first.move(0);
+            first.await(Protocol.MOVED);
+            second.await(Protocol.MOVED);
+            second.move(0);
+            assertEquals(Protocol.ERROR, second.next());
+            assertEquals(Protocol.ERROR_ILLEGAL_MOVE, second.getErrorCode());
+            second.move(54);
+            assertEquals(Protocol.ERROR, second.next());
+            assertEquals(Protocol.ERROR_ILLEGAL_MOVE, second.getErrorCode());
+
+            GameClient third = new GameClient(address);
+            try {
+                third.join("duel", 2, 6, 9, "Chidi");
+                fail("joined a full room");
+            } catch (IOException expected) {
+            } finally {
+                third.close();
+            }
+        }
+    }
+
+    @Test
+    public void leavingAbortsTheRoom() throws Exception {
+        try (GameClient stays = new GameClient(address)) {
+            stays.join("short", 2, 6, 9, "Ana");
+            try (GameClient leaves = new GameClient(address)) {
+                leaves.join("short", 2, 6, 9, "Bo");
+            }
+            stays.await(Protocol.ABORTED);
+            assertEquals(1, stays.getAbortedSeat());
+            awaitNoRooms();
+
+            // The remaining player is free to join another room
+            stays.join("next", 2, 6, 9, "Ana");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.chainreaction.server;
+
+import com.example.chainreaction.engine.GameEngine;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ProtocolTest {
+
+    @Test
+    public void deltasPatchAThinClientToTheServerBoard() {
+        for (long seed = 0; seed < 20; seed++) {
+            GameEngine engine = new GameEngine(10, 15, 3, null);
+            BoardDelta sent = new BoardDelta(150);
+            BoardDelta received = new BoardDelta(150);
+            byte[] owners = new byte[150];
+            byte[] atoms = new byte[150];
+            Arrays.fill(owners, (byte) -1);
+            ByteBuffer wire = ByteBuffer.allocate(Protocol.HEADER_BYTES + Protocol.MAX_PAYLOAD);
+            Random random = new Random(seed);
+
+            while (!engine.isGameOver()) {
+                int cell = random.nextInt(150);
+                int seat = engine.getCurrentPlayerIndex();
+                if (engine.play(cell) < 0) {
+                    continue;
+                }
+                sent.collect(engine, cell);
+                wire.clear();
+                Protocol.moved(wire, seat, cell, sent, true, BoardDelta.checksum(engine.getBoard()));
+                wire.flip();
+
+                assertEquals(wire.remaining(), Protocol.frameSize(wire));
+                assertEquals(Protocol.MOVED, Protocol.frameType(wire));
+                wire.position(Protocol.HEADER_BYTES);
+                assertEquals(seat, wire.get());
+                assertEquals(cell, Protocol.getVarint(wire));
+                assertEquals(Protocol.FLAG_CHECKSUM, wire.get());
+                received.read(wire);
+                received.applyTo(owners, atoms);
+                assertEquals(BoardDelta.checksum(owners, atoms), wire.getLong());
+                assertFalse(wire.hasRemaining());
+
+                for (int i = 0; i < 150; i++) {
+                    assertEquals(engine.getBoard().getOwnerPlayerId(i), owners[i]);
+                    assertEquals(engine.getBoard().getAtomCount(i), atoms[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void quietMoveIsSmall() {
+        GameEngine engine = new GameEngine(6, 9, 2, null);
+        engine.play(20);
+        BoardDelta delta = new BoardDelta(54);
+        delta.collect(engine, 20);
+        ByteBuffer wire = ByteBuffer.allocate(64);
+        Protocol.moved(wire, 0, 20, delta, false, 0);
+        // Header, seat, cell, flags, count, one changed cell
+        assertEquals(3 + 1 + 1 + 1 + 1 + 3, wire.position());
+    }
+
+    @Test
+    public void partialFramesAreNotReady() {
+        ByteBuffer wire = ByteBuffer.allocate(64);
+        Protocol.join(wire, "room", 2, 6, 9, "Ana");
+        int size = wire.position();
+        wire.flip();
+        for (int available = 0; available < size; available++) {
+            wire.limit(available);
+            assertEquals(-1, Protocol.frameSize(wire));
+        }
+        wire.limit(size);
+        assertEquals(size, Protocol.frameSize(wire));
+    }
+}
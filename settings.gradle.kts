@@ -21,4 +21,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "Chain Reaction"
 include(":app")
- 
\ No newline at end of file
+include(":engine")
+include(":benchmarks")
+include(":simulator")
+include(":server")
@@ -0,0 +1,18 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":engine"))
+    testImplementation(libs.junit)
+}
+
+// ./gradlew :simulator:run --args="--games 10000 --size 6x9 --policies random,greedy"
+application {
+    mainClass.set("com.example.chainreaction.simulator.SimulatorMain")
+}
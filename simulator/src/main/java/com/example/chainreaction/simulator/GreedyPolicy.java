@@ -0,0 +1,64 @@
+package com.example.chainreaction.simulator;
+
+import com.example.chainreaction.engine.Board;
+import com.example.chainreaction.engine.GameEngine;
+
+import java.util.SplittableRandom;
+
+/**
+ * One-ply heuristic that needs no copy of the board. Moves that set off an
+ * explosion score by the enemy atoms they would capture next to the cell;
+ * quiet moves prefer low-capacity cells that are not next to a critical
+ * enemy cell. Ties are broken at random.
+ */
+public class GreedyPolicy implements MovePolicy {
+
+    @Override
+    public int chooseMove(GameEngine engine, SplittableRandom random) {
+        Board board = engine.getBoard();
+        int playerId = engine.getCurrentPlayerIndex();
+        int best = -1;
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        for (int i = 0; i < board.getCellCount(); i++) {
+            int owner = board.getOwnerPlayerId(i);
+            if (owner != -1 && owner != playerId) {
+                continue;
+            }
+            int score = score(board, i, playerId);
+            if (score > bestScore) {
+                best = i;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                // Reservoir sampling keeps every tied cell equally likely
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static int score(Board board, int cell, int playerId) {
+        int capacity = board.getMaxCapacity(cell);
+        int clicks = board.getOwnerPlayerId(cell) == playerId ? board.getClickCount(cell) + 1 : 1;
+        boolean explodes = board.getAtomCount(cell) + clicks >= capacity;
+
+        int enemyAtoms = 0;
+        boolean threatened = false;
+        for (int k = 0; k < capacity; k++) {
+            int neighbor = board.getNeighbor(cell, k);
+            int owner = board.getOwnerPlayerId(neighbor);
+            if (owner != -1 && owner != playerId) {
+                enemyAtoms += board.getAtomCount(neighbor);
+                if (board.isFull(neighbor) || board.getAtomCount(neighbor) == board.getMaxCapacity(neighbor) - 1) {
+                    threatened = true;
+                }
+            }
+        }
+
+        if (explodes) {
+            return 100 + enemyAtoms * 10;
+        }
+        return (threatened ? -50 : 0) + (4 - capacity) * 5 + board.getAtomCount(cell);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.chainreaction.simulator;
+
+import com.example.chainreaction.engine.GameEngine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses moves for one seat in a simulated game. A policy instance is used
+ * by a single worker thread at a time, so it may keep scratch state.
+ */
+public interface MovePolicy {
+    /** Returns the cell index to play; it must be legal for the current player. */
+    int chooseMove(GameEngine engine, SplittableRandom random);
+
+    /** Called before each game so stateful policies can start over. */
+    default void newGame() {
+    }
+}
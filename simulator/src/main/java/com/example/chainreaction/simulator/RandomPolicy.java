@@ -0,0 +1,29 @@
+package com.example.chainreaction.simulator;
+
+import com.example.chainreaction.engine.Board;
+import com.example.chainreaction.engine.GameEngine;
+
+import java.util.SplittableRandom;
+
+/** Plays a uniformly random legal move. */
+public class RandomPolicy implements MovePolicy {
+    private int[] legal = new int[0];
+
+    @Override
+    public int chooseMove(GameEngine engine, SplittableRandom random) {
+        Board board = engine.getBoard();
+        int cellCount = board.getCellCount();
+        if (legal.length < cellCount) {
+            legal = new int[cellCount];
+        }
+        int playerId = engine.getCurrentPlayerIndex();
+        int legalCount = 0;
+        for (int i = 0; i < cellCount; i++) {
+            int owner = board.getOwnerPlayerId(i);
+            if (owner == -1 || owner == playerId) {
+                legal[legalCount++] = i;
+            }
+        }
+        return legal[random.nextInt(legalCount)];
+    }
+}
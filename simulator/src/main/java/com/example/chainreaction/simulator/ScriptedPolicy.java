@@ -0,0 +1,39 @@
+package com.example.chainreaction.simulator;
+
+import com.example.chainreaction.engine.GameEngine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Replays a fixed list of cells in order, for reproducing a reported game or
+ * forcing an opening. A scripted cell that is not legal is skipped; once the
+ * script is used up the fallback policy takes over.
+ */
+public class ScriptedPolicy implements MovePolicy {
+    private final int[] script;
+    private final MovePolicy fallback;
+    private int position;
+
+    public ScriptedPolicy(int[] script, MovePolicy fallback) {
+        this.script = script.clone();
+        this.fallback = fallback;
+    }
+
+    @Override
+    public int chooseMove(GameEngine engine, SplittableRandom random) {
+        int cols = engine.getBoard().getCols();
+        while (position < script.length) {
+            int cell = script[position++];
+            if (engine.isLegalMove(cell / cols, cell % cols)) {
+                return cell;
+            }
+        }
+        return fallback.chooseMove(engine, random);
+    }
+
+    @Override
+    public void newGame() {
+        position = 0;
+        fallback.newGame();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.chainreaction.simulator;
+
+/**
+ * Aggregate results of a batch of simulated games. Each worker fills its own
+ * instance and the simulator merges them at the end, so nothing here is
+ * shared between threads.
+ */
+public class SimulationStats {
+    /** Chains of this many waves or more share the last histogram bucket. */
+    public static final int MAX_CHAIN_BUCKET = 32;
+
+    private final int numPlayers;
+    private final long[] wins;
+    private final long[] chainHistogram = new long[MAX_CHAIN_BUCKET + 1];
+    private long games;
+    private long unfinishedGames;
+    private long moves;
+    private long saturatedMoves;
+    private int shortestGame = Integer.MAX_VALUE;
+    private int longestGame;
+    private int longestChain;
+    private long elapsedNanos;
+
+    public SimulationStats(int numPlayers) {
+        this.numPlayers = numPlayers;
+        this.wins = new long[numPlayers];
+    }
+
+    void recordMove(int waves, boolean saturated) {
+        moves++;
+        chainHistogram[Math.min(waves, MAX_CHAIN_BUCKET)]++;
+        longestChain = Math.max(longestChain, waves);
+        if (saturated) {
+            saturatedMoves++;
+        }
+    }
+
+    void recordGame(int length, int winnerId) {
+        games++;
+        shortestGame = Math.min(shortestGame, length);
+        longestGame = Math.max(longestGame, length);
+        if (winnerId >= 0) {
+            wins[winnerId]++;
+        } else {
+            unfinishedGames++;
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    void merge(SimulationStats other) {
+        games += other.games;
+        unfinishedGames += other.unfinishedGames;
+        moves += other.moves;
+        saturatedMoves += other.saturatedMoves;
+        shortestGame = Math.min(shortestGame, other.shortestGame);
+        longestGame = Math.max(longestGame, other.longestGame);
+        longestChain = Math.max(longestChain, other.longestChain);
+        for (int p = 0; p < numPlayers; p++) {
+            wins[p] += other.wins[p];
+        }
+        for (int i = 0; i < chainHistogram.length; i++) {
+            chainHistogram[i] += other.chainHistogram[i];
+        }
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    /** Games stopped at the move limit without a winner. */
+    public long getUnfinishedGames() {
+        return unfinishedGames;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getSaturatedMoves() {
+        return saturatedMoves;
+    }
+
+    public long getWins(int playerId) {
+        return wins[playerId];
+    }
+
+    /** Share of finished games won by the player who moved first. */
+    public double getFirstPlayerWinRate() {
+        long finished = games - unfinishedGames;
+        return finished == 0 ? 0 : (double) wins[0] / finished;
+    }
+
+    public double getAverageGameLength() {
+        return games == 0 ? 0 : (double) moves / games;
+    }
+
+    public int getShortestGame() {
+        return games == 0 ? 0 : shortestGame;
+    }
+
+    public int getLongestGame() {
+        return longestGame;
+    }
+
+    public int getLongestChain() {
+        return longestChain;
+    }
+
+    /** Number of moves whose chain reaction had {@code waves} waves. */
+    public long getChainCount(int waves) {
+        return chainHistogram[Math.min(waves, MAX_CHAIN_BUCKET)];
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("games          %d (%d unfinished)%n", games, unfinishedGames));
+        out.append(String.format("games/sec      %.1f%n", getGamesPerSecond()));
+        out.append(String.format("game length    avg %.1f, min %d, max %d moves%n",
+                getAverageGameLength(), getShortestGame(), longestGame));
+        for (int p = 0; p < numPlayers; p++) {
+            long finished = games - unfinishedGames;
+            out.append(String.format("player %d wins  %d (%.1f%%)%n",
+                    p + 1, wins[p], finished == 0 ? 0 : 100.0 * wins[p] / finished));
+        }
+        out.append(String.format("saturated      %d moves%n", saturatedMoves));
+        out.append(String.format("chain waves    longest %d%n", longestChain));
+        for (int i = 0; i <= MAX_CHAIN_BUCKET; i++) {
+            if (chainHistogram[i] > 0) {
+                out.append(String.format("  %3d%s %12d (%.2f%%)%n", i, i == MAX_CHAIN_BUCKET ? "+" : " ",
+                        chainHistogram[i], 100.0 * chainHistogram[i] / moves));
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.chainreaction.simulator;
+
+import com.example.chainreaction.engine.Board;
+import com.example.chainreaction.engine.GameEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games headlessly on a fixed thread pool. Games are split into
+ * batches; each batch reuses one {@link GameEngine} through
+ * {@link GameEngine#reset()} and records into its own {@link SimulationStats}.
+ * Game {@code g} always uses the same random stream, so results do not
+ * depend on the thread count.
+ */
+public class Simulator {
+    private static final int GAMES_PER_BATCH = 256;
+
+    private final int rows;
+    private final int cols;
+    private final List<Supplier<MovePolicy>> policies;
+    private final int maxMovesPerGame;
+
+    /**
+     * @param policies one factory per seat; each batch creates its own
+     *                 policy instances so they may keep state
+     */
+    public Simulator(int rows, int cols, List<Supplier<MovePolicy>> policies) {
+        if (rows < 1 || cols < 1 || rows * cols < 2) {
+            throw new IllegalArgumentException("Board must have at least 2 cells, got " + rows + "x" + cols);
+        }
+        if (policies.size() < 2 || policies.size() > Board.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Unsupported number of players: " + policies.size());
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.policies = new ArrayList<>(policies);
+        // Games normally end long before this; it only guards against stalemates under a tight budget
+        this.maxMovesPerGame = rows * cols * 64;
+    }
+
+    public SimulationStats run(int games, int threads, long seed) throws InterruptedException {
+        if (games < 0 || threads < 1) {
+            throw new IllegalArgumentException("Need a non-negative game count and at least one thread");
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationStats>> batches = new ArrayList<>();
+            for (int first = 0; first < games; first += GAMES_PER_BATCH) {
+                int from = first;
+                int to = Math.min(games, first + GAMES_PER_BATCH);
+                batches.add(executor.submit(() -> playBatch(from, to, seed)));
+            }
+
+            SimulationStats total = new SimulationStats(policies.size());
+            for (Future<SimulationStats> batch : batches) {
+                try {
+                    total.merge(batch.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Simulation batch failed", e.getCause());
+                }
+            }
+            total.setElapsedNanos(System.nanoTime() - start);
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SimulationStats playBatch(int from, int to, long seed) {
+        int numPlayers = policies.size();
+        MovePolicy[] seats = new MovePolicy[numPlayers];
+        for (int p = 0; p < numPlayers; p++) {
+            seats[p] = policies.get(p).get();
+        }
+        GameEngine engine = new GameEngine(rows, cols, numPlayers, null);
+        SimulationStats stats = new SimulationStats(numPlayers);
+
+        for (int game = from; game < to; game++) {
+            engine.reset();
+            for (MovePolicy seat : seats) {
+                seat.newGame();
+            }
+            SplittableRandom random = new SplittableRandom(seed + game * 0x9E3779B97F4A7C15L);
+            int length = 0;
+            while (!engine.isGameOver() && length < maxMovesPerGame) {
+                int cell = seats[engine.getCurrentPlayerIndex()].chooseMove(engine, random);
+                int waves = engine.play(cell);
+                if (waves < 0) {
+                    throw new IllegalStateException("Policy for player " + (engine.getCurrentPlayerIndex() + 1)
+                            + " chose illegal cell " + cell);
+                }
+                stats.recordMove(waves, engine.isLastMoveSaturated());
+                length++;
+            }
+            stats.recordGame(length, engine.isGameOver() ? engine.getWinnerId() : -1);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.chainreaction.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Command-line entry point:
+ *
+ * <pre>
+ * --games N        games to play (default 10000)
+ * --size RxC       board size (default 6x9)
+ * --policies LIST  one policy per seat: random, greedy or scripted:c1;c2;...
+ *                  (default random,random)
+ * --threads N      worker threads (default: available processors)
+ * --seed N         base random seed (default 1)
+ * </pre>
+ */
+public final class SimulatorMain {
+
+    private SimulatorMain() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = 10_000;
+        int rows = 6;
+        int cols = 9;
+        String policies = "random,random";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--games":
+                    games = Integer.parseInt(require(args[i], value));
+                    break;
+                case "--size":
+                    String[] parts = require(args[i], value).split("x");
+                    rows = Integer.parseInt(parts[0]);
+                    cols = Integer.parseInt(parts[1]);
+                    break;
+                case "--policies":
+                    policies = require(args[i], value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(require(args[i], value));
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(require(args[i], value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+
+        Simulator simulator = new Simulator(rows, cols, parsePolicies(policies));
+        System.out.printf("Simulating %d games on %dx%d with %s, %d threads%n", games, rows, cols, policies, threads);
+        System.out.print(simulator.run(games, threads, seed).format());
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return value;
+    }
+
+    static List<Supplier<MovePolicy>> parsePolicies(String spec) {
+        List<Supplier<MovePolicy>> seats = new ArrayList<>();
+        for (String name : spec.split(",")) {
+            seats.add(parsePolicy(name.trim()));
+        }
+        return seats;
+    }
+
+    private static Supplier<MovePolicy> parsePolicy(String name) {
+        if (name.equals("random")) {
+            return RandomPolicy::new;
+        }
+        if (name.equals("greedy")) {
+            return GreedyPolicy::new;
+        }
+        if (name.startsWith("scripted:")) {
+            String[] cells = name.substring("scripted:".length()).split(";");
+            int[] script = new int[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                script[i] = Integer.parseInt(cells[i].trim());
+            }
+            return () -> new ScriptedPolicy(script, new RandomPolicy());
+        }
+        throw new IllegalArgumentException("Unknown policy: " + name);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.chainreaction.simulator;
+
+import com.example.chainreaction.engine.GameEngine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class SimulatorTest {
+
+    @Test
+    public void resultsDoNotDependOnThreadCount() throws InterruptedException {
+        Simulator simulator = new Simulator(6, 9, SimulatorMain.parsePolicies("random,greedy"));
+        SimulationStats single = simulator.run(600, 1, 7);
+        SimulationStats parallel = simulator.run(600, 4, 7);
+
+        assertEquals(600, single.getGames());
+        assertEquals(single.getMoves(), parallel.getMoves());
+        assertEquals(single.getWins(0), parallel.getWins(0));
+        assertEquals(single.getLongestChain(), parallel.getLongestChain());
+        for (int waves = 0; waves <= SimulationStats.MAX_CHAIN_BUCKET; waves++) {
+            assertEquals(single.getChainCount(waves), parallel.getChainCount(waves));
+        }
+    }
+
+    @Test
+    public void everyFinishedGameHasAWinner() throws InterruptedException {
+        SimulationStats stats = new Simulator(5, 5, SimulatorMain.parsePolicies("random,random,greedy"))
+                .run(300, 2, 3);
+
+        assertEquals(0, stats.getUnfinishedGames());
+        assertEquals(300, stats.getWins(0) + stats.getWins(1) + stats.getWins(2));
+        long moves = 0;
+        for (int waves = 0; waves <= SimulationStats.MAX_CHAIN_BUCKET; waves++) {
+            moves += stats.getChainCount(waves);
+        }
+        assertEquals(stats.getMoves(), moves);
+    }
+
+    @Test
+    public void scriptedPolicySkipsIllegalCellsThenFallsBack() {
+        GameEngine engine = new GameEngine(3, 3, 2, null);
+        engine.play(4);
+        ScriptedPolicy policy = new ScriptedPolicy(new int[] {4, 8}, (game, random) -> 0);
+        SplittableRandom random = new SplittableRandom(1);
+
+        assertEquals(8, policy.chooseMove(engine, random));
+        assertEquals(0, policy.chooseMove(engine, random));
+        policy.newGame();
+        engine.reset();
+        assertEquals(4, policy.chooseMove(engine, random));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownPolicy() {
+        SimulatorMain.parsePolicies(String.join(",", Arrays.asList("random", "minimax")));
+    }
+}